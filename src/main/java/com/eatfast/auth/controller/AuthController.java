@@ -267,9 +267,8 @@ public class AuthController {
             session = request.getSession(true); // 創建新的Session
             
             // 設定Session屬性
+            // 【優化】Session 存放在 Redis，只保留各頁面實際讀取的屬性 (移除未被使用的帳號 / 重複的姓名)
             session.setAttribute("loggedInMemberId", member.getMemberId());
-            session.setAttribute("loggedInMemberAccount", member.getAccount());
-            session.setAttribute("loggedInMemberName", member.getUsername());
             session.setAttribute("memberName", member.getUsername()); // 【新增】為前端模板提供一致的屬性名稱
             session.setAttribute("isLoggedIn", true);
             session.setAttribute("loginTime", System.currentTimeMillis());
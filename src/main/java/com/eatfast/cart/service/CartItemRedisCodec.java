@@ -0,0 +1,88 @@
+package com.eatfast.cart.service;
+
+import com.eatfast.cart.dto.CartDTO.CartItemRedisData;
+import com.eatfast.common.redis.RedisValueCodec;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 購物車 Redis Hash Value 的編碼格式 (型別代碼 'C')。
+ * <p>
+ * 為了讓 Lua 腳本能在 Redis 端直接讀寫購物車項目，Value 為精簡的字串格式：
+ * <ul>
+ * <li>{@code C1|<數量>|<客製化備註>} - 有備註 (備註可為空字串，且可包含 '|')</li>
+ * <li>{@code C1|<數量>} - 備註為 null</li>
+ * </ul>
+ * 其中 "C" 代表購物車項目，"1" 為格式版本，與 {@link com.eatfast.common.redis.TypedRedisSerializer}
+ * 的標頭格式一致，因此一般的 RedisTemplate 也能直接讀出 CartItemRedisData。
+ * 舊版以 GenericJackson2JsonRedisSerializer 寫入的 JSON 仍可讀取，下次被修改時會自動改寫為新格式。
+ * </p>
+ */
+public class CartItemRedisCodec implements RedisValueCodec<CartItemRedisData> {
+
+    static final String PREFIX = "C1|";
+
+    private static final CartItemRedisCodec INSTANCE = new CartItemRedisCodec();
+    private static final ObjectMapper LEGACY_MAPPER = new ObjectMapper();
+
+    @Override
+    public char typeTag() {
+        return 'C';
+    }
+
+    @Override
+    public int currentVersion() {
+        return 1;
+    }
+
+    @Override
+    public Class<CartItemRedisData> javaType() {
+        return CartItemRedisData.class;
+    }
+
+    @Override
+    public String encode(CartItemRedisData value) {
+        Long quantity = value.getQuantity();
+        String base = String.valueOf(quantity != null ? quantity : 0L);
+        return value.getMealCustomization() != null ? base + "|" + value.getMealCustomization() : base;
+    }
+
+    @Override
+    public CartItemRedisData decode(int version, String payload) {
+        if (version != 1) {
+            throw new IllegalStateException("不支援的購物車格式版本: " + version);
+        }
+        int sep = payload.indexOf('|');
+        if (sep < 0) {
+            return new CartItemRedisData(Long.parseLong(payload), null);
+        }
+        return new CartItemRedisData(Long.parseLong(payload.substring(0, sep)), payload.substring(sep + 1));
+    }
+
+    // 供 CartServiceImpl 解碼透過 StringRedisTemplate / Lua 腳本讀出的原始字串 (含標頭)
+    static CartItemRedisData decode(String raw) {
+        if (raw == null) {
+            return null;
+        }
+        if (raw.startsWith(PREFIX)) {
+            return INSTANCE.decode(1, raw.substring(PREFIX.length()));
+        }
+        return decodeLegacyJson(raw);
+    }
+
+    // 舊格式：{"@class":"...CartItemRedisData","quantity":2 或 ["java.lang.Long",2],"mealCustomization":"..."}
+    private static CartItemRedisData decodeLegacyJson(String raw) {
+        try {
+            JsonNode node = LEGACY_MAPPER.readTree(raw);
+            JsonNode quantityNode = node.path("quantity");
+            if (quantityNode.isArray()) {
+                quantityNode = quantityNode.path(1);
+            }
+            JsonNode customizationNode = node.path("mealCustomization");
+            String customization = customizationNode.isTextual() ? customizationNode.asText() : null;
+            return new CartItemRedisData(quantityNode.asLong(0L), customization);
+        } catch (Exception e) {
+            throw new IllegalStateException("無法解析購物車資料: " + raw, e);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.eatfast.cart.service;
+
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+/**
+ * 購物車異動用的 Lua 腳本。
+ * <p>
+ * 每個異動都在 Redis 端以單一腳本原子地完成 (讀取 → 修改 → 寫回 → 更新 TTL)，
+ * 只需一次網路往返，且兩個同時加入同一餐點的請求不會互相覆蓋數量。
+ * Value 格式請見 {@link CartItemRedisCodec}；舊版 JSON 格式會在腳本中以 cjson 解析後改寫為新格式。
+ * </p>
+ */
+final class CartRedisScripts {
+
+    private CartRedisScripts() {}
+
+    /** 腳本回傳：購物車中已有其他門市的餐點 */
+    static final String RESULT_STORE_CONFLICT = "!STORE";
+    /** 腳本回傳：購物車項目不存在或已過期 */
+    static final String RESULT_MISSING = "!MISSING";
+    /** 腳本回傳：數量為 0，項目已刪除 */
+    static final String RESULT_DELETED = "!DELETED";
+
+    // 共用的編碼 / 解碼函式，與 CartItemRedisCodec 保持一致
+    private static final String CODEC =
+            "local function decode(v) " +
+            "  if not v then return nil, nil end " +
+            "  local q, c = string.match(v, '^C1|(%d+)|(.*)$') " +
+            "  if q then return tonumber(q), c end " +
+            "  q = string.match(v, '^C1|(%d+)$') " +
+            "  if q then return tonumber(q), nil end " +
+            "  local ok, obj = pcall(cjson.decode, v) " +
+            "  if ok and type(obj) == 'table' then " +
+            "    local x = obj['quantity'] " +
+            "    if type(x) == 'table' then x = x[2] end " +
+            "    local cust = obj['mealCustomization'] " +
+            "    if type(cust) ~= 'string' then cust = nil end " +
+            "    return tonumber(x) or 0, cust " +
+            "  end " +
+            "  return 0, nil " +
+            "end " +
+            "local function encode(q, c) " +
+            "  local base = 'C1|' .. string.format('%d', q) " +
+            "  if c then return base .. '|' .. c end " +
+            "  return base " +
+            "end ";
+
+    /**
+     * 新增或累加購物車項目，並在腳本內檢查「同一購物車只能有一個門市」。
+     * KEYS[1] = 購物車 key；ARGV = [field, storeId, 增加數量, 是否有備註(1/0), 備註, TTL 秒]
+     * 回傳新的 Value，或 {@link #RESULT_STORE_CONFLICT}。
+     */
+    static final DefaultRedisScript<String> ADD_ITEM = new DefaultRedisScript<>(CODEC +
+            "for _, f in ipairs(redis.call('HKEYS', KEYS[1])) do " +
+            "  if string.match(f, ':(%d+)$') ~= ARGV[2] then return '" + RESULT_STORE_CONFLICT + "' end " +
+            "end " +
+            "local q = decode(redis.call('HGET', KEYS[1], ARGV[1])) " +
+            "q = (q or 0) + tonumber(ARGV[3]) " +
+            "local c = nil " +
+            "if ARGV[4] == '1' then c = ARGV[5] end " +
+            "local v = encode(q, c) " +
+            "redis.call('HSET', KEYS[1], ARGV[1], v) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[6]) " +
+            "return v",
+            String.class);
+
+    /**
+     * 設定購物車項目的數量 (0 代表刪除) 與備註。
+     * KEYS[1] = 購物車 key；ARGV = [field, 數量, 是否更新備註(1/0), 備註, TTL 秒]
+     * 回傳新的 Value，或 {@link #RESULT_MISSING} / {@link #RESULT_DELETED}。
+     */
+    static final DefaultRedisScript<String> UPDATE_ITEM = new DefaultRedisScript<>(CODEC +
+            "local old = redis.call('HGET', KEYS[1], ARGV[1]) " +
+            "if not old then return '" + RESULT_MISSING + "' end " +
+            "local q = tonumber(ARGV[2]) " +
+            "if q == 0 then " +
+            "  redis.call('HDEL', KEYS[1], ARGV[1]) " +
+            "  redis.call('EXPIRE', KEYS[1], ARGV[5]) " +
+            "  return '" + RESULT_DELETED + "' " +
+            "end " +
+            "local _, c = decode(old) " +
+            "if ARGV[3] == '1' then c = ARGV[4] end " +
+            "local v = encode(q, c) " +
+            "redis.call('HSET', KEYS[1], ARGV[1], v) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[5]) " +
+            "return v",
+            String.class);
+
+    /**
+     * 移除購物車項目並更新 TTL。
+     * KEYS[1] = 購物車 key；ARGV = [field, TTL 秒]；回傳刪除筆數。
+     */
+    static final DefaultRedisScript<Long> REMOVE_ITEM = new DefaultRedisScript<>(
+            "local n = redis.call('HDEL', KEYS[1], ARGV[1]) " +
+            "if n > 0 then redis.call('EXPIRE', KEYS[1], ARGV[2]) end " +
+            "return n",
+            Long.class);
+
+    /**
+     * 將購物車中所有項目的備註改為同一個值 (數量不變)。
+     * KEYS[1] = 購物車 key；ARGV = [是否有備註(1/0), 備註]；回傳更新筆數。
+     */
+    static final DefaultRedisScript<Long> SET_ALL_CUSTOMIZATION = new DefaultRedisScript<>(CODEC +
+            "local all = redis.call('HGETALL', KEYS[1]) " +
+            "local c = nil " +
+            "if ARGV[1] == '1' then c = ARGV[2] end " +
+            "local n = 0 " +
+            "for i = 1, #all, 2 do " +
+            "  local q = decode(all[i + 1]) " +
+            "  redis.call('HSET', KEYS[1], all[i], encode(q or 0, c)) " +
+            "  n = n + 1 " +
+            "end " +
+            "return n",
+            Long.class);
+}
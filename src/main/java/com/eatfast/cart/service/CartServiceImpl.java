@@ -1,5 +1,4 @@
 package com.eatfast.cart.service;
-import com.eatfast.cart.dto.CartDTO;
 import com.eatfast.cart.dto.CartDTO.AddToCartRequest;
 import com.eatfast.cart.dto.CartDTO.CartItemDto;
 import com.eatfast.cart.dto.CartDTO.UpdateCartItemRequest;
@@ -15,15 +14,16 @@ import com.eatfast.store.repository.StoreRepository;
 import jakarta.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 @Service
 @Transactional(readOnly = true)
@@ -31,7 +31,8 @@ public class CartServiceImpl implements CartService {
    private final MemberRepository memberRepository;
    private final MealRepository mealRepository;
    private final StoreRepository storeRepository;
-   private final RedisTemplate<String, Object> redisTemplate;
+   // 購物車 Value 以 CartItemRedisCodec 的字串格式存放，搭配 Lua 腳本在 Redis 端原子地異動
+   private final StringRedisTemplate redisTemplate;
    private static final String CART_REDIS_KEY_PREFIX = "cart:";
    private static final long CART_TTL_SECONDS = TimeUnit.DAYS.toSeconds(7);
    @Autowired
@@ -42,7 +43,7 @@ public class CartServiceImpl implements CartService {
                           MemberRepository memberRepository,
                           MealRepository mealRepository,
                           StoreRepository storeRepository,
-                          RedisTemplate<String, Object> redisTemplate
+                          StringRedisTemplate redisTemplate
                           ) {
        this.memberRepository = memberRepository;
        this.mealRepository = mealRepository;
@@ -94,36 +95,24 @@ public class CartServiceImpl implements CartService {
        mealRepository.findById(mealId).orElseThrow(() -> new EntityNotFoundException("餐點不存在"));
        storeRepository.findById(newStoreId).orElseThrow(() -> new EntityNotFoundException("門市不存在"));
 
+       // 2. 【優化】以單一 Lua 腳本原子地完成「門市一致性檢查 → 累加數量 → 寫回 → 更新 TTL」，
+       //    只需一次網路往返，且同時加入同一餐點時不會遺失數量。
        String cartKey = getCartRedisKey(memberId);
-       Map<Object, Object> currentCart = redisTemplate.opsForHash().entries(cartKey);
-
-       // 2. 【關鍵邏輯】檢查購物車是否為空，以及門市是否一致
-       if (!currentCart.isEmpty()) {
-           // 取出購物車中任一筆資料來判斷其 storeId
-           String firstItemField = (String) currentCart.keySet().iterator().next();
-           String[] parts = firstItemField.split(":");
-           Long existingStoreId = Long.parseLong(parts[1]); // 根據 "mealId:storeId" 格式
-
-           // 如果新加入的餐點門市與現有購物車的門市不同，則拋出例外
-           if (!newStoreId.equals(existingStoreId)) {
-               throw new IllegalStateException("不允許將不同門市的餐點加入同一個購物車。請先清空購物車。");
-           }
-       }
-
-       // 3. 執行原有的新增或更新邏輯
        String hashField = getCartItemHashField(mealId, newStoreId);
-       CartItemRedisData existingData = (CartItemRedisData) currentCart.get(hashField);
+       String customization = request.getMealCustomization();
+       String result = redisTemplate.execute(CartRedisScripts.ADD_ITEM, List.of(cartKey),
+               hashField,
+               String.valueOf(newStoreId),
+               String.valueOf(request.getQuantity()),
+               customization != null ? "1" : "0",
+               customization != null ? customization : "",
+               String.valueOf(CART_TTL_SECONDS));
 
-       long newQuantity = request.getQuantity();
-       if (existingData != null) {
-           newQuantity += existingData.getQuantity();
+       // 如果新加入的餐點門市與現有購物車的門市不同，則拋出例外
+       if (CartRedisScripts.RESULT_STORE_CONFLICT.equals(result)) {
+           throw new IllegalStateException("不允許將不同門市的餐點加入同一個購物車。請先清空購物車。");
        }
        
-       CartItemRedisData newData = new CartItemRedisData(newQuantity, request.getMealCustomization());
-       
-       redisTemplate.opsForHash().put(cartKey, hashField, newData);
-       redisTemplate.expire(cartKey, CART_TTL_SECONDS, TimeUnit.SECONDS);
-       
        return null; // 因為是頁面跳轉，無需回傳 DTO
    }
    
@@ -133,27 +122,48 @@ public class CartServiceImpl implements CartService {
    public List<CartItemDto> getCartItemsByMember(Long memberId) {
        String redisKey = getCartRedisKey(memberId);
        Map<Object, Object> redisCartMap = redisTemplate.opsForHash().entries(redisKey);
+       if (redisCartMap.isEmpty()) {
+           return new ArrayList<>();
+       }
+       
+       // 1. 先解析所有 Hash Field ("mealId:storeId")，收集要查詢的餐點與門市 ID
+       Set<Long> mealIds = new HashSet<>();
+       Set<Long> storeIds = new HashSet<>();
+       for (Object field : redisCartMap.keySet()) {
+           String[] parts = ((String) field).split(":");
+           if (parts.length != 2) continue;
+           mealIds.add(Long.parseLong(parts[0]));
+           storeIds.add(Long.parseLong(parts[1]));
+       }
+       
+       // 2. 【優化】以 findAllById 一次批次查詢，查詢次數不再隨購物車行數成長 (原本每行各查一次餐點與門市)
+       Map<Long, MealEntity> mealsById = new HashMap<>();
+       for (MealEntity meal : mealRepository.findAllById(mealIds)) {
+           mealsById.put(meal.getMealId(), meal);
+       }
+       Map<Long, StoreEntity> storesById = new HashMap<>();
+       for (StoreEntity store : storeRepository.findAllById(storeIds)) {
+           storesById.put(store.getStoreId(), store);
+       }
+       
+       // 3. 組合 DTO
        List<CartItemDto> resultList = new ArrayList<>();
        for (Map.Entry<Object, Object> entry : redisCartMap.entrySet()) {
            String hashField = (String) entry.getKey(); // e.g., "mealId:storeId"
-           CartItemRedisData redisData = (CartItemRedisData) entry.getValue();
+           CartItemRedisData redisData = CartItemRedisCodec.decode((String) entry.getValue());
            String[] parts = hashField.split(":");
            if (parts.length != 2) continue;
            Long mealId = Long.parseLong(parts[0]); 
            Long storeId = Long.parseLong(parts[1]);
-           // 為了顯示名稱、價格等詳細資訊，我們仍然需要查詢資料庫
-           Optional<MealEntity> mealOpt = mealRepository.findById(mealId);
-           Optional<StoreEntity> storeOpt = storeRepository.findById(storeId);
-           if (mealOpt.isPresent() && storeOpt.isPresent()) {
-               MealEntity meal = mealOpt.get();
-               StoreEntity store = storeOpt.get();
+           MealEntity meal = mealsById.get(mealId);
+           StoreEntity store = storesById.get(storeId);
+           if (meal != null && store != null) {
                CartItemDto dto = new CartItemDto();
                dto.setMemberId(memberId);
                dto.setMealId(mealId);
                dto.setStoreId(storeId);
                dto.setMealName(meal.getMealName());
                dto.setMealPrice(meal.getMealPrice());
-               dto.setMealPicUrl(getMealImageUrl(meal.getMealId()));
                dto.setStoreName(store.getStoreName());
                dto.setQuantity(redisData.getQuantity());
                dto.setMealCustomization(redisData.getMealCustomization());
@@ -165,7 +175,6 @@ public class CartServiceImpl implements CartService {
                    dto.setMealPicUrl("/images/nopic.png"); // 設定預設圖片
                }
                
-               
                resultList.add(dto);
            }
        }
@@ -182,20 +191,22 @@ public class CartServiceImpl implements CartService {
                .orElseThrow(() -> new IllegalArgumentException("門市不存在: " + storeId));
        String cartKey = getCartRedisKey(memberId);
        String hashField = getCartItemHashField(mealId, storeId);
-       CartItemRedisData existingData = (CartItemRedisData) redisTemplate.opsForHash().get(cartKey, hashField);
-       if (existingData == null) {
-           throw new IllegalArgumentException("購物車項目不存在或已過期: member=" + memberId + ", meal=" + mealId + ", store=" + storeId);
-       }
        Long newQuantity = request.getQuantity();
        String customization = request.getMealCustomization();
-       if (newQuantity == 0) {
-           redisTemplate.opsForHash().delete(cartKey, hashField);
-           redisTemplate.expire(cartKey, CART_TTL_SECONDS, TimeUnit.SECONDS);
+       // 【優化】讀取舊值、判斷刪除或改寫、更新 TTL 皆在同一個 Lua 腳本中完成；備註為 null 時保留原備註
+       String result = redisTemplate.execute(CartRedisScripts.UPDATE_ITEM, List.of(cartKey),
+               hashField,
+               String.valueOf(newQuantity),
+               customization != null ? "1" : "0",
+               customization != null ? customization : "",
+               String.valueOf(CART_TTL_SECONDS));
+       if (CartRedisScripts.RESULT_MISSING.equals(result)) {
+           throw new IllegalArgumentException("購物車項目不存在或已過期: member=" + memberId + ", meal=" + mealId + ", store=" + storeId);
+       }
+       if (CartRedisScripts.RESULT_DELETED.equals(result)) {
            return null;
        }
-       CartItemRedisData newData = new CartItemRedisData(newQuantity, customization != null ? customization : existingData.getMealCustomization());
-       redisTemplate.opsForHash().put(cartKey, hashField, newData);
-       redisTemplate.expire(cartKey, CART_TTL_SECONDS, TimeUnit.SECONDS);
+       CartItemRedisData newData = CartItemRedisCodec.decode(result);
        CartItemDto dto = new CartItemDto();
        dto.setCartId(generateCartId(memberId, storeId, mealId)); // 這裡帶 cartId
        dto.setMemberId(member.getMemberId());
@@ -215,11 +226,12 @@ public class CartServiceImpl implements CartService {
    public void removeCartItemByKeys(Long memberId, Long storeId, Long mealId) {
        String cartKey = getCartRedisKey(memberId);
        String hashField = getCartItemHashField(mealId, storeId);
-       Long deletedCount = redisTemplate.opsForHash().delete(cartKey, hashField);
-       if (deletedCount == 0) {
+       // HDEL 與 EXPIRE 合併為單一腳本，一次往返
+       Long deletedCount = redisTemplate.execute(CartRedisScripts.REMOVE_ITEM, List.of(cartKey),
+               hashField, String.valueOf(CART_TTL_SECONDS));
+       if (deletedCount == null || deletedCount == 0) {
            throw new IllegalArgumentException("購物車項目不存在或已過期，無需移除: member=" + memberId + ", meal=" + mealId + ", store=" + storeId);
        }
-       redisTemplate.expire(cartKey, CART_TTL_SECONDS, TimeUnit.SECONDS);
    }
    @Override
    @Transactional
@@ -232,7 +244,7 @@ public class CartServiceImpl implements CartService {
        redisTemplate.delete(cartKey);
    }
    private String getMealImageUrl(Long mealId) {
-	   return "/api/meals/" + mealId + "/image"; 
+	   return "/api/meals/" + mealId + "/image?size=thumb"; // 購物車只需要縮圖
    }
    
    
@@ -240,13 +252,11 @@ public class CartServiceImpl implements CartService {
    
    @Override
    public void updateAllCartItemsCustomization(Long memberId, String mealCustomization) {
-       String redisKey = "cart:" + memberId;
-       Map<Object, Object> cartMap = redisTemplate.opsForHash().entries(redisKey);
-       for (Object key : cartMap.keySet()) {
-           CartDTO.CartItemRedisData data = (CartDTO.CartItemRedisData) cartMap.get(key);
-           data.setMealCustomization(mealCustomization);
-           redisTemplate.opsForHash().put(redisKey, key, data);
-       }
+       // 【優化】原本每個項目各做一次 HSET，改為單一 Lua 腳本一次改寫所有項目的備註
+       String redisKey = getCartRedisKey(memberId);
+       redisTemplate.execute(CartRedisScripts.SET_ALL_CUSTOMIZATION, List.of(redisKey),
+               mealCustomization != null ? "1" : "0",
+               mealCustomization != null ? mealCustomization : "");
    }
   
    @Override
@@ -0,0 +1,39 @@
+package com.eatfast.common.enums;
+
+/**
+ * 上傳圖片的尺寸版本。
+ * 縮圖與中圖存放在原圖目錄下的同名子目錄 (例如 uploads/meal_pic/thumb/xxx.jpg)。
+ */
+public enum ImageSize {
+    THUMB(240, "thumb"),     // 列表、購物車等小圖
+    MEDIUM(640, "medium"),   // 菜單卡片等中圖
+    ORIGINAL(0, null);       // 原圖
+
+    private final int width;
+    private final String directory;
+
+    ImageSize(int width, String directory) {
+        this.width = width;
+        this.directory = directory;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    // 依名稱解析尺寸 (不分大小寫)，無法辨識時回傳原圖
+    public static ImageSize fromName(String name) {
+        if (name != null) {
+            for (ImageSize size : values()) {
+                if (size.name().equalsIgnoreCase(name)) {
+                    return size;
+                }
+            }
+        }
+        return ORIGINAL;
+    }
+}
@@ -0,0 +1,207 @@
+package com.eatfast.common.ratelimit;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * 單一節點的頻率限制器 (Redis 不可用時的備援，或設定 app.rate-limit.backend=memory 時使用)。
+ * <p>
+ * 每個規則一個 ConcurrentHashMap 存放各 key 的狀態，狀態物件建立後重複使用，
+ * 判斷時只做數值比較，不會建立時間物件。
+ * 過期清除不再掃描整個 Map：每個狀態在規則的到期佇列中最多排一筆，
+ * 每次請求順手檢查佇列開頭幾筆 (攤銷 O(1))，到期才移除，期間被使用過的狀態則重新排到佇列尾端。
+ * </p>
+ */
+final class InMemoryRateLimiter implements RateLimiter {
+
+    // 每次請求最多處理的到期佇列筆數
+    private static final int EXPIRY_CHECKS_PER_CALL = 2;
+
+    private final Map<RateLimitRule, RuleStore> stores = new ConcurrentHashMap<>();
+
+    // 目前時間 (毫秒，只用來計算間隔)
+    private final LongSupplier clock;
+
+    InMemoryRateLimiter() {
+        this(() -> System.nanoTime() / 1_000_000L);
+    }
+
+    // 測試時可傳入可控制的時鐘
+    InMemoryRateLimiter(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(RateLimitRule rule, String key) {
+        RuleStore store = stores.computeIfAbsent(rule, RuleStore::new);
+        long now = clock.getAsLong();
+        store.expire(now);
+        while (true) {
+            State state = store.states.computeIfAbsent(key, k -> store.newState(k, now));
+            synchronized (state) {
+                if (state.removed) {
+                    continue; // 剛好被清除，重新建立
+                }
+                long retryAfter = state.acquire(rule, now);
+                return retryAfter <= 0 ? RateLimitDecision.allowed() : RateLimitDecision.denied(retryAfter);
+            }
+        }
+    }
+
+    @Override
+    public void reset(RateLimitRule rule, String key) {
+        RuleStore store = stores.get(rule);
+        if (store == null) {
+            return;
+        }
+        State state = store.states.get(key);
+        if (state != null) {
+            synchronized (state) {
+                state.removed = true;
+                store.states.remove(key, state);
+            }
+        }
+    }
+
+    // 目前保存狀態的 key 數量 (測試過期清除用)
+    int trackedKeys(RateLimitRule rule) {
+        RuleStore store = stores.get(rule);
+        return store != null ? store.states.size() : 0;
+    }
+
+    private static final class RuleStore {
+        final RateLimitRule rule;
+        final Map<String, State> states = new ConcurrentHashMap<>();
+        final Queue<State> expiryQueue = new ConcurrentLinkedQueue<>();
+
+        RuleStore(RateLimitRule rule) {
+            this.rule = rule;
+        }
+
+        State newState(String key, long now) {
+            State state = rule.getAlgorithm() == RateLimitRule.Algorithm.TOKEN_BUCKET
+                    ? new TokenBucketState(key, rule, now)
+                    : new SlidingWindowState(key, rule);
+            state.queuedDeadline = now + rule.getPeriodMillis();
+            expiryQueue.add(state);
+            return state;
+        }
+
+        void expire(long now) {
+            for (int i = 0; i < EXPIRY_CHECKS_PER_CALL; i++) {
+                State head = expiryQueue.peek();
+                if (head == null || head.queuedDeadline > now) {
+                    return;
+                }
+                head = expiryQueue.poll();
+                if (head == null) {
+                    return;
+                }
+                if (head.queuedDeadline > now) {
+                    expiryQueue.add(head); // 其他執行緒先取走了開頭，這筆尚未到期
+                    return;
+                }
+                synchronized (head) {
+                    if (head.removed) {
+                        continue;
+                    }
+                    long expiresAt = head.expiresAt(rule);
+                    if (expiresAt <= now) {
+                        head.removed = true;
+                        states.remove(head.key, head);
+                    } else {
+                        head.queuedDeadline = expiresAt; // 期間仍在使用，排到尾端等下一次到期
+                        expiryQueue.add(head);
+                    }
+                }
+            }
+        }
+    }
+
+    private abstract static class State {
+        final String key;
+        boolean removed;
+        volatile long queuedDeadline;
+
+        State(String key) {
+            this.key = key;
+        }
+
+        /**
+         * @return 0 表示允許並已計入；大於 0 為建議等待的毫秒數
+         */
+        abstract long acquire(RateLimitRule rule, long now);
+
+        // 狀態不再影響判斷的時間點 (之後移除等同於從未請求過)
+        abstract long expiresAt(RateLimitRule rule);
+    }
+
+    // 滑動視窗紀錄：以環狀陣列保存視窗內最近 limit 次請求的時間
+    private static final class SlidingWindowState extends State {
+        private final long[] timestamps;
+        private int head;
+        private int count;
+
+        SlidingWindowState(String key, RateLimitRule rule) {
+            super(key);
+            this.timestamps = new long[rule.getLimit()];
+        }
+
+        @Override
+        long acquire(RateLimitRule rule, long now) {
+            long window = rule.getPeriodMillis();
+            while (count > 0 && timestamps[head] <= now - window) {
+                head = (head + 1) % timestamps.length;
+                count--;
+            }
+            if (count < timestamps.length) {
+                timestamps[(head + count) % timestamps.length] = now;
+                count++;
+                return 0;
+            }
+            return timestamps[head] + window - now;
+        }
+
+        @Override
+        long expiresAt(RateLimitRule rule) {
+            if (count == 0) {
+                return Long.MIN_VALUE;
+            }
+            return timestamps[(head + count - 1) % timestamps.length] + rule.getPeriodMillis();
+        }
+    }
+
+    // 權杖桶：依經過時間補充權杖，每次請求消耗一個
+    private static final class TokenBucketState extends State {
+        private double tokens;
+        private long lastRefill;
+
+        TokenBucketState(String key, RateLimitRule rule, long now) {
+            super(key);
+            this.tokens = rule.getLimit();
+            this.lastRefill = now;
+        }
+
+        @Override
+        long acquire(RateLimitRule rule, long now) {
+            double perMilli = (double) rule.getLimit() / rule.getPeriodMillis();
+            tokens = Math.min(rule.getLimit(), tokens + (now - lastRefill) * perMilli);
+            lastRefill = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / perMilli);
+        }
+
+        @Override
+        long expiresAt(RateLimitRule rule) {
+            // 補滿之後與新建立的桶相同
+            double perMilli = (double) rule.getLimit() / rule.getPeriodMillis();
+            return lastRefill + (long) Math.ceil((rule.getLimit() - tokens) / perMilli);
+        }
+    }
+}
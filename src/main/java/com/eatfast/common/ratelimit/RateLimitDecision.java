@@ -0,0 +1,41 @@
+package com.eatfast.common.ratelimit;
+
+/**
+ * 頻率限制的判斷結果。
+ */
+public final class RateLimitDecision {
+
+    private static final RateLimitDecision ALLOWED = new RateLimitDecision(true, 0);
+
+    private final boolean allowed;
+    private final long retryAfterMillis;
+
+    private RateLimitDecision(boolean allowed, long retryAfterMillis) {
+        this.allowed = allowed;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public static RateLimitDecision allowed() {
+        return ALLOWED;
+    }
+
+    /**
+     * @param retryAfterMillis 最快可再次請求的等待時間 (毫秒)
+     */
+    public static RateLimitDecision denied(long retryAfterMillis) {
+        return new RateLimitDecision(false, Math.max(1, retryAfterMillis));
+    }
+
+    public boolean isAllowed() {
+        return allowed;
+    }
+
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    // 等待秒數 (無條件進位，允許時為 0)，供錯誤訊息與 Retry-After 標頭使用
+    public long getRetryAfterSeconds() {
+        return (retryAfterMillis + 999) / 1000;
+    }
+}
@@ -0,0 +1,76 @@
+package com.eatfast.common.ratelimit;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * 頻率限制規則 (不可變)。
+ * <p>
+ * 規則名稱同時是計數的命名空間，例如 "forgot-password:account" 與 "forgot-password:ip"
+ * 各自計數；呼叫端再以帳號、IP 或端點等作為 key。
+ * </p>
+ * <ul>
+ * <li>{@link Algorithm#SLIDING_WINDOW}：任意連續 period 內最多 limit 次 (精確的滑動視窗紀錄)。</li>
+ * <li>{@link Algorithm#TOKEN_BUCKET}：桶內最多 limit 個權杖，每 period 補滿一次 (平均速率 limit / period)，
+ * 允許短時間內的突發請求。</li>
+ * </ul>
+ */
+public final class RateLimitRule {
+
+    public enum Algorithm {
+        SLIDING_WINDOW,
+        TOKEN_BUCKET
+    }
+
+    private final String name;
+    private final Algorithm algorithm;
+    private final int limit;
+    private final long periodMillis;
+
+    private RateLimitRule(String name, Algorithm algorithm, int limit, Duration period) {
+        if (limit <= 0 || period.toMillis() <= 0) {
+            throw new IllegalArgumentException("頻率限制規則的次數與時間必須大於 0: " + name);
+        }
+        this.name = Objects.requireNonNull(name);
+        this.algorithm = algorithm;
+        this.limit = limit;
+        this.periodMillis = period.toMillis();
+    }
+
+    /**
+     * @param name 規則名稱
+     * @param maxRequests 視窗內最多允許的次數
+     * @param window 視窗長度
+     */
+    public static RateLimitRule slidingWindow(String name, int maxRequests, Duration window) {
+        return new RateLimitRule(name, Algorithm.SLIDING_WINDOW, maxRequests, window);
+    }
+
+    /**
+     * @param name 規則名稱
+     * @param capacity 桶容量 (可連續通過的次數)
+     * @param refillPeriod 從空桶補滿所需的時間
+     */
+    public static RateLimitRule tokenBucket(String name, int capacity, Duration refillPeriod) {
+        return new RateLimitRule(name, Algorithm.TOKEN_BUCKET, capacity, refillPeriod);
+    }
+
+    public String getName() { return name; }
+    public Algorithm getAlgorithm() { return algorithm; }
+    public int getLimit() { return limit; }
+    public long getPeriodMillis() { return periodMillis; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RateLimitRule)) return false;
+        RateLimitRule other = (RateLimitRule) o;
+        return name.equals(other.name) && algorithm == other.algorithm
+                && limit == other.limit && periodMillis == other.periodMillis;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, algorithm, limit, periodMillis);
+    }
+}
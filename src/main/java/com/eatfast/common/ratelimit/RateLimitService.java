@@ -0,0 +1,70 @@
+package com.eatfast.common.ratelimit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+/**
+ * 通用頻率限制服務 (登入、註冊、重寄驗證信、忘記密碼、結帳等共用)。
+ * <p>
+ * 預設使用 Redis 後端，讓限制在多個節點間一致；Redis 不可用時改用本機記憶體計數，
+ * 限制暫時只在單一節點內生效，但不會因此擋下或放行所有請求。
+ * 設定 app.rate-limit.backend=memory 則只使用本機記憶體 (單機部署或開發環境)。
+ * </p>
+ * 使用方式：
+ * <pre>
+ * private static final RateLimitRule LOGIN_BY_IP = RateLimitRule.slidingWindow("login:ip", 10, Duration.ofMinutes(1));
+ * RateLimitDecision decision = rateLimitService.tryAcquire(LOGIN_BY_IP, clientIp);
+ * if (!decision.isAllowed()) { ... decision.getRetryAfterSeconds() ... }
+ * </pre>
+ */
+@Service
+public class RateLimitService implements RateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitService.class);
+
+    private final RedisRateLimiter redisRateLimiter;
+    private final InMemoryRateLimiter inMemoryRateLimiter = new InMemoryRateLimiter();
+    private final boolean useRedis;
+
+    public RateLimitService(StringRedisTemplate stringRedisTemplate,
+                            @Value("${app.rate-limit.backend:redis}") String backend) {
+        this.redisRateLimiter = new RedisRateLimiter(stringRedisTemplate);
+        this.useRedis = !"memory".equalsIgnoreCase(backend);
+    }
+
+    /**
+     * 嘗試取得一次請求額度；key 為空白時不限制。
+     */
+    @Override
+    public RateLimitDecision tryAcquire(RateLimitRule rule, String key) {
+        if (key == null || key.isBlank()) {
+            return RateLimitDecision.allowed();
+        }
+        if (useRedis) {
+            try {
+                return redisRateLimiter.tryAcquire(rule, key);
+            } catch (Exception e) {
+                log.warn("Redis 頻率限制失敗，改用本機計數 - 規則: {}, 錯誤: {}", rule.getName(), e.getMessage());
+            }
+        }
+        return inMemoryRateLimiter.tryAcquire(rule, key);
+    }
+
+    @Override
+    public void reset(RateLimitRule rule, String key) {
+        if (key == null || key.isBlank()) {
+            return;
+        }
+        if (useRedis) {
+            try {
+                redisRateLimiter.reset(rule, key);
+            } catch (Exception e) {
+                log.warn("清除 Redis 頻率限制失敗 - 規則: {}, 錯誤: {}", rule.getName(), e.getMessage());
+            }
+        }
+        inMemoryRateLimiter.reset(rule, key);
+    }
+}
@@ -0,0 +1,20 @@
+package com.eatfast.common.ratelimit;
+
+/**
+ * 頻率限制器。判斷與記錄在同一個原子操作中完成：允許時即計入一次。
+ */
+public interface RateLimiter {
+
+    /**
+     * 嘗試取得一次請求額度。
+     * @param rule 限制規則
+     * @param key 計數對象 (帳號、IP、端點等)
+     * @return 判斷結果；不允許時附上建議的等待時間
+     */
+    RateLimitDecision tryAcquire(RateLimitRule rule, String key);
+
+    /**
+     * 清除指定對象的計數 (例如管理員重置)。
+     */
+    void reset(RateLimitRule rule, String key);
+}
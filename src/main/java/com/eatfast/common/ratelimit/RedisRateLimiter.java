@@ -0,0 +1,98 @@
+package com.eatfast.common.ratelimit;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 以 Redis 實作的頻率限制器，所有節點共用同一份計數。
+ * <p>
+ * 每次判斷都是一個 Lua 腳本 (一次往返、原子執行)，時間取自 Redis 的 TIME，
+ * 不受各節點時鐘差異影響。key 設有與規則時間相同的 TTL，過期由 Redis 自動清除。
+ * </p>
+ */
+final class RedisRateLimiter implements RateLimiter {
+
+    private static final String REDIS_KEY_PREFIX = "ratelimit:";
+
+    /**
+     * 滑動視窗紀錄 (sorted set，score 為請求時間)。
+     * KEYS[1] = 計數 key
+     * ARGV[1] = 視窗內最多次數，ARGV[2] = 視窗長度 (毫秒)，ARGV[3] = 本次請求的唯一成員名稱
+     * 回傳值 = 0 表示允許並已計入；大於 0 為建議等待的毫秒數
+     */
+    private static final DefaultRedisScript<Long> SLIDING_WINDOW_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+            "local limit = tonumber(ARGV[1]) " +
+            "local window = tonumber(ARGV[2]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', now - window) " +
+            "if redis.call('ZCARD', KEYS[1]) < limit then " +
+            "  redis.call('ZADD', KEYS[1], now, ARGV[3]) " +
+            "  redis.call('PEXPIRE', KEYS[1], window) " +
+            "  return 0 " +
+            "end " +
+            "local oldest = redis.call('ZRANGE', KEYS[1], 0, 0, 'WITHSCORES') " +
+            "return math.max(1, tonumber(oldest[2]) + window - now)",
+            Long.class);
+
+    /**
+     * 權杖桶 (hash：tokens = 剩餘權杖，ts = 上次補充時間)。
+     * KEYS[1] = 計數 key
+     * ARGV[1] = 桶容量，ARGV[2] = 補滿所需時間 (毫秒)
+     * 回傳值 = 0 表示允許並已計入；大於 0 為建議等待的毫秒數
+     */
+    private static final DefaultRedisScript<Long> TOKEN_BUCKET_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME') " +
+            "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000) " +
+            "local capacity = tonumber(ARGV[1]) " +
+            "local period = tonumber(ARGV[2]) " +
+            "local state = redis.call('HMGET', KEYS[1], 'tokens', 'ts') " +
+            "local tokens = tonumber(state[1]) or capacity " +
+            "local ts = tonumber(state[2]) or now " +
+            "tokens = math.min(capacity, tokens + math.max(0, now - ts) * capacity / period) " +
+            "local wait = 0 " +
+            "if tokens >= 1 then tokens = tokens - 1 " +
+            "else wait = math.max(1, math.ceil((1 - tokens) * period / capacity)) end " +
+            "redis.call('HSET', KEYS[1], 'tokens', tostring(tokens), 'ts', now) " +
+            "redis.call('PEXPIRE', KEYS[1], period) " +
+            "return wait",
+            Long.class);
+
+    // 滑動視窗成員名稱 = 節點識別碼 + 遞增序號，同一毫秒內的請求也不會互相覆蓋
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    RedisRateLimiter(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    @Override
+    public RateLimitDecision tryAcquire(RateLimitRule rule, String key) {
+        List<String> keys = List.of(redisKey(rule, key));
+        String limit = String.valueOf(rule.getLimit());
+        String period = String.valueOf(rule.getPeriodMillis());
+        Long retryAfter = rule.getAlgorithm() == RateLimitRule.Algorithm.TOKEN_BUCKET
+                ? stringRedisTemplate.execute(TOKEN_BUCKET_SCRIPT, keys, limit, period)
+                : stringRedisTemplate.execute(SLIDING_WINDOW_SCRIPT, keys, limit, period,
+                        nodeId + ":" + sequence.incrementAndGet());
+        if (retryAfter == null) {
+            throw new IllegalStateException("Redis 未回傳頻率限制結果");
+        }
+        return retryAfter <= 0 ? RateLimitDecision.allowed() : RateLimitDecision.denied(retryAfter);
+    }
+
+    @Override
+    public void reset(RateLimitRule rule, String key) {
+        stringRedisTemplate.delete(redisKey(rule, key));
+    }
+
+    private static String redisKey(RateLimitRule rule, String key) {
+        return REDIS_KEY_PREFIX + rule.getName() + ":" + key;
+    }
+}
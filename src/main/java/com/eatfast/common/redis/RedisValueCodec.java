@@ -0,0 +1,41 @@
+package com.eatfast.common.redis;
+
+/**
+ * 熱門 Redis Value 型別的精簡編碼器。
+ * <p>
+ * 由 {@link TypedRedisSerializer} 依 Java 型別挑選編碼器，寫入格式為
+ * {@code <型別代碼><版本>|<payload>}，例如購物車項目 {@code C1|2|少冰}。
+ * 版本號讓編碼格式可以演進：寫入一律使用 {@link #currentVersion()}，
+ * 讀取時 {@link #decode(int, String)} 必須能處理所有仍可能存在於 Redis 中的舊版本。
+ * </p>
+ * @param <T> 對應的 Java 型別
+ */
+public interface RedisValueCodec<T> {
+
+    /**
+     * 型別代碼，必須是 'A' ~ 'Z' 的大寫字母，且在所有已註冊的編碼器中唯一。
+     * (JSON 不會以大寫字母開頭，因此可與舊的 JSON 資料明確區分)
+     */
+    char typeTag();
+
+    /**
+     * 目前寫入使用的格式版本 (1 ~ 9)。
+     */
+    int currentVersion();
+
+    /**
+     * 此編碼器負責的 Java 型別 (以完全相同的類別比對，不含子類別)。
+     */
+    Class<T> javaType();
+
+    /**
+     * 以目前版本編碼 payload (不含型別代碼與版本標頭)。
+     */
+    String encode(T value);
+
+    /**
+     * 解碼指定版本的 payload。
+     * @throws IllegalStateException 不支援的版本或格式錯誤
+     */
+    T decode(int version, String payload);
+}
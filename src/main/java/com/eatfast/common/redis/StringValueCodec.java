@@ -0,0 +1,36 @@
+package com.eatfast.common.redis;
+
+/**
+ * 字串值的編碼器 (型別代碼 'S') - 例如會員驗證碼。
+ * payload 即為字串本身，讀取時不需經過 JSON 解析。
+ */
+public class StringValueCodec implements RedisValueCodec<String> {
+
+    @Override
+    public char typeTag() {
+        return 'S';
+    }
+
+    @Override
+    public int currentVersion() {
+        return 1;
+    }
+
+    @Override
+    public Class<String> javaType() {
+        return String.class;
+    }
+
+    @Override
+    public String encode(String value) {
+        return value;
+    }
+
+    @Override
+    public String decode(int version, String payload) {
+        if (version != 1) {
+            throw new IllegalStateException("不支援的字串格式版本: " + version);
+        }
+        return payload;
+    }
+}
@@ -0,0 +1,95 @@
+package com.eatfast.common.redis;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 可插拔的型別化 Redis 序列化器。
+ * <p>
+ * 已註冊 {@link RedisValueCodec} 的熱門型別 (購物車項目、驗證碼等) 以精簡格式
+ * {@code <型別代碼><版本>|<payload>} 寫入，不再帶有完整類別名稱，讀取時也不需反射式的 JSON 解碼；
+ * 其餘型別交給 fallback 序列化器 (GenericJackson2JsonRedisSerializer) 處理。
+ * </p>
+ * <p>
+ * 遷移：讀取時若資料不是精簡格式 (即舊的 JSON)，一律交給 fallback 解碼，
+ * 因此既有資料不需一次性轉換，會在下一次被寫入時自然改為新格式。
+ * </p>
+ */
+public class TypedRedisSerializer implements RedisSerializer<Object> {
+
+    private static final byte HEADER_SEPARATOR = '|';
+
+    private final Map<Class<?>, RedisValueCodec<?>> codecsByType = new HashMap<>();
+    private final RedisValueCodec<?>[] codecsByTag = new RedisValueCodec<?>[26];
+    private final RedisSerializer<Object> fallback;
+
+    public TypedRedisSerializer(List<RedisValueCodec<?>> codecs, RedisSerializer<Object> fallback) {
+        for (RedisValueCodec<?> codec : codecs) {
+            char tag = codec.typeTag();
+            if (tag < 'A' || tag > 'Z') {
+                throw new IllegalArgumentException("型別代碼必須是大寫字母: " + tag);
+            }
+            if (codec.currentVersion() < 1 || codec.currentVersion() > 9) {
+                throw new IllegalArgumentException("格式版本必須介於 1 ~ 9: " + codec.currentVersion());
+            }
+            if (codecsByTag[tag - 'A'] != null) {
+                throw new IllegalArgumentException("型別代碼重複: " + tag);
+            }
+            codecsByTag[tag - 'A'] = codec;
+            codecsByType.put(codec.javaType(), codec);
+        }
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return fallback.serialize(null);
+        }
+        RedisValueCodec<?> codec = codecsByType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        String payload = encode(codec, value);
+        return (String.valueOf(codec.typeTag()) + codec.currentVersion() + '|' + payload)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (isCompact(bytes)) {
+            RedisValueCodec<?> codec = codecsByTag[bytes[0] - 'A'];
+            int version = bytes[1] - '0';
+            String payload = new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+            try {
+                return codec.decode(version, payload);
+            } catch (RuntimeException e) {
+                throw new SerializationException("無法解碼 Redis 資料 (型別 " + codec.typeTag() + " 版本 " + version + ")", e);
+            }
+        }
+        // 舊的 JSON 資料 (或未註冊的型別)
+        return fallback.deserialize(bytes);
+    }
+
+    // 精簡格式：大寫字母型別代碼 + 版本數字 + '|'，且該型別代碼已註冊
+    private boolean isCompact(byte[] bytes) {
+        return bytes.length >= 3
+                && bytes[0] >= 'A' && bytes[0] <= 'Z'
+                && bytes[1] >= '1' && bytes[1] <= '9'
+                && bytes[2] == HEADER_SEPARATOR
+                && codecsByTag[bytes[0] - 'A'] != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> String encode(RedisValueCodec<T> codec, Object value) {
+        return codec.encode((T) value);
+    }
+}
@@ -1,5 +1,6 @@
 package com.eatfast.common.service;
 
+import com.eatfast.common.enums.ImageSize;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
@@ -13,9 +14,17 @@ import java.util.UUID;
 @Service
 public class FileService {
 
+    private static final String PHOTO_URL_PREFIX = "/employee-photos/";
+
     @Value("${app.upload.employee-photos}")
     private String uploadDir;
 
+    private final ImageDerivativeService imageDerivativeService;
+
+    public FileService(ImageDerivativeService imageDerivativeService) {
+        this.imageDerivativeService = imageDerivativeService;
+    }
+
     private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
     private static final String[] ALLOWED_EXTENSIONS = {".jpg", ".jpeg", ".png", ".gif"};
     
@@ -43,10 +52,34 @@ public class FileService {
         // 儲存檔案
         Path filePath = uploadPath.resolve(newFilename);
         Files.copy(file.getInputStream(), filePath);
+        generateEmployeePhotoDerivatives(newFilename);
 
         return newFilename;
     }
 
+    /**
+     * 在背景為員工照片產生縮圖 / 中圖。
+     * @param filename 已存在於員工照片目錄中的檔名
+     */
+    public void generateEmployeePhotoDerivatives(String filename) {
+        imageDerivativeService.generateAsync(Paths.get(uploadDir).resolve(filename), null);
+    }
+
+    /**
+     * 依顯示尺寸取得員工照片網址；對應尺寸尚未產生時退回原圖。
+     * @param photoUrl 資料庫中的照片網址 (例如 /employee-photos/xxx.jpg)，可為 null
+     * @param size 需要的尺寸
+     * @return 照片網址，photoUrl 為 null 時回傳 null
+     */
+    public String buildEmployeePhotoUrl(String photoUrl, ImageSize size) {
+        if (photoUrl == null || !photoUrl.startsWith(PHOTO_URL_PREFIX)) {
+            return photoUrl;
+        }
+        String filename = photoUrl.substring(PHOTO_URL_PREFIX.length());
+        String derivativeUrl = imageDerivativeService.findDerivativeUrl(PHOTO_URL_PREFIX, Paths.get(uploadDir), filename, size);
+        return derivativeUrl != null ? derivativeUrl : photoUrl;
+    }
+
     private void validateFile(MultipartFile file) {
         if (file.isEmpty()) {
             throw new IllegalArgumentException("檔案不能為空");
@@ -88,6 +121,7 @@ public class FileService {
             try {
                 Path filePath = Paths.get(uploadDir).resolve(filename);
                 Files.deleteIfExists(filePath);
+                imageDerivativeService.deleteDerivatives(Paths.get(uploadDir), filename);
             } catch (IOException e) {
                 // 記錄錯誤但不拋出異常，因為這是清理操作
                 e.printStackTrace();
@@ -0,0 +1,91 @@
+package com.eatfast.common.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * 為既有圖片補產生縮圖 / 中圖 (backfill)。
+ * <p>
+ * 啟動時一律在背景掃描上傳目錄中既有的衍生圖，讓 ImageDerivativeService 改用這些衍生圖的網址
+ * (掃描完成前網址退回原圖)。補產生缺少的衍生圖則以啟動參數 {@code --backfill-image-derivatives}
+ * 或設定 app.image.backfill-on-startup=true 觸發。兩者都在 imageExecutor 背景執行，不阻塞啟動流程。涵蓋：
+ * 上傳的餐點圖片、static/images/meal_pic 內建餐點圖片 (衍生圖寫到餐點上傳目錄)、員工照片。
+ * </p>
+ */
+@Component
+public class ImageDerivativeBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeBackfillRunner.class);
+
+    private static final String BACKFILL_OPTION = "backfill-image-derivatives";
+    private static final String BUILT_IN_MEAL_PICS = "classpath*:static/images/meal_pic/*";
+
+    private final ImageDerivativeService imageDerivativeService;
+    private final ThreadPoolTaskExecutor imageExecutor;
+
+    @Value("${app.upload.meal-pic}")
+    private String mealPicUploadDir;
+
+    @Value("${app.upload.employee-photos}")
+    private String employeePhotoDir;
+
+    @Value("${app.image.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    public ImageDerivativeBackfillRunner(ImageDerivativeService imageDerivativeService,
+                                         @Qualifier("imageExecutor") ThreadPoolTaskExecutor imageExecutor) {
+        this.imageDerivativeService = imageDerivativeService;
+        this.imageExecutor = imageExecutor;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        boolean backfill = backfillOnStartup || args.containsOption(BACKFILL_OPTION);
+        try {
+            imageExecutor.execute(() -> {
+                indexExisting();
+                if (backfill) {
+                    backfill();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("圖片縮圖佇列已滿，略過既有縮圖的掃描 (網址暫時沿用原圖)");
+        }
+    }
+
+    // 記錄既有的衍生圖 (內建餐點圖的衍生圖同樣在餐點上傳目錄下)
+    private void indexExisting() {
+        int meals = imageDerivativeService.indexExisting(Paths.get(mealPicUploadDir));
+        int employees = imageDerivativeService.indexExisting(Paths.get(employeePhotoDir));
+        log.info("既有縮圖掃描完成 - 餐點圖: {}, 員工照片: {}", meals, employees);
+    }
+
+    public void backfill() {
+        try {
+            Path mealPicDir = Paths.get(mealPicUploadDir);
+            int uploadedMeals = imageDerivativeService.backfill(mealPicDir);
+
+            Resource[] builtIns = new PathMatchingResourcePatternResolver().getResources(BUILT_IN_MEAL_PICS);
+            int builtInMeals = imageDerivativeService.backfill(builtIns, mealPicDir);
+
+            int employees = imageDerivativeService.backfill(Paths.get(employeePhotoDir));
+
+            log.info("圖片縮圖 backfill 完成 - 上傳餐點圖: {}, 內建餐點圖: {}, 員工照片: {}",
+                    uploadedMeals, builtInMeals, employees);
+        } catch (Exception e) {
+            log.error("圖片縮圖 backfill 失敗: {}", e.getMessage(), e);
+        }
+    }
+}
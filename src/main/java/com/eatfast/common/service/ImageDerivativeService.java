@@ -0,0 +1,275 @@
+package com.eatfast.common.service;
+
+import com.eatfast.common.enums.ImageSize;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 圖片衍生尺寸 (縮圖 / 中圖) 的產生與查詢。
+ * <p>
+ * 上傳時只把原圖寫入磁碟，縮放工作交給有界的 imageExecutor 在背景執行，
+ * 衍生圖寫在原圖目錄下的 {@code thumb/}、{@code medium/} 子目錄 (先寫暫存檔再搬移，不會被讀到一半)。
+ * 衍生圖尚未產生 (或原圖本來就比目標寬度小) 時，網址一律退回原圖，因此產生失敗不影響顯示。
+ * 【優化】已產生的衍生圖記錄在記憶體中 (背景工作寫出時加入、啟動時掃描既有檔案)，
+ * 組網址時只查這份紀錄，不再每次都檢查檔案是否存在。
+ * 目前支援 JPG / PNG；GIF 等其他格式沿用原圖。
+ * </p>
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final ImageSize[] DERIVATIVE_SIZES = {ImageSize.THUMB, ImageSize.MEDIUM};
+
+    private final ThreadPoolTaskExecutor imageExecutor;
+
+    // 已確認存在的衍生圖 (正規化後的絕對路徑)
+    private final Set<Path> availableDerivatives = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(@Qualifier("imageExecutor") ThreadPoolTaskExecutor imageExecutor) {
+        this.imageExecutor = imageExecutor;
+    }
+
+    /**
+     * 在背景為剛上傳的原圖產生所有衍生尺寸。
+     * @param original 原圖路徑
+     * @param onComplete 產生完成後的回呼 (例如讓快取重新載入網址)，可為 null
+     */
+    public void generateAsync(Path original, Runnable onComplete) {
+        try {
+            imageExecutor.execute(() -> {
+                int written = generate(new FileSystemResource(original), original.getFileName().toString(),
+                        original.getParent());
+                if (written > 0 && onComplete != null) {
+                    onComplete.run();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            log.warn("圖片縮圖佇列已滿，暫時沿用原圖 (可稍後執行 backfill) - {}", original);
+        }
+    }
+
+    /**
+     * 同步產生所有衍生尺寸。
+     * @param source 原圖內容
+     * @param fileName 原圖檔名 (衍生圖沿用同一檔名)
+     * @param baseDir 衍生圖的根目錄 (其下的 thumb/、medium/ 子目錄)
+     * @return 實際寫出的衍生圖數量
+     */
+    public int generate(Resource source, String fileName, Path baseDir) {
+        String format = formatOf(fileName);
+        if (format == null) {
+            return 0;
+        }
+        try {
+            BufferedImage image;
+            try (InputStream in = source.getInputStream()) {
+                image = ImageIO.read(in);
+            }
+            if (image == null) {
+                log.warn("無法解析圖片，略過縮圖 - {}", fileName);
+                return 0;
+            }
+            int written = 0;
+            for (ImageSize size : DERIVATIVE_SIZES) {
+                if (image.getWidth() <= size.getWidth()) {
+                    continue; // 原圖已經夠小，直接使用原圖
+                }
+                Path target = derivativePath(baseDir, fileName, size);
+                writeAtomically(scale(image, size.getWidth(), format), format, target);
+                markAvailable(target);
+                written++;
+            }
+            return written;
+        } catch (IOException e) {
+            log.warn("產生縮圖失敗 - {}: {}", fileName, e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * 為目錄中所有缺少衍生圖的原圖補產生 (backfill)。
+     * @param originalsDir 原圖所在目錄
+     * @return 有補產生的原圖數量
+     */
+    public int backfill(Path originalsDir) {
+        if (!Files.isDirectory(originalsDir)) {
+            return 0;
+        }
+        int count = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(originalsDir, Files::isRegularFile)) {
+            for (Path file : files) {
+                String fileName = file.getFileName().toString();
+                if (isMissingDerivatives(originalsDir, fileName)
+                        && generate(new FileSystemResource(file), fileName, originalsDir) > 0) {
+                    count++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("掃描圖片目錄失敗 - {}: {}", originalsDir, e.getMessage());
+        }
+        return count;
+    }
+
+    /**
+     * 為一組原圖 (例如 classpath 內建圖片) 補產生衍生圖到指定目錄。
+     * @param sources 原圖
+     * @param baseDir 衍生圖的根目錄
+     * @return 有補產生的原圖數量
+     */
+    public int backfill(Resource[] sources, Path baseDir) {
+        int count = 0;
+        for (Resource source : sources) {
+            String fileName = source.getFilename();
+            if (fileName != null && isMissingDerivatives(baseDir, fileName)
+                    && generate(source, fileName, baseDir) > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 記錄目錄中既有的衍生圖 (啟動時執行一次)，之後的新衍生圖由產生工作自行記錄。
+     * @param baseDir 衍生圖的根目錄 (其下的 thumb/、medium/ 子目錄)
+     * @return 記錄的衍生圖數量
+     */
+    public int indexExisting(Path baseDir) {
+        int count = 0;
+        for (ImageSize size : DERIVATIVE_SIZES) {
+            Path dir = baseDir.resolve(size.getDirectory());
+            if (!Files.isDirectory(dir)) {
+                continue;
+            }
+            try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, Files::isRegularFile)) {
+                for (Path file : files) {
+                    if (!file.getFileName().toString().startsWith(".tmp-")) {
+                        markAvailable(file);
+                        count++;
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("掃描縮圖目錄失敗 - {}: {}", dir, e.getMessage());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 取得衍生圖的網址；衍生圖尚未產生 (或尚未記錄) 時回傳 null，由呼叫端退回原圖網址。
+     * @param urlPrefix baseDir 對應的網址前綴 (例如 "/meal-pic/")
+     */
+    public String findDerivativeUrl(String urlPrefix, Path baseDir, String fileName, ImageSize size) {
+        if (size == ImageSize.ORIGINAL || !isAvailable(derivativePath(baseDir, fileName, size))) {
+            return null;
+        }
+        return urlPrefix + size.getDirectory() + "/" + fileName;
+    }
+
+    // 衍生圖是否已產生 (只查記憶體中的紀錄)
+    public boolean isAvailable(Path derivative) {
+        return availableDerivatives.contains(derivative.toAbsolutePath().normalize());
+    }
+
+    public Path derivativePath(Path baseDir, String fileName, ImageSize size) {
+        return baseDir.resolve(size.getDirectory()).resolve(fileName);
+    }
+
+    // 刪除原圖時一併清除其衍生圖
+    public void deleteDerivatives(Path baseDir, String fileName) {
+        for (ImageSize size : DERIVATIVE_SIZES) {
+            Path derivative = derivativePath(baseDir, fileName, size);
+            availableDerivatives.remove(derivative.toAbsolutePath().normalize());
+            try {
+                Files.deleteIfExists(derivative);
+            } catch (IOException e) {
+                log.warn("刪除縮圖失敗 - {}: {}", fileName, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isMissingDerivatives(Path baseDir, String fileName) {
+        if (formatOf(fileName) == null) {
+            return false;
+        }
+        for (ImageSize size : DERIVATIVE_SIZES) {
+            Path derivative = derivativePath(baseDir, fileName, size);
+            if (!Files.exists(derivative)) {
+                return true;
+            }
+            markAvailable(derivative);
+        }
+        return false;
+    }
+
+    private void markAvailable(Path derivative) {
+        availableDerivatives.add(derivative.toAbsolutePath().normalize());
+    }
+
+    private static String formatOf(String fileName) {
+        String lower = fileName.toLowerCase(Locale.ROOT);
+        if (lower.endsWith(".jpg") || lower.endsWith(".jpeg")) {
+            return "jpg";
+        }
+        if (lower.endsWith(".png")) {
+            return "png";
+        }
+        return null;
+    }
+
+    private static BufferedImage scale(BufferedImage image, int width, String format) {
+        int height = Math.max(1, (int) Math.round((double) image.getHeight() * width / image.getWidth()));
+        boolean jpg = "jpg".equals(format);
+        BufferedImage scaled = new BufferedImage(width, height,
+                jpg ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            if (jpg) {
+                // JPG 沒有透明度，透明區域以白色填底
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+            }
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static void writeAtomically(BufferedImage image, String format, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), ".tmp-", "." + format);
+        try {
+            if (!ImageIO.write(image, format, tmp.toFile())) {
+                throw new IOException("沒有可用的 " + format + " 編碼器");
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
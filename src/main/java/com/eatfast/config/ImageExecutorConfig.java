@@ -0,0 +1,40 @@
+package com.eatfast.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 產生圖片縮圖 / 中圖用的有界執行緒池。
+ * 縮放圖片屬於 CPU 密集工作，執行緒數量刻意保持很小，避免上傳尖峰時拖慢請求處理；
+ * 佇列滿載時直接拒絕 (AbortPolicy)，該圖片沿用原圖，之後可用 backfill 補產生。
+ */
+@Configuration
+public class ImageExecutorConfig {
+
+    @Value("${app.image.executor.core-size:1}")
+    private int coreSize;
+
+    @Value("${app.image.executor.max-size:2}")
+    private int maxSize;
+
+    @Value("${app.image.executor.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Bean(name = "imageExecutor")
+    public ThreadPoolTaskExecutor imageExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("image-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
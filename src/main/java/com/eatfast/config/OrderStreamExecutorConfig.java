@@ -0,0 +1,33 @@
+package com.eatfast.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 門市訂單看板推送 (SSE fan-out) 用的執行緒池。
+ * 推送只是把已序列化好的事件寫到各連線，單一執行緒即可依序處理，也保證同一門市的事件順序；
+ * 交易提交的執行緒只負責把事件放進佇列，不會因為連線數多或某條連線卡住而變慢。
+ * 佇列滿載時捨棄最舊的事件 (看板可重新整理補齊)，不影響下單流程。
+ */
+@Configuration
+public class OrderStreamExecutorConfig {
+
+    @Value("${app.order-stream.executor.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Bean(name = "orderStreamExecutor")
+    public ThreadPoolTaskExecutor orderStreamExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-stream-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardOldestPolicy());
+        executor.initialize();
+        return executor;
+    }
+}
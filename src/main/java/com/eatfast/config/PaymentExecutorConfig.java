@@ -0,0 +1,40 @@
+package com.eatfast.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * 付款處理用的有界執行緒池。
+ * 付款閘道的等待時間都發生在這裡，不佔用 Tomcat 的請求執行緒；
+ * 佇列滿載時直接拒絕 (AbortPolicy)，由呼叫端將該筆付款標記為失敗，而不是把工作丟回請求執行緒。
+ */
+@Configuration
+public class PaymentExecutorConfig {
+
+    @Value("${app.payment.executor.core-size:4}")
+    private int coreSize;
+
+    @Value("${app.payment.executor.max-size:16}")
+    private int maxSize;
+
+    @Value("${app.payment.executor.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Bean(name = "paymentExecutor")
+    public ThreadPoolTaskExecutor paymentExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(coreSize);
+        executor.setMaxPoolSize(maxSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("payment-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+}
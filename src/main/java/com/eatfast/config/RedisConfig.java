@@ -1,13 +1,19 @@
 // src/main/java/com/eatfast/config/RedisConfig.java
 package com.eatfast.config; // 假設在 config 包下
 
+import com.eatfast.cart.service.CartItemRedisCodec;
+import com.eatfast.common.redis.StringValueCodec;
+import com.eatfast.common.redis.TypedRedisSerializer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory; // 引入 Redis 連線工廠
 import org.springframework.data.redis.core.RedisTemplate; // 引入 RedisTemplate
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer; // 引入 Jackson 序列化器
 import org.springframework.data.redis.serializer.StringRedisSerializer; // 引入字串序列化器
 
+import java.util.List;
+
 @Configuration // 標記這個類別是一個 Spring 配置類別
 public class RedisConfig {
 
@@ -28,14 +34,36 @@ public class RedisConfig {
         template.setHashKeySerializer(new StringRedisSerializer()); // Hash 結構的 Key (Field) 也使用 String 序列化器
 
         // Value 的序列化器：決定 Redis 中 Value 的存儲格式
-        // 【不可變動的關鍵字/語法】: GenericJackson2JsonRedisSerializer
-        // 說明: 使用 GenericJackson2JsonRedisSerializer，它會將 Java 物件自動序列化為 JSON 字串存儲在 Redis 中。
-        // 這允許您直接將複雜的 Java 物件（例如您的 CartItemRedisData DTO）作為值存入 Redis，非常方便。
-        // 反序列化時也會自動將 JSON 字串轉回 Java 物件。
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer()); // Hash 結構的 Value 也使用 JSON 序列化器
+        // 【優化】: 改用可插拔的 TypedRedisSerializer。
+        // 說明: 已註冊編碼器的熱門型別 (購物車項目 CartItemRedisData、驗證碼等字串) 以精簡格式
+        // "<型別代碼><版本>|<payload>" 存放，不再帶有完整類別名稱，也不需反射式的 JSON 解碼；
+        // 其他型別仍交給 GenericJackson2JsonRedisSerializer 處理。
+        // 既有的 JSON 資料一樣可以讀取 (讀取時自動辨識格式)，下次寫入時即改為新格式。
+        TypedRedisSerializer valueSerializer = typedRedisSerializer();
+        template.setValueSerializer(valueSerializer);
+        template.setHashValueSerializer(valueSerializer); // Hash 結構的 Value 也使用相同的序列化器
 
         template.afterPropertiesSet(); // 初始化 RedisTemplate 的所有屬性
         return template; // 將配置好的 RedisTemplate Bean 返回給 Spring 容器
     }
+
+    /**
+     * Redis pub/sub 訂閱容器 (例如角色權限矩陣的跨節點異動通知)，各訂閱者自行註冊頻道。
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    /**
+     * 註冊所有精簡編碼器；新增熱門型別時，在此加入對應的 RedisValueCodec 即可。
+     */
+    @Bean
+    public TypedRedisSerializer typedRedisSerializer() {
+        return new TypedRedisSerializer(
+                List.of(new CartItemRedisCodec(), new StringValueCodec()),
+                new GenericJackson2JsonRedisSerializer());
+    }
 }
\ No newline at end of file
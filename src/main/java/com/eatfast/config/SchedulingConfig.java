@@ -0,0 +1,12 @@
+package com.eatfast.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 啟用 @Scheduled 排程工作 (例如餐點評分累計的定期重建)。
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -1,10 +1,11 @@
 package com.eatfast.employee.config;
 
+import com.eatfast.employee.filter.EmployeeAccessTracker;
 import com.eatfast.employee.filter.EmployeeAuthenticationFilter;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.Ordered;
+import org.springframework.session.web.http.SessionRepositoryFilter;
 
 /**
  * 員工模組過濾器配置
@@ -21,8 +22,8 @@ public class EmployeeFilterConfig {
      * 建立員工認證過濾器實例
      */
     @Bean
-    public EmployeeAuthenticationFilter employeeAuthenticationFilter() {
-        return new EmployeeAuthenticationFilter();
+    public EmployeeAuthenticationFilter employeeAuthenticationFilter(EmployeeAccessTracker accessTracker) {
+        return new EmployeeAuthenticationFilter(accessTracker);
     }
 
     /**
@@ -49,8 +50,9 @@ public class EmployeeFilterConfig {
         );
         
         // 設定過濾器執行順序（數字越小優先級越高）
-        // 確保在 Spring Security 過濾器之前執行
-        registrationBean.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        // 【修正】必須在 Spring Session 的 SessionRepositoryFilter 之後執行，才會讀到 Redis 中的 Session；
+        // 仍然確保在 Spring Security 過濾器之前執行
+        registrationBean.setOrder(SessionRepositoryFilter.DEFAULT_ORDER + 1);
         
         // 設定過濾器名稱
         registrationBean.setName("employeeAuthenticationFilter");
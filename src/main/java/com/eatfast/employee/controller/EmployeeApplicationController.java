@@ -3,6 +3,7 @@ package com.eatfast.employee.controller;
 import com.eatfast.common.enums.EmployeeRole;
 import com.eatfast.employee.dto.EmployeeApplicationDTO;
 import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.security.EmployeePrincipal;
 import com.eatfast.employee.dto.ReviewApplicationRequest;
 import com.eatfast.employee.model.EmployeeApplicationEntity.ApplicationStatus;
 import com.eatfast.employee.service.EmployeeApplicationService;
@@ -43,7 +44,7 @@ public class EmployeeApplicationController {
     public ResponseEntity<?> getPendingApplications(HttpSession session) {
         employeeLogger.logInfo("收到查詢待審核申請請求");
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             employeeLogger.logWarn("未登入用戶嘗試查詢待審核申請");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -75,7 +76,7 @@ public class EmployeeApplicationController {
     public ResponseEntity<?> getAllApplications(HttpSession session) {
         employeeLogger.logInfo("收到查詢所有申請請求");
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "請重新登入"));
@@ -114,7 +115,7 @@ public class EmployeeApplicationController {
     public ResponseEntity<?> getApplicationById(@PathVariable Long applicationId, HttpSession session) {
         employeeLogger.logInfo("收到查詢申請詳情請求: applicationId={}", applicationId);
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "請重新登入"));
@@ -152,7 +153,7 @@ public class EmployeeApplicationController {
         employeeLogger.logInfo("收到審核申請請求: applicationId={}, status={}", 
                 request.getApplicationId(), request.getStatus());
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "請重新登入"));
@@ -194,7 +195,7 @@ public class EmployeeApplicationController {
     public ResponseEntity<?> getApplicationStatistics(HttpSession session) {
         employeeLogger.logInfo("收到查詢申請統計請求");
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "請重新登入"));
@@ -234,7 +235,7 @@ public class EmployeeApplicationController {
     public ResponseEntity<?> clearProcessedApplications(HttpSession session) {
         employeeLogger.logInfo("收到清空已審核完成申請列表請求");
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "請重新登入"));
@@ -268,7 +269,7 @@ public class EmployeeApplicationController {
     public ResponseEntity<?> clearAllApplications(HttpSession session) {
         employeeLogger.logInfo("收到清空所有申請列表請求");
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Map.of("message", "請重新登入"));
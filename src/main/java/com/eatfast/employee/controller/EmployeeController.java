@@ -24,6 +24,7 @@ import com.eatfast.common.enums.AccountStatus;
 import com.eatfast.common.enums.EmployeeRole;
 import com.eatfast.employee.dto.CreateEmployeeRequest;
 import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.security.EmployeePrincipal;
 import com.eatfast.employee.dto.EmployeeApplicationDTO;
 import com.eatfast.employee.dto.UpdateEmployeeRequest;
 import com.eatfast.employee.service.EmployeeService;
@@ -81,7 +82,7 @@ public class EmployeeController {
                    request.getUsername(), request.getEmail(), request.getRole());
         
         try {
-            EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+            EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
             if (currentEmployee == null) {
                 employeeLogger.logWarn("未登入用戶嘗試新增員工");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -154,7 +155,7 @@ public class EmployeeController {
     public ResponseEntity<EmployeeDTO> getEmployeeById(@PathVariable Long id, HttpSession session) {
         logger.info("收到查詢員工請求: employeeId={}", id);
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             logger.warn("未登入用戶嘗試查詢員工: employeeId={}", id);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -202,7 +203,7 @@ public class EmployeeController {
         logger.info("收到搜尋員工請求: username={}, role={}, status={}, storeId={}, gender={}", 
                    username, role, status, storeId, gender);
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             logger.warn("未登入用戶嘗試搜尋員工");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -262,7 +263,7 @@ public class EmployeeController {
         
         logger.info("收到修改員工請求: employeeId={}, updateFields={}", id, request.toString());
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             logger.warn("未登入用戶嘗試修改員工: employeeId={}", id);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -305,7 +306,7 @@ public class EmployeeController {
     public ResponseEntity<Void> deleteEmployee(@PathVariable Long id, HttpSession session) {
         logger.info("收到刪除員工請求: employeeId={}", id);
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             logger.warn("未登入用戶嘗試刪除員工: employeeId={}", id);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -349,7 +350,7 @@ public class EmployeeController {
     public ResponseEntity<Void> grantPermission(@PathVariable Long employeeId, @PathVariable Long permissionId, HttpSession session) {
         logger.info("收到授權請求: employeeId={}, permissionId={}", employeeId, permissionId);
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             logger.warn("未登入用戶嘗試授權員工: employeeId={}", employeeId);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -380,7 +381,7 @@ public class EmployeeController {
     public ResponseEntity<Void> revokePermission(@PathVariable Long employeeId, @PathVariable Long permissionId, HttpSession session) {
         logger.info("收到收回權限請求: employeeId={}, permissionId={}", employeeId, permissionId);
         
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             logger.warn("未登入用戶嘗試收回員工權限: employeeId={}", employeeId);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -535,7 +536,7 @@ public class EmployeeController {
         
         try {
             // 取得目前登入的員工
-            EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+            EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
             if (currentEmployee == null) {
                 logger.warn("未登入用戶嘗試上傳員工照片: employeeId={}", id);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
@@ -626,7 +627,7 @@ public class EmployeeController {
         
         try {
             // 檢查登入狀態
-            EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+            EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
             if (currentEmployee == null) {
                 employeeLogger.logWarn("未登入用戶嘗試批量上傳照片");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -2,12 +2,15 @@ package com.eatfast.employee.controller;
 
 import com.eatfast.common.enums.AccountStatus;
 import com.eatfast.common.exception.ResourceNotFoundException;
+import com.eatfast.common.ratelimit.RateLimitDecision;
+import com.eatfast.common.ratelimit.RateLimitRule;
+import com.eatfast.common.ratelimit.RateLimitService;
 import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.security.EmployeePrincipal;
 import com.eatfast.employee.dto.EmployeeLoginRequest;
 import com.eatfast.employee.model.EmployeeEntity;
 import com.eatfast.employee.service.EmployeeService;
 import com.eatfast.employee.service.EmployeeAuthService;
-import com.eatfast.employee.service.ForgotPasswordRateLimitService; // 新增
 import com.eatfast.employee.util.EmployeeLogger;
 
 import jakarta.servlet.http.HttpSession;
@@ -16,12 +19,14 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -38,18 +43,28 @@ public class EmployeeLoginController {
     
     private final EmployeeService employeeService;
     private final EmployeeAuthService employeeAuthService;
-    private final ForgotPasswordRateLimitService rateLimitService;
+    private final RateLimitService rateLimitService;
     private final EmployeeLogger employeeLogger;
 
+    // 【優化】忘記密碼頻率限制：每個帳號、每個 IP 在間隔內各只能請求一次 (多個節點共用計數)
+    private final long forgotPasswordIntervalSeconds;
+    private final RateLimitRule forgotPasswordByAccount;
+    private final RateLimitRule forgotPasswordByIp;
+
     @Autowired
     public EmployeeLoginController(EmployeeService employeeService, 
                                   EmployeeAuthService employeeAuthService,
-                                  ForgotPasswordRateLimitService rateLimitService,
-                                  EmployeeLogger employeeLogger) {
+                                  RateLimitService rateLimitService,
+                                  EmployeeLogger employeeLogger,
+                                  @Value("${app.rate-limit.forgot-password.interval-seconds:30}") long forgotPasswordIntervalSeconds) {
         this.employeeService = employeeService;
         this.employeeAuthService = employeeAuthService;
         this.rateLimitService = rateLimitService;
         this.employeeLogger = employeeLogger;
+        this.forgotPasswordIntervalSeconds = forgotPasswordIntervalSeconds;
+        Duration interval = Duration.ofSeconds(forgotPasswordIntervalSeconds);
+        this.forgotPasswordByAccount = RateLimitRule.slidingWindow("forgot-password:account", 1, interval);
+        this.forgotPasswordByIp = RateLimitRule.slidingWindow("forgot-password:ip", 1, interval);
     }
 
     /**
@@ -279,8 +294,8 @@ public class EmployeeLoginController {
             employeeAuthService.resetLoginFailureCount(employee.getEmployeeId());
             
             // 【建立 Session】
-            EmployeeDTO employeeDTO = employeeAuthService.convertToDTO(employee);
-            session.setAttribute("loggedInEmployee", employeeDTO);
+            // 【優化】Session 存放在 Redis 並由多個節點共用，只放入精簡的登入身分，不再放入整個 EmployeeDTO
+            session.setAttribute(EmployeePrincipal.SESSION_ATTRIBUTE, EmployeePrincipal.of(employee));
             session.setAttribute("employeeId", employee.getEmployeeId());
             session.setAttribute("employeeAccount", employee.getAccount());
             session.setAttribute("employeeName", employee.getUsername());
@@ -351,7 +366,7 @@ public class EmployeeLoginController {
     @GetMapping("/logout")
     public String logout(HttpSession session, RedirectAttributes redirectAttributes) {
         // 獲取當前登入的員工資訊（用於日誌記錄）
-        EmployeeDTO loggedInEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeePrincipal loggedInEmployee = EmployeePrincipal.from(session);
         
         // 完全銷毀 Session - 這是最安全的做法
         session.invalidate();
@@ -403,38 +418,39 @@ public class EmployeeLoginController {
         String clientIP = getClientIP(request); // 獲取客戶端IP
 
         try {
-            // 檢查帳號請求頻率限制
-            if (!rateLimitService.canSendRequest(accountOrEmail)) {
-                long remainingTime = rateLimitService.getRemainingWaitTime(accountOrEmail);
-                String errorMessage = String.format("請求過於頻繁，請等待 %d 秒後再試。為了帳號安全，每個帳號30秒內只能發送一次忘記密碼請求。", remainingTime);
+            // 【修正】先檢查IP請求頻率限制：被IP限制擋下的請求不會佔用帳號的名額
+            RateLimitDecision ipDecision = rateLimitService.tryAcquire(forgotPasswordByIp, clientIP);
+            if (!ipDecision.isAllowed()) {
+                long remainingTime = ipDecision.getRetryAfterSeconds();
+                String errorMessage = String.format("請求過於頻繁，請等待 %d 秒後再試。為了系統安全，每個IP%d秒內只能發送一次忘記密碼請求。",
+                        remainingTime, forgotPasswordIntervalSeconds);
                 
                 model.addAttribute("message", errorMessage);
                 model.addAttribute("success", false);
                 
-                log.warn("忘記密碼請求被限制 - 帳號: {}, IP: {}, 剩餘等待時間: {}秒", 
-                    accountOrEmail, clientIP, remainingTime);
+                log.warn("忘記密碼請求被限制 - IP: {}, 帳號: {}, 剩餘等待時間: {}秒", 
+                    clientIP, accountOrEmail, remainingTime);
                 
                 return "back-end/employee/forgot-password";
             }
 
-            // 檢查IP請求頻率限制
-            if (!rateLimitService.canSendRequestFromIP(clientIP)) {
-                long remainingTime = rateLimitService.getRemainingWaitTimeForIP(clientIP);
-                String errorMessage = String.format("請求過於頻繁，請等待 %d 秒後再試。為了系統安全，每個IP30秒內只能發送一次忘記密碼請求。", remainingTime);
+            // 再檢查帳號請求頻率限制 (允許時即計入本次請求，無論後續處理成功與否，防止重複請求)
+            String normalizedAccount = accountOrEmail != null ? accountOrEmail.trim().toLowerCase() : null;
+            RateLimitDecision accountDecision = rateLimitService.tryAcquire(forgotPasswordByAccount, normalizedAccount);
+            if (!accountDecision.isAllowed()) {
+                long remainingTime = accountDecision.getRetryAfterSeconds();
+                String errorMessage = String.format("請求過於頻繁，請等待 %d 秒後再試。為了帳號安全，每個帳號%d秒內只能發送一次忘記密碼請求。",
+                        remainingTime, forgotPasswordIntervalSeconds);
                 
                 model.addAttribute("message", errorMessage);
                 model.addAttribute("success", false);
                 
-                log.warn("忘記密碼請求被限制 - IP: {}, 帳號: {}, 剩餘等待時間: {}秒", 
-                    clientIP, accountOrEmail, remainingTime);
+                log.warn("忘記密碼請求被限制 - 帳號: {}, IP: {}, 剩餘等待時間: {}秒", 
+                    accountOrEmail, clientIP, remainingTime);
                 
                 return "back-end/employee/forgot-password";
             }
 
-            // 記錄本次請求（無論後續處理成功與否都記錄，防止重複請求）
-            rateLimitService.recordAccountRequest(accountOrEmail);
-            rateLimitService.recordIPRequest(clientIP);
-
             // 處理忘記密碼請求
             String resultMessage = employeeService.processForgotPassword(accountOrEmail);
             
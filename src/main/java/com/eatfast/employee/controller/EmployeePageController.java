@@ -1,6 +1,7 @@
 package com.eatfast.employee.controller;
 
 import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.security.EmployeePrincipal;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -22,7 +23,7 @@ public class EmployeePageController {
     @GetMapping("/addEmployee")
     public String addEmployeePage(HttpSession session, Model model) {
         // 檢查登入狀態
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return "redirect:/employee/login";
         }
@@ -42,7 +43,7 @@ public class EmployeePageController {
     @GetMapping("/applicationList")
     public String handleApplicationListRedirect(HttpSession session) {
         // 檢查登入狀態
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             return "redirect:/employee/login";
         }
@@ -22,6 +22,7 @@ package com.eatfast.employee.controller;
 import com.eatfast.common.enums.AccountStatus;
 import com.eatfast.common.enums.EmployeeRole;
 import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.security.EmployeePrincipal;
 import com.eatfast.employee.service.EmployeeService;
 import com.eatfast.store.dto.StoreDto;
 import com.eatfast.store.service.StoreService;
@@ -66,7 +67,7 @@ public class EmployeeViewController {
         // 說明: 將後端資料傳遞給前端 Thymeleaf 模板。
 
         // 檢查是否有登入的員工資訊
-        EmployeeDTO loggedInEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO loggedInEmployee = EmployeePrincipal.currentEmployee(session);
         String employeeName = (String) session.getAttribute("employeeName");
 
         // 如果有 welcome 參數或者是剛登入的狀態，顯示歡迎訊息
@@ -100,7 +101,7 @@ public class EmployeeViewController {
     @GetMapping("/listAll")
     public String showAllEmployees(HttpSession session, RedirectAttributes redirectAttributes) {
         // 權限檢查：獲取當前登入員工資訊
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             redirectAttributes.addFlashAttribute("errorMessage", "請重新登入");
             return "redirect:/employee/login";
@@ -136,7 +137,7 @@ public class EmployeeViewController {
     @GetMapping("/add")
     public String showAddEmployeePage(Model model, HttpSession session, RedirectAttributes redirectAttributes) {
         // 權限檢查：獲取當前登入員工資訊
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         if (currentEmployee == null) {
             redirectAttributes.addFlashAttribute("errorMessage", "請重新登入");
             return "redirect:/employee/login";
@@ -184,7 +185,7 @@ public class EmployeeViewController {
      */
     @GetMapping("/applications")
     public String showApplicationManagement(HttpSession session, Model model, RedirectAttributes redirectAttributes) {
-        EmployeeDTO currentEmployee = (EmployeeDTO) session.getAttribute("loggedInEmployee");
+        EmployeeDTO currentEmployee = EmployeePrincipal.currentEmployee(session);
         
         if (currentEmployee == null) {
             redirectAttributes.addFlashAttribute("errorMessage", "請重新登入");
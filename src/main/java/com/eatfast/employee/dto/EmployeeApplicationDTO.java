@@ -25,6 +25,7 @@ public class EmployeeApplicationDTO {
     private Long storeId;
     private String storeName;
     private String photoUrl;
+    private String photoThumbUrl; // 顯示用縮圖網址 (縮圖尚未產生時與 photoUrl 相同)
     
     // 申請狀態
     private ApplicationStatus status;
@@ -186,6 +187,14 @@ public class EmployeeApplicationDTO {
         this.photoUrl = photoUrl;
     }
 
+    public String getPhotoThumbUrl() {
+        return photoThumbUrl;
+    }
+
+    public void setPhotoThumbUrl(String photoThumbUrl) {
+        this.photoThumbUrl = photoThumbUrl;
+    }
+
     public ApplicationStatus getStatus() {
         return status;
     }
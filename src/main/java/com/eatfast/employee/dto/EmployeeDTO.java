@@ -63,6 +63,9 @@ public class EmployeeDTO {
     /** 員工照片 URL */
     private String photoUrl;
 
+    /** 員工照片縮圖 URL (顯示用，縮圖尚未產生時與 photoUrl 相同) */
+    private String photoThumbUrl;
+
     /** 員工密碼 */
     private String password;
 
@@ -177,6 +180,14 @@ public class EmployeeDTO {
         this.photoUrl = photoUrl;
     }
 
+    public String getPhotoThumbUrl() {
+        return photoThumbUrl;
+    }
+
+    public void setPhotoThumbUrl(String photoThumbUrl) {
+        this.photoThumbUrl = photoThumbUrl;
+    }
+
     public String getPassword() {
         return password;
     }
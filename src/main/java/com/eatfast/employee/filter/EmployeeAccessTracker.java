@@ -0,0 +1,84 @@
+package com.eatfast.employee.filter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 員工最後存取紀錄 (Session 屬性 lastAccessPath / lastAccessTime) 的合併寫入。
+ * <p>
+ * 過濾器在請求執行緒上只把最新的存取紀錄放進記憶體 (同一個 Session 只保留最後一筆)，
+ * 再由排程每隔一段時間在背景一次寫回 Session 儲存區。
+ * Session 存放在 Redis 時，一般的 GET 請求因此不會再觸發 Session 寫入；
+ * 每個 Session 在每個間隔內最多只寫入一次。
+ * </p>
+ */
+@Component
+public class EmployeeAccessTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeeAccessTracker.class);
+
+    private static final class Access {
+        final String path;
+        final long time;
+
+        Access(String path, long time) {
+            this.path = path;
+            this.time = time;
+        }
+    }
+
+    private final Map<String, Access> pending = new ConcurrentHashMap<>();
+    private final SessionRepository<? extends Session> sessionRepository;
+    private final boolean enabled;
+
+    public EmployeeAccessTracker(SessionRepository<? extends Session> sessionRepository,
+                                 @Value("${app.employee.access-tracking.enabled:true}") boolean enabled) {
+        this.sessionRepository = sessionRepository;
+        this.enabled = enabled;
+    }
+
+    /**
+     * 記錄一次存取 (只寫入記憶體，不碰 Session 儲存區)。
+     * @param sessionId Session ID
+     * @param path 存取路徑
+     */
+    public void record(String sessionId, String path) {
+        if (enabled) {
+            pending.put(sessionId, new Access(path, System.currentTimeMillis()));
+        }
+    }
+
+    // 每個間隔把累積的最後存取紀錄寫回 Session
+    @Scheduled(fixedDelayString = "${app.employee.access-tracking.flush-interval-ms:60000}")
+    public void flush() {
+        for (String sessionId : pending.keySet()) {
+            Access access = pending.remove(sessionId); // 原子地取出最新一筆，之後的存取留到下一輪
+            if (access != null) {
+                write(sessionRepository, sessionId, access);
+            }
+        }
+    }
+
+    private static <S extends Session> void write(SessionRepository<S> repository, String sessionId, Access access) {
+        try {
+            S session = repository.findById(sessionId);
+            if (session == null) {
+                return; // Session 已登出或過期
+            }
+            session.setAttribute("lastAccessPath", access.path);
+            session.setAttribute("lastAccessTime", access.time);
+            repository.save(session);
+        } catch (Exception e) {
+            // 例如 Session 在讀取後才被登出；最後存取紀錄只供參考，略過即可
+            log.debug("寫回員工最後存取紀錄失敗 - session: {}, 錯誤: {}", sessionId, e.getMessage());
+        }
+    }
+}
@@ -18,7 +18,7 @@ import java.nio.charset.StandardCharsets;
  * 功能說明：
  * - 專門針對後台員工模組和後台會員管理的所有請求進行登入狀態檢查
  * - 未登入的使用者將被自動重定向至員工登入頁面
- * - 支援 Session 超時檢測和友善的錯誤訊息
+ * - 未登入時提供友善的錯誤訊息 (Session 逾時導回登入頁)
  * - 排除不需要驗證的公開路徑（如登入頁面、忘記密碼等）
  * - 【新增】保護後台會員管理功能，只有登入員工才能訪問
  * 
@@ -29,19 +29,32 @@ public class EmployeeAuthenticationFilter implements Filter {
 
     private static final Logger log = LoggerFactory.getLogger(EmployeeAuthenticationFilter.class);
 
-    // 不需要驗證的公開路徑
-    private static final String[] EXCLUDED_PATHS = {
-        "/employee/login",              // 登入頁面
-        "/employee/forgot-password",    // 忘記密碼頁面
-        "/employee/reset-password"      // 重設密碼頁面（如果有的話）
-    };
-
     // API 路徑前綴
     private static final String API_PREFIX = "/api/v1/employees";
-    private static final String MEMBER_API_PREFIX = "/member/api";
     private static final String BACKEND_MEMBER_PREFIX = "/back-end/member";
     private static final String MEMBER_PREFIX = "/member";
 
+    // 【優化】不需要驗證的公開路徑 (路徑本身或其子路徑)，啟動時預先編譯成 trie
+    private static final PathPrefixMatcher EXCLUDED_PATHS = PathPrefixMatcher.builder()
+        .segment("/employee/login")              // 登入頁面
+        .segment("/employee/forgot-password")    // 忘記密碼頁面
+        .segment("/employee/reset-password")     // 重設密碼頁面（如果有的話）
+        .build();
+
+    // 【優化】受保護的模組路徑前綴 (員工模組或會員模組)
+    private static final PathPrefixMatcher PROTECTED_PATHS = PathPrefixMatcher.builder()
+        .prefix("/employee/")
+        .prefix(API_PREFIX)
+        .prefix(BACKEND_MEMBER_PREFIX)
+        .prefix(MEMBER_PREFIX)
+        .build();
+
+    private final EmployeeAccessTracker accessTracker;
+
+    public EmployeeAuthenticationFilter(EmployeeAccessTracker accessTracker) {
+        this.accessTracker = accessTracker;
+    }
+
     @Override
     public void init(FilterConfig filterConfig) throws ServletException {
         log.info("員工認證過濾器初始化完成 - 保護路徑: /employee/*, /member/*, /back-end/member/*");
@@ -58,18 +71,8 @@ public class EmployeeAuthenticationFilter implements Filter {
         String contextPath = httpRequest.getContextPath();
         String path = requestURI.substring(contextPath.length());
 
-        log.debug("員工認證過濾器處理請求: {}", path);
-
-        // 檢查是否為需要排除的路徑
-        if (isExcludedPath(path)) {
-            log.debug("路徑 {} 無需驗證，直接通過", path);
-            chain.doFilter(request, response);
-            return;
-        }
-
-        // 檢查是否為受保護的模組路徑
-        if (!isProtectedModulePath(path)) {
-            log.debug("路徑 {} 不屬於受保護模組，直接通過", path);
+        // 排除的公開路徑與非受保護模組的路徑直接通過
+        if (EXCLUDED_PATHS.matches(path) || !PROTECTED_PATHS.matches(path)) {
             chain.doFilter(request, response);
             return;
         }
@@ -90,55 +93,14 @@ public class EmployeeAuthenticationFilter implements Filter {
             return;
         }
 
-        // 檢查 Session 是否即將過期（提前5分鐘警告）
-        if (session != null) {
-            long lastAccessTime = session.getLastAccessedTime();
-            long currentTime = System.currentTimeMillis();
-            long sessionTimeout = session.getMaxInactiveInterval() * 1000L; // 轉換為毫秒
-            long timeElapsed = currentTime - lastAccessTime;
-            
-            if (timeElapsed > (sessionTimeout - 300000)) { // 提前5分鐘警告
-                log.warn("員工 Session 即將過期 - 使用者: {}, 剩餘時間: {} 分鐘", 
-                    session.getAttribute("employeeName"), 
-                    (sessionTimeout - timeElapsed) / 60000);
-            }
-        }
-
-        log.debug("員工 {} 通過認證檢查，存取路徑: {}", 
-            session.getAttribute("employeeName"), path);
-
-        // 更新 Session 的最後存取時間
-        if (session != null) {
-            session.setAttribute("lastAccessPath", path);
-            session.setAttribute("lastAccessTime", System.currentTimeMillis());
-        }
+        // 【優化】最後存取紀錄只放進記憶體，由 EmployeeAccessTracker 定期在背景合併寫回 Session，
+        // 一般請求不再觸發 Session 寫入 (原本每個請求都 setAttribute 兩次，並計算逾時警告)
+        accessTracker.record(session.getId(), path);
 
         // 通過驗證，繼續處理請求
         chain.doFilter(request, response);
     }
 
-    /**
-     * 檢查路徑是否需要排除驗證
-     */
-    private boolean isExcludedPath(String path) {
-        for (String excludedPath : EXCLUDED_PATHS) {
-            if (path.equals(excludedPath) || path.startsWith(excludedPath + "/")) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    /**
-     * 檢查是否為受保護的模組路徑（員工模組或會員模組）
-     */
-    private boolean isProtectedModulePath(String path) {
-        return path.startsWith("/employee/") || 
-               path.startsWith(API_PREFIX) ||
-               path.startsWith(BACKEND_MEMBER_PREFIX) ||
-               path.startsWith(MEMBER_PREFIX);
-    }
-
     /**
      * 處理未認證的請求
      */
@@ -0,0 +1,112 @@
+package com.eatfast.employee.filter;
+
+import java.util.Arrays;
+
+/**
+ * 預先編譯的路徑前綴比對器 (字元 trie)。
+ * <p>
+ * 啟動時把所有規則建成一棵 trie，比對時只沿著請求路徑走一次，
+ * 不需要逐一掃描規則陣列，也不會組合字串 (例如 excludedPath + "/")。
+ * </p>
+ * 支援兩種規則：
+ * <ul>
+ * <li>{@link Builder#prefix}：路徑以該字串開頭即符合。</li>
+ * <li>{@link Builder#segment}：路徑等於該字串，或以「該字串 + /」開頭才符合
+ * (例如 /employee/login 符合 /employee/login/xxx，但不符合 /employee/login-history)。</li>
+ * </ul>
+ */
+final class PathPrefixMatcher {
+
+    private static final int PREFIX = 1;
+    private static final int SEGMENT = 2;
+
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        int match; // 在此節點結束的規則種類
+
+        Node child(char c) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == c) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        Node addChild(char c) {
+            Node existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            Node node = new Node();
+            char[] newKeys = Arrays.copyOf(keys, keys.length + 1);
+            Node[] newChildren = Arrays.copyOf(children, children.length + 1);
+            newKeys[keys.length] = c;
+            newChildren[children.length] = node;
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+    }
+
+    private final Node root;
+
+    private PathPrefixMatcher(Node root) {
+        this.root = root;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param path 不含 context path 的請求路徑
+     * @return 是否符合任一規則
+     */
+    boolean matches(String path) {
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; ; i++) {
+            if ((node.match & PREFIX) != 0) {
+                return true;
+            }
+            if ((node.match & SEGMENT) != 0 && (i == length || path.charAt(i) == '/')) {
+                return true;
+            }
+            if (i == length) {
+                return false;
+            }
+            node = node.child(path.charAt(i));
+            if (node == null) {
+                return false;
+            }
+        }
+    }
+
+    static final class Builder {
+        private final Node root = new Node();
+
+        Builder prefix(String prefix) {
+            insert(prefix).match |= PREFIX;
+            return this;
+        }
+
+        Builder segment(String path) {
+            insert(path).match |= SEGMENT;
+            return this;
+        }
+
+        private Node insert(String value) {
+            Node node = root;
+            for (int i = 0; i < value.length(); i++) {
+                node = node.addChild(value.charAt(i));
+            }
+            return node;
+        }
+
+        PathPrefixMatcher build() {
+            return new PathPrefixMatcher(root);
+        }
+    }
+}
@@ -19,6 +19,8 @@
 package com.eatfast.employee.mapper;
 
 import com.eatfast.common.enums.AccountStatus;
+import com.eatfast.common.enums.ImageSize;
+import com.eatfast.common.service.FileService;
 import com.eatfast.employee.dto.CreateEmployeeRequest;
 import com.eatfast.employee.dto.EmployeeDTO;
 import com.eatfast.employee.model.EmployeeEntity;
@@ -32,6 +34,12 @@ import org.springframework.stereotype.Component;
 @Component
 public class EmployeeMapper {
 
+    private final FileService fileService; // 依尺寸選擇員工照片網址
+
+    public EmployeeMapper(FileService fileService) {
+        this.fileService = fileService;
+    }
+
     /**
      * [可自定義的方法]: toDto
      * 將資料庫實體 (EmployeeEntity) 轉換為資料傳輸物件 (EmployeeDto)。
@@ -58,6 +66,7 @@ public class EmployeeMapper {
         dto.setNationalId(entity.getNationalId());
         dto.setCreateTime(entity.getCreateTime());
         dto.setPhotoUrl(entity.getPhotoUrl());
+        dto.setPhotoThumbUrl(fileService.buildEmployeePhotoUrl(entity.getPhotoUrl(), ImageSize.THUMB));
         
         // 【恢復】現在使用明文密碼，可以安全地將密碼映射到 DTO
         dto.setPassword(entity.getPassword());
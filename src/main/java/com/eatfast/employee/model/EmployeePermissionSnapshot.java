@@ -0,0 +1,38 @@
+package com.eatfast.employee.model;
+
+import com.eatfast.common.enums.EmployeeRole;
+
+/**
+ * 員工權限快照 (不可變)。
+ * <p>
+ * 內含權限判斷需要的角色與所屬門市 (管理範圍)，
+ * 由 EmployeePermissionSnapshotCache 載入並快取，權限檢查時只需比對欄位，
+ * 不必再查詢資料庫或建立 DTO。
+ * </p>
+ */
+public final class EmployeePermissionSnapshot {
+
+    private final Long employeeId;
+    private final EmployeeRole role;
+    private final Long storeId;
+    private final long loadedAtNanos;
+
+    public EmployeePermissionSnapshot(Long employeeId, EmployeeRole role, Long storeId, long loadedAtNanos) {
+        this.employeeId = employeeId;
+        this.role = role;
+        this.storeId = storeId;
+        this.loadedAtNanos = loadedAtNanos;
+    }
+
+    // 是否與指定員工屬於同一門市 (任一方沒有門市時視為不同門市)
+    public boolean isSameStore(EmployeePermissionSnapshot other) {
+        return storeId != null && other != null && storeId.equals(other.storeId);
+    }
+
+    public Long getEmployeeId() { return employeeId; }
+    public EmployeeRole getRole() { return role; }
+    public Long getStoreId() { return storeId; }
+
+    // 載入時間 (System.nanoTime)，供快取判斷是否逾時
+    public long getLoadedAtNanos() { return loadedAtNanos; }
+}
@@ -80,6 +80,13 @@ public interface EmployeeRepository extends JpaRepository<EmployeeEntity, Long>,
      */
     @EntityGraph(attributePaths = { "store" })
     Optional<EmployeeEntity> findWithStoreByAccount(String account);
+
+    /**
+     * 依 ID 查詢員工，並同時載入其所屬門市 (供權限快照使用)。
+     * @EntityGraph: 使用 JOIN 一次性抓取關聯資料，避免 N+1 查詢。
+     */
+    @EntityGraph(attributePaths = { "store" })
+    Optional<EmployeeEntity> findWithStoreByEmployeeId(Long employeeId);
     
     
 }
\ No newline at end of file
@@ -1,8 +1,8 @@
 package com.eatfast.employee.security;
 
-import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.model.EmployeePermissionSnapshot;
 import com.eatfast.employee.service.EmployeePermissionService;
-import com.eatfast.employee.service.EmployeeService;
+import com.eatfast.employee.service.EmployeePermissionSnapshotCache;
 import jakarta.servlet.http.HttpSession;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.PermissionEvaluator;
@@ -21,6 +21,10 @@ import java.io.Serializable;
  * - hasPermission(authentication, targetEmployeeId, 'VIEW_EMPLOYEE')
  * - hasPermission(authentication, targetEmployeeId, 'EDIT_EMPLOYEE')
  * - hasPermission(authentication, targetEmployeeId, 'DELETE_EMPLOYEE')
+ *
+ * 【優化】目前員工與目標員工都改用 EmployeePermissionSnapshotCache 中的權限快照判斷，
+ * 不再每次檢查都查詢資料庫並轉成 EmployeeDTO；角色或門市異動後快照會被清除，
+ * 因此也不會沿用 Session 中登入當下的舊角色。
  */
 @Component
 public class EmployeePermissionEvaluator implements PermissionEvaluator {
@@ -29,7 +33,7 @@ public class EmployeePermissionEvaluator implements PermissionEvaluator {
     private EmployeePermissionService permissionService;
     
     @Autowired
-    private EmployeeService employeeService;
+    private EmployeePermissionSnapshotCache snapshotCache;
 
     /**
      * 評估對特定物件的權限
@@ -45,7 +49,7 @@ public class EmployeePermissionEvaluator implements PermissionEvaluator {
         }
         
         // 從 Session 中獲取當前登入的員工
-        EmployeeDTO currentEmployee = getCurrentEmployeeFromSession();
+        EmployeePermissionSnapshot currentEmployee = getCurrentEmployeeFromSession();
         if (currentEmployee == null) {
             return false;
         }
@@ -59,21 +63,21 @@ public class EmployeePermissionEvaluator implements PermissionEvaluator {
                 
                 case "VIEW_EMPLOYEE":
                     if (targetDomainObject instanceof Long) {
-                        EmployeeDTO targetEmployee = employeeService.findEmployeeById((Long) targetDomainObject);
+                        EmployeePermissionSnapshot targetEmployee = snapshotCache.get((Long) targetDomainObject);
                         return permissionService.canViewEmployee(currentEmployee, targetEmployee);
                     }
                     return false;
                 
                 case "EDIT_EMPLOYEE":
                     if (targetDomainObject instanceof Long) {
-                        EmployeeDTO targetEmployee = employeeService.findEmployeeById((Long) targetDomainObject);
+                        EmployeePermissionSnapshot targetEmployee = snapshotCache.get((Long) targetDomainObject);
                         return permissionService.canEditEmployee(currentEmployee, targetEmployee);
                     }
                     return false;
                 
                 case "DELETE_EMPLOYEE":
                     if (targetDomainObject instanceof Long) {
-                        EmployeeDTO targetEmployee = employeeService.findEmployeeById((Long) targetDomainObject);
+                        EmployeePermissionSnapshot targetEmployee = snapshotCache.get((Long) targetDomainObject);
                         return permissionService.canDeleteEmployee(currentEmployee, targetEmployee);
                     }
                     return false;
@@ -107,15 +111,16 @@ public class EmployeePermissionEvaluator implements PermissionEvaluator {
 
     /**
      * 從 Session 中獲取當前登入的員工
-     * @return 當前登入的員工DTO，如果未登入則返回 null
+     * @return 當前登入員工的權限快照，如果未登入則返回 null
      */
-    private EmployeeDTO getCurrentEmployeeFromSession() {
+    private EmployeePermissionSnapshot getCurrentEmployeeFromSession() {
         try {
             ServletRequestAttributes attr = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
             if (attr != null) {
                 HttpSession session = attr.getRequest().getSession(false);
                 if (session != null) {
-                    return (EmployeeDTO) session.getAttribute("loggedInEmployee");
+                    EmployeePrincipal principal = EmployeePrincipal.from(session);
+                    return principal != null ? snapshotCache.get(principal.getEmployeeId()) : null;
                 }
             }
         } catch (Exception e) {
@@ -0,0 +1,89 @@
+package com.eatfast.employee.security;
+
+import com.eatfast.common.enums.EmployeeRole;
+import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.model.EmployeeEntity;
+import jakarta.servlet.http.HttpSession;
+
+import java.io.Serializable;
+
+/**
+ * 存放在 Session 中的登入員工身分 (Session 屬性 "loggedInEmployee")。
+ * <p>
+ * Session 存在 Redis 中並在多個節點間共用，因此只保留權限判斷與畫面顯示需要的欄位，
+ * 不再放入整個 EmployeeDTO (含 Email、電話、身分證字號等個資)。
+ * 欄位在登入後不會變動，序列化後只有數十個位元組。
+ * </p>
+ */
+public final class EmployeePrincipal implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final String SESSION_ATTRIBUTE = "loggedInEmployee";
+
+    private final Long employeeId;
+    private final String account;
+    private final String username;
+    private final EmployeeRole role;
+    private final Long storeId;
+    private final String storeName;
+
+    private EmployeePrincipal(Long employeeId, String account, String username, EmployeeRole role,
+                              Long storeId, String storeName) {
+        this.employeeId = employeeId;
+        this.account = account;
+        this.username = username;
+        this.role = role;
+        this.storeId = storeId;
+        this.storeName = storeName;
+    }
+
+    public static EmployeePrincipal of(EmployeeEntity employee) {
+        return new EmployeePrincipal(
+                employee.getEmployeeId(),
+                employee.getAccount(),
+                employee.getUsername(),
+                employee.getRole(),
+                employee.getStore() != null ? employee.getStore().getStoreId() : null,
+                employee.getStore() != null ? employee.getStore().getStoreName() : null);
+    }
+
+    /**
+     * 取得 Session 中的登入員工。
+     * @return 未登入時回傳 null
+     */
+    public static EmployeePrincipal from(HttpSession session) {
+        if (session == null) {
+            return null;
+        }
+        Object value = session.getAttribute(SESSION_ATTRIBUTE);
+        return value instanceof EmployeePrincipal ? (EmployeePrincipal) value : null;
+    }
+
+    /**
+     * 取得 Session 中的登入員工，轉成權限服務使用的 EmployeeDTO (只含身分欄位)。
+     * @return 未登入時回傳 null
+     */
+    public static EmployeeDTO currentEmployee(HttpSession session) {
+        EmployeePrincipal principal = from(session);
+        return principal != null ? principal.toEmployeeDTO() : null;
+    }
+
+    public EmployeeDTO toEmployeeDTO() {
+        EmployeeDTO dto = new EmployeeDTO();
+        dto.setEmployeeId(employeeId);
+        dto.setAccount(account);
+        dto.setUsername(username);
+        dto.setRole(role);
+        dto.setStoreId(storeId);
+        dto.setStoreName(storeName);
+        return dto;
+    }
+
+    public Long getEmployeeId() { return employeeId; }
+    public String getAccount() { return account; }
+    public String getUsername() { return username; }
+    public EmployeeRole getRole() { return role; }
+    public Long getStoreId() { return storeId; }
+    public String getStoreName() { return storeName; }
+}
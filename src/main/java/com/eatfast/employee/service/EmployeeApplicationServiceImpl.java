@@ -1,5 +1,6 @@
 package com.eatfast.employee.service;
 
+import com.eatfast.common.enums.ImageSize;
 import com.eatfast.common.exception.DuplicateResourceException;
 import com.eatfast.common.exception.ResourceNotFoundException;
 import com.eatfast.common.service.FileService;
@@ -300,6 +301,7 @@ public class EmployeeApplicationServiceImpl implements EmployeeApplicationServic
         dto.setStoreId(entity.getStoreId());
         dto.setStoreName(entity.getStoreName());
         dto.setPhotoUrl(entity.getPhotoUrl());
+        dto.setPhotoThumbUrl(fileService.buildEmployeePhotoUrl(entity.getPhotoUrl(), ImageSize.THUMB));
         dto.setStatus(entity.getStatus());
         dto.setStatusDisplayName(entity.getStatus().getDisplayName());
         dto.setReviewerId(entity.getReviewerId());
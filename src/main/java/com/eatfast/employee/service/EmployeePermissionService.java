@@ -8,6 +8,7 @@ package com.eatfast.employee.service;
 
 import com.eatfast.common.enums.EmployeeRole;
 import com.eatfast.employee.dto.EmployeeDTO;
+import com.eatfast.employee.model.EmployeePermissionSnapshot;
 import org.springframework.stereotype.Service;
 
 /**
@@ -25,11 +26,7 @@ public class EmployeePermissionService {
             return false;
         }
 
-        return switch (currentEmployee.getRole()) {
-            case HEADQUARTERS_ADMIN -> true; // 總部管理員可查看所有員工
-            case MANAGER -> currentEmployee.getStoreId().equals(targetEmployee.getStoreId()); // 門市經理只能查看同門市員工
-            case STAFF -> false; // 一般員工無查看權限
-        };
+        return canView(currentEmployee.getRole(), isSameStore(currentEmployee, targetEmployee));
     }
 
     /**
@@ -40,10 +37,7 @@ public class EmployeePermissionService {
             return false;
         }
 
-        return switch (currentEmployee.getRole()) {
-            case HEADQUARTERS_ADMIN, MANAGER -> true; // 總部管理員和門市經理可新增員工
-            case STAFF -> false; // 一般員工無新增權限
-        };
+        return canCreate(currentEmployee.getRole());
     }
 
     /**
@@ -54,11 +48,7 @@ public class EmployeePermissionService {
             return false;
         }
 
-        return switch (currentEmployee.getRole()) {
-            case HEADQUARTERS_ADMIN -> true; // 總部管理員可修改所有員工
-            case MANAGER -> currentEmployee.getStoreId().equals(targetEmployee.getStoreId()); // 門市經理只能修改同門市員工
-            case STAFF -> false; // 一般員工無修改權限
-        };
+        return canEdit(currentEmployee.getRole(), isSameStore(currentEmployee, targetEmployee));
     }
 
     /**
@@ -69,15 +59,8 @@ public class EmployeePermissionService {
             return false;
         }
 
-        return switch (currentEmployee.getRole()) {
-            case HEADQUARTERS_ADMIN -> true; // 總部管理員可刪除所有員工
-            case MANAGER -> {
-                // 門市經理只能刪除同門市的一般員工，不能刪除其他經理
-                yield currentEmployee.getStoreId().equals(targetEmployee.getStoreId()) 
-                      && targetEmployee.getRole() == EmployeeRole.STAFF;
-            }
-            case STAFF -> false; // 一般員工無刪除權限
-        };
+        return canDelete(currentEmployee.getRole(), isSameStore(currentEmployee, targetEmployee),
+                targetEmployee.getRole());
     }
 
     /**
@@ -88,10 +71,7 @@ public class EmployeePermissionService {
             return false;
         }
 
-        return switch (currentEmployee.getRole()) {
-            case HEADQUARTERS_ADMIN, MANAGER -> true; // 總部管理員和門市經理可訪問列表
-            case STAFF -> false; // 一般員工無訪問權限
-        };
+        return canAccessList(currentEmployee.getRole());
     }
 
     /**
@@ -134,4 +114,76 @@ public class EmployeePermissionService {
             case STAFF -> false; // 一般員工無權限設定角色
         };
     }
-}
\ No newline at end of file
+
+    // ================================================================
+    //      【新增】以權限快照檢查 (EmployeePermissionEvaluator 使用，不需查詢資料庫或建立 DTO)
+    // ================================================================
+
+    public boolean canViewEmployee(EmployeePermissionSnapshot current, EmployeePermissionSnapshot target) {
+        return current != null && target != null && canView(current.getRole(), current.isSameStore(target));
+    }
+
+    public boolean canCreateEmployee(EmployeePermissionSnapshot current) {
+        return current != null && canCreate(current.getRole());
+    }
+
+    public boolean canEditEmployee(EmployeePermissionSnapshot current, EmployeePermissionSnapshot target) {
+        return current != null && target != null && canEdit(current.getRole(), current.isSameStore(target));
+    }
+
+    public boolean canDeleteEmployee(EmployeePermissionSnapshot current, EmployeePermissionSnapshot target) {
+        return current != null && target != null
+                && canDelete(current.getRole(), current.isSameStore(target), target.getRole());
+    }
+
+    public boolean canAccessEmployeeList(EmployeePermissionSnapshot current) {
+        return current != null && canAccessList(current.getRole());
+    }
+
+    // ================================================================
+    //      角色規則 (DTO 與快照兩種檢查方式共用)
+    // ================================================================
+
+    private static boolean isSameStore(EmployeeDTO currentEmployee, EmployeeDTO targetEmployee) {
+        return currentEmployee.getStoreId() != null && targetEmployee != null
+                && currentEmployee.getStoreId().equals(targetEmployee.getStoreId());
+    }
+
+    private static boolean canView(EmployeeRole role, boolean sameStore) {
+        return switch (role) {
+            case HEADQUARTERS_ADMIN -> true; // 總部管理員可查看所有員工
+            case MANAGER -> sameStore; // 門市經理只能查看同門市員工
+            case STAFF -> false; // 一般員工無查看權限
+        };
+    }
+
+    private static boolean canCreate(EmployeeRole role) {
+        return switch (role) {
+            case HEADQUARTERS_ADMIN, MANAGER -> true; // 總部管理員和門市經理可新增員工
+            case STAFF -> false; // 一般員工無新增權限
+        };
+    }
+
+    private static boolean canEdit(EmployeeRole role, boolean sameStore) {
+        return switch (role) {
+            case HEADQUARTERS_ADMIN -> true; // 總部管理員可修改所有員工
+            case MANAGER -> sameStore; // 門市經理只能修改同門市員工
+            case STAFF -> false; // 一般員工無修改權限
+        };
+    }
+
+    private static boolean canDelete(EmployeeRole role, boolean sameStore, EmployeeRole targetRole) {
+        return switch (role) {
+            case HEADQUARTERS_ADMIN -> true; // 總部管理員可刪除所有員工
+            case MANAGER -> sameStore && targetRole == EmployeeRole.STAFF; // 門市經理只能刪除同門市的一般員工，不能刪除其他經理
+            case STAFF -> false; // 一般員工無刪除權限
+        };
+    }
+
+    private static boolean canAccessList(EmployeeRole role) {
+        return switch (role) {
+            case HEADQUARTERS_ADMIN, MANAGER -> true; // 總部管理員和門市經理可訪問列表
+            case STAFF -> false; // 一般員工無訪問權限
+        };
+    }
+}
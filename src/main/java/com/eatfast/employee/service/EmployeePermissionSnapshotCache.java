@@ -0,0 +1,168 @@
+package com.eatfast.employee.service;
+
+import com.eatfast.employee.model.EmployeeEntity;
+import com.eatfast.employee.model.EmployeePermissionSnapshot;
+import com.eatfast.employee.repository.EmployeeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 員工權限快照快取 (以員工 ID 為 key)。
+ * <p>
+ * EmployeePermissionEvaluator 每次 VIEW / EDIT / DELETE 檢查原本都要查詢目標員工並轉成 DTO，
+ * 列表頁逐列顯示操作按鈕時會觸發數十次查詢。改為第一次使用時載入快照，之後直接從記憶體取得。
+ * </p>
+ * 員工的角色或門市異動時，由 EmployeeServiceImpl 呼叫 {@link #invalidate}
+ * (在交易提交後清除)，並透過 Redis pub/sub 通知其他節點清除同一名員工的快照；
+ * 未經服務層的異動 (例如直接修改資料庫) 或遺漏的通知，則在快照逾時後重新載入。
+ */
+@Service
+public class EmployeePermissionSnapshotCache implements CommandLineRunner, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(EmployeePermissionSnapshotCache.class);
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("eatfast:employee:permission-snapshot:invalidated");
+
+    private final Map<Long, EmployeePermissionSnapshot> snapshots = new ConcurrentHashMap<>();
+
+    // 每次清除都遞增；載入期間若有清除發生，載入結果就不放入快取，避免把異動前的資料寫回
+    private final AtomicLong generation = new AtomicLong();
+
+    // 本節點的識別碼，用來略過自己發出的通知 (通知內容為 "節點識別碼:員工 ID")
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final EmployeeRepository employeeRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    @Value("${app.employee.permission-cache.redis-sync.enabled:true}")
+    private boolean redisSyncEnabled;
+
+    public EmployeePermissionSnapshotCache(EmployeeRepository employeeRepository,
+                                           StringRedisTemplate stringRedisTemplate,
+                                           RedisMessageListenerContainer listenerContainer,
+                                           @Value("${app.employee.permission-cache.max-entries:1000}") int maxEntries,
+                                           @Value("${app.employee.permission-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.employeeRepository = employeeRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+    }
+
+    @Override
+    public void run(String... args) {
+        if (redisSyncEnabled) {
+            listenerContainer.addMessageListener(this, CHANNEL);
+        }
+    }
+
+    /**
+     * 取得員工的權限快照。
+     * @param employeeId 員工 ID
+     * @return 找不到員工時回傳 null
+     */
+    public EmployeePermissionSnapshot get(Long employeeId) {
+        if (employeeId == null) {
+            return null;
+        }
+        EmployeePermissionSnapshot snapshot = snapshots.get(employeeId);
+        if (snapshot != null && System.nanoTime() - snapshot.getLoadedAtNanos() < ttlNanos) {
+            return snapshot;
+        }
+        return load(employeeId);
+    }
+
+    /**
+     * 清除員工的權限快照。在交易中呼叫時，提交 (或回滾) 後會再清除一次，
+     * 確保交易期間被其他請求重新載入的舊資料不會留在快取中；清除後通知其他節點。
+     * @param employeeId 員工 ID
+     */
+    public void invalidate(Long employeeId) {
+        evict(employeeId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(employeeId);
+                    broadcast(employeeId);
+                }
+            });
+        } else {
+            broadcast(employeeId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf(':');
+        if (separator < 0 || nodeId.equals(body.substring(0, separator))) {
+            return;
+        }
+        try {
+            evict(Long.valueOf(body.substring(separator + 1)));
+        } catch (NumberFormatException e) {
+            log.warn("無法解析員工權限快照清除通知: {}", body);
+        }
+    }
+
+    private void broadcast(Long employeeId) {
+        if (!redisSyncEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL.getTopic(), nodeId + ":" + employeeId);
+        } catch (Exception e) {
+            // 其他節點的快照會在逾時後重新載入
+            log.warn("發佈員工權限快照清除通知失敗 - 員工 ID: {}, 錯誤: {}", employeeId, e.getMessage());
+        }
+    }
+
+    private void evict(Long employeeId) {
+        generation.incrementAndGet();
+        snapshots.remove(employeeId);
+    }
+
+    private EmployeePermissionSnapshot load(Long employeeId) {
+        long loadGeneration = generation.get();
+        EmployeeEntity employee = employeeRepository.findWithStoreByEmployeeId(employeeId).orElse(null);
+        if (employee == null) {
+            snapshots.remove(employeeId);
+            return null;
+        }
+
+        EmployeePermissionSnapshot snapshot = new EmployeePermissionSnapshot(
+                employee.getEmployeeId(),
+                employee.getRole(),
+                employee.getStore() != null ? employee.getStore().getStoreId() : null,
+                System.nanoTime());
+
+        if (snapshots.size() >= maxEntries) {
+            snapshots.clear(); // 員工數量有限，超過上限時整批重來即可
+        }
+        // 與 evict 對同一個 key 互斥：清除先遞增 generation 再移除，因此不會留下清除前載入的快照
+        snapshots.compute(employeeId,
+                (id, current) -> generation.get() == loadGeneration ? snapshot : current);
+        return snapshot;
+    }
+}
@@ -4,6 +4,7 @@
 // =======================================================================================
 package com.eatfast.employee.service;
 
+import com.eatfast.common.enums.EmployeeRole;
 import com.eatfast.common.exception.DuplicateResourceException;
 import com.eatfast.common.exception.ResourceNotFoundException;
 import com.eatfast.common.service.FileService;
@@ -16,15 +17,16 @@ import com.eatfast.employee.model.EmployeeEntity;
 import com.eatfast.employee.repository.EmployeeRepository;
 import com.eatfast.employee.permission.model.EmployeePermissionEntity;
 import com.eatfast.employee.permission.repository.EmployeePermissionRepository;
+import com.eatfast.permission.event.PermissionsChangedEvent;
 import com.eatfast.permission.model.PermissionEntity;
 import com.eatfast.permission.repository.PermissionRepository;
 import com.eatfast.permission.service.PermissionService;
-import com.eatfast.permission.dto.PermissionDto;
 import com.eatfast.store.model.StoreEntity;
 import com.eatfast.store.repository.StoreRepository;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -43,7 +45,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -61,6 +62,8 @@ public class EmployeeServiceImpl implements EmployeeService {
     private final PasswordEncoder passwordEncoder;
     private final FileService fileService;
     private final MailService mailService;
+    private final EmployeePermissionSnapshotCache permissionSnapshotCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Value("${app.upload.employee-photos}") // 從配置檔讀取上傳路徑
     private String uploadPath;// 上傳路徑，用於存儲員工照片
@@ -75,7 +78,9 @@ public class EmployeeServiceImpl implements EmployeeService {
             PermissionService permissionService,
             PasswordEncoder passwordEncoder,
             FileService fileService,
-            MailService mailService) {
+            MailService mailService,
+            EmployeePermissionSnapshotCache permissionSnapshotCache,
+            ApplicationEventPublisher eventPublisher) {
         this.employeeRepository = employeeRepository;
         this.storeRepository = storeRepository;
         this.employeeMapper = employeeMapper;
@@ -85,6 +90,8 @@ public class EmployeeServiceImpl implements EmployeeService {
         this.passwordEncoder = passwordEncoder;
         this.fileService = fileService;
         this.mailService = mailService;
+        this.permissionSnapshotCache = permissionSnapshotCache;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -153,6 +160,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         EmployeeEntity employeeToUpdate = employeeRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("找不到 ID 為 " + id + " 的員工"));
 
+        EmployeeRole previousRole = employeeToUpdate.getRole();
         updateFields(employeeToUpdate, request);
         
         if (request.getPhoto() != null && !request.getPhoto().isEmpty()) {
@@ -161,6 +169,11 @@ public class EmployeeServiceImpl implements EmployeeService {
         }
         
         EmployeeEntity updatedEmployee = employeeRepository.save(employeeToUpdate);
+        permissionSnapshotCache.invalidate(id); // 角色或門市可能已變更
+        if (previousRole != updatedEmployee.getRole() && !updatedEmployee.getEmployeePermissions().isEmpty()) {
+            // 員工的個別權限改算到新角色下，角色權限矩陣需要重建
+            eventPublisher.publishEvent(new PermissionsChangedEvent("員工 " + id + " 角色變更"));
+        }
         return employeeMapper.toDto(updatedEmployee);
     }
 
@@ -176,7 +189,12 @@ public class EmployeeServiceImpl implements EmployeeService {
             fileService.deleteEmployeePhoto(fileName);
         }
 
+        boolean hadPermissions = !employee.getEmployeePermissions().isEmpty();
         employeeRepository.delete(employee);
+        permissionSnapshotCache.invalidate(id);
+        if (hadPermissions) {
+            eventPublisher.publishEvent(new PermissionsChangedEvent("刪除員工 " + id));
+        }
     }
     
     @Override
@@ -198,6 +216,7 @@ public class EmployeeServiceImpl implements EmployeeService {
         newAssociation.setPermission(permissionToGrant);
         
         employeePermissionRepository.save(newAssociation);
+        eventPublisher.publishEvent(new PermissionsChangedEvent("授予員工 " + employeeId + " 權限 " + permissionId));
     }
 
     @Override
@@ -208,6 +227,7 @@ public class EmployeeServiceImpl implements EmployeeService {
                 .orElseThrow(() -> new ResourceNotFoundException(
                         "找不到員工 (ID: " + employeeId + ") 與權限 (ID: " + permissionId + ") 之間的關聯"));
         employeePermissionRepository.delete(associationToRemove);
+        eventPublisher.publishEvent(new PermissionsChangedEvent("撤銷員工 " + employeeId + " 權限 " + permissionId));
     }
 
     /**
@@ -614,6 +634,7 @@ public class EmployeeServiceImpl implements EmployeeService {
             String newFileName = "employee_" + employeeId + "_" + System.currentTimeMillis() + "." + fileExtension;
             Path filePath = uploadDir.resolve(newFileName);
             Files.copy(photo.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            fileService.generateEmployeePhotoDerivatives(newFileName); // 背景產生縮圖 / 中圖
             deleteOldPhoto(employeeId);
             return "/employee-photos/" + newFileName;
         } catch (IOException e) {
@@ -625,22 +646,16 @@ public class EmployeeServiceImpl implements EmployeeService {
         employeeRepository.findById(employeeId).ifPresent(employee -> {
             String oldPhotoUrl = employee.getPhotoUrl();
             if (oldPhotoUrl != null && !oldPhotoUrl.isEmpty()) {
-                try {
-                    String fileName = oldPhotoUrl.substring(oldPhotoUrl.lastIndexOf('/') + 1);
-                    Path oldPhotoPath = Paths.get(uploadPath, fileName);
-                    Files.deleteIfExists(oldPhotoPath);
-                } catch (IOException e) {
-                    log.warn("刪除舊照片失敗: {}", e.getMessage());
-                }
+                // 由 FileService 一併刪除原圖與縮圖 (失敗時只記錄日誌)
+                String fileName = oldPhotoUrl.substring(oldPhotoUrl.lastIndexOf('/') + 1);
+                fileService.deleteEmployeePhoto(fileName);
             }
         });
     }
 
     private void validatePermissionAssignment(EmployeeEntity employee, PermissionEntity permissionToGrant) {
-        Set<PermissionDto> allowedPermissions = permissionService.findPermissionsByRole(employee.getRole());
-        boolean isAllowed = allowedPermissions.stream()
-                .anyMatch(dto -> dto.getPermissionId().equals(permissionToGrant.getPermissionId()));
-        if (!isAllowed) {
+        // 【優化】直接查詢記憶體中的角色權限矩陣，不再逐次查詢資料庫並掃描權限集合
+        if (!permissionService.hasPermission(employee.getRole(), permissionToGrant.getPermissionId())) {
             throw new IllegalArgumentException(
                 "權限指派無效：權限 '" + permissionToGrant.getDescription() + 
                 "' 不適用於角色 '" + employee.getRole().name() + "'。"
@@ -27,4 +27,8 @@ public interface FavRepository extends JpaRepository<FavEntity, Long> {
     // 前台愛心圖示的顯示邏輯
     // 根據會員ID和餐點ID查詢是否有收藏
     Optional<FavEntity> findByMemberMemberIdAndMealMealId(Long memberId, Long mealId);
+
+    // 前台菜單：一次查出會員所有收藏的 [mealId, favMealId]，與菜單快照合併
+    @Query("SELECT f.meal.mealId, f.favMealId FROM FavEntity f WHERE f.member.memberId = :memberId")
+    List<Object[]> findMealIdAndFavMealIdByMemberId(Long memberId);
 }
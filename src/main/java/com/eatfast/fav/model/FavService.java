@@ -7,6 +7,7 @@ import java.util.stream.Collectors;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.eatfast.common.enums.ImageSize;
 import com.eatfast.common.enums.MealStatus;
 import com.eatfast.fav.dto.FavMealDTO;
 import com.eatfast.meal.model.MealEntity;
@@ -43,7 +44,7 @@ public class FavService {
             dto.setMealPrice(meal.getMealPrice());
             dto.setMealTypeId(meal.getMealType().getMealTypeId()); // 收藏分類
 
-            String picUrl = mealService.buildMealPicUrl(meal.getMealPic());
+            String picUrl = mealService.buildMealPicUrl(meal.getMealPic(), ImageSize.MEDIUM);
             dto.setMealPicUrl(picUrl);
 
             return dto;
@@ -11,12 +11,10 @@ import org.springframework.web.bind.annotation.RequestParam;
 
 import com.eatfast.fav.model.FavService;
 import com.eatfast.meal.dto.MealDTO;
-import com.eatfast.meal.model.MealEntity;
 import com.eatfast.meal.model.MealService;
-import com.eatfast.mealtype.model.MealTypeEntity;
+import com.eatfast.meal.model.MenuSnapshot;
 import com.eatfast.mealtype.service.MealTypeService;
 import com.eatfast.store.dto.StoreDto;
-import com.eatfast.store.model.StoreEntity;
 import com.eatfast.store.service.StoreService;
 
 import jakarta.servlet.http.HttpSession;
@@ -48,7 +46,8 @@ public class FrontMealController {
 
     	    if (typeId != null) {
     	        mealDTOList = mealService.getMealsByTypeWithFavored(typeId, memberId);
-    	        MealTypeEntity mealType = mealTypeService.getOneMealType(typeId);
+    	        // 【優化】: 分類名稱直接取自菜單快照，不再另外查詢
+    	        MenuSnapshot.MenuType mealType = mealService.getMenuSnapshot().getMealType(typeId);
     	        currentMealTypeName = mealType != null ? mealType.getMealName() : null;
     	    } else {
     	        mealDTOList = mealService.getAllAvailableWithFavored(memberId);
@@ -80,9 +79,9 @@ public class FrontMealController {
     	}
 
 
-    // 類別清單給前端模板用（分類側邊欄）
+    // 類別清單給前端模板用（分類側邊欄），取自菜單快照
     @ModelAttribute("mealTypeListData")
-    public List<MealTypeEntity> getAllMealTypes() {
-        return mealTypeService.getAll();
+    public List<MenuSnapshot.MenuType> getAllMealTypes() {
+        return mealService.getMenuSnapshot().getMealTypes();
     }
 }
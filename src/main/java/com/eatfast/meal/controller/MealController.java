@@ -26,6 +26,7 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.eatfast.common.enums.MealStatus;
+import com.eatfast.common.service.ImageDerivativeService;
 import com.eatfast.meal.model.MealEntity;
 import com.eatfast.meal.model.MealService;
 import com.eatfast.mealtype.model.MealTypeEntity;
@@ -46,6 +47,9 @@ public class MealController {
     @Autowired
     private MealTypeService mealTypeService;
 
+    @Autowired
+    private ImageDerivativeService imageDerivativeService; // 上傳後產生縮圖 / 中圖
+
     // 處理顯示新增餐點的表單頁面
     @GetMapping("/addMeal")
     public String addMealForm(ModelMap model) {
@@ -80,6 +84,8 @@ public class MealController {
             Path savePath = Paths.get(IMAGE_UPLOAD_DIR, filename);
             Files.createDirectories(savePath.getParent());
             Files.write(savePath, mealPic.getBytes());
+            // 背景產生縮圖 / 中圖，完成後讓前台菜單改用較小的圖片
+            imageDerivativeService.generateAsync(savePath, mealService::invalidateMenu);
             mealEntity.setMealPic(filename); // 存檔名
         }else {
             mealEntity.setMealPic(null); // 沒選圖則欄位為 null
@@ -130,12 +136,17 @@ public class MealController {
 	            Path savePath = Paths.get(UPLOAD_DIR, filename); // 使用 uploads/meal_pic/ 資料夾
 	            Files.createDirectories(savePath.getParent());   // 確保目錄存在
 	            Files.write(savePath, mealPic.getBytes()); // 寫入檔案
+	            imageDerivativeService.generateAsync(savePath, mealService::invalidateMenu); // 背景產生縮圖 / 中圖
 	            mealEntity.setMealPic(filename);
 	
 	            // 刪除舊檔案（僅刪 uploads/meal_pic/ 下的舊圖）
 	            if (existingMeal != null && existingMeal.getMealPic() != null && !existingMeal.getMealPic().isBlank()) {
 	                Path oldImgPath = Paths.get(UPLOAD_DIR, existingMeal.getMealPic()); // 獲取舊圖片的路徑
 	                Files.deleteIfExists(oldImgPath); // 刪除舊圖片檔案
+	                if (MealService.isUploadedMealPic(existingMeal.getMealPic())) {
+	                    // 一併刪除舊圖的縮圖 (內建圖片的縮圖可能仍被其他餐點使用，保留)
+	                    imageDerivativeService.deleteDerivatives(Paths.get(UPLOAD_DIR), existingMeal.getMealPic());
+	                }
 	            }
 	        }
 	    } else {
@@ -1,73 +1,77 @@
 package com.eatfast.meal.controller;
 
-import com.eatfast.meal.model.MealEntity; 
-import com.eatfast.meal.model.MealRepository; 
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import org.springframework.http.HttpHeaders;
+import com.eatfast.common.enums.ImageSize;
+import com.eatfast.meal.model.MealImageService;
+import com.eatfast.meal.model.MealService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType; 
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
-import java.util.Optional;
+import java.time.Duration;
 
 @Controller
 @RequestMapping("/api/meals") // 餐點 API 的基礎路徑
 public class MealRestController {
 
-    private final MealRepository mealRepository;
+    private static final Logger log = LoggerFactory.getLogger(MealRestController.class);
 
-    public MealRestController(MealRepository mealRepository) {
-        this.mealRepository = mealRepository;
+    private final MealService mealService;
+    private final MealImageService mealImageService;
+    private final CacheControl imageCacheControl;
+
+    public MealRestController(MealService mealService, MealImageService mealImageService,
+                              @Value("${app.meal-image.cache-max-age-seconds:3600}") long cacheMaxAgeSeconds) {
+        this.mealService = mealService;
+        this.mealImageService = mealImageService;
+        this.imageCacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheMaxAgeSeconds)).cachePublic();
     }
 
     /**
      * 獲取餐點圖片的 API。
      * GET /api/meals/{mealId}/image
+     * <p>
+     * 【優化】: 以 Resource 串流回應 (支援 Range)，並附上強 ETag、Last-Modified 與 Cache-Control。
+     * 瀏覽器帶 If-None-Match / If-Modified-Since 重新驗證時，
+     * Spring 會依 ResponseEntity 上的 ETag / Last-Modified 自動回應 304，不會讀取或傳送檔案內容。
+     * </p>
      *
      * @param mealId 餐點 ID。
-     * @return 圖片的位元組陣列，附帶正確的 Content-Type，如果圖片不存在則返回 404 Not Found。
+     * @param size 圖片尺寸 (thumb / medium)，未指定時回傳原圖。
+     * @return 圖片內容，附帶正確的 Content-Type，如果圖片不存在則返回 404 Not Found。
      */
-    @GetMapping(value = "/{mealId}/image", produces = {MediaType.IMAGE_JPEG_VALUE, MediaType.IMAGE_PNG_VALUE})
-    public ResponseEntity<byte[]> getMealImage(@PathVariable Long mealId) {
-        Optional<MealEntity> mealOpt = mealRepository.findById(mealId);
-
-        if (mealOpt.isEmpty()) {
-            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
-        }
-
-        MealEntity meal = mealOpt.get();
-        String fileName = meal.getMealPic(); // 取得檔案名稱，如 "milktea.jpg"
+    @GetMapping("/{mealId}/image")
+    public ResponseEntity<Resource> getMealImage(@PathVariable Long mealId,
+                                                 @RequestParam(value = "size", required = false) String size) {
+        String fileName = mealService.findMealPic(mealId); // 取得檔案名稱，如 "milktea.jpg"
 
         if (fileName == null || fileName.isBlank()) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
 
         try {
-            // 假設圖片存在於專案根目錄下的 /images 目錄
-            Path imagePath = Paths.get("images", fileName); 
-            byte[] imageBytes = Files.readAllBytes(imagePath);
-
-            HttpHeaders headers = new HttpHeaders();
-
-            // 根據副檔名判斷內容類型
-            if (fileName.toLowerCase().endsWith(".png")) {
-                headers.setContentType(MediaType.IMAGE_PNG);
-            } else {
-                headers.setContentType(MediaType.IMAGE_JPEG); // 預設 JPEG
+            MealImageService.MealImage image = mealImageService.load(fileName, ImageSize.fromName(size));
+            if (image == null) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
             }
 
-            headers.setContentLength(imageBytes.length);
-
-            return new ResponseEntity<>(imageBytes, headers, HttpStatus.OK);
+            return ResponseEntity.ok()
+                    .contentType(image.getMediaType())
+                    .eTag(image.getETag())
+                    .lastModified(image.getLastModified())
+                    .cacheControl(imageCacheControl)
+                    .body(image.getResource());
         } catch (Exception e) {
-            e.printStackTrace(); // log error
+            log.error("讀取餐點圖片失敗 - mealId: {}, 檔名: {}, 錯誤: {}", mealId, fileName, e.getMessage(), e);
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-}
\ No newline at end of file
+}
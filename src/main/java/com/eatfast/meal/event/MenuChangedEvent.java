@@ -0,0 +1,11 @@
+package com.eatfast.meal.event;
+
+/**
+ * 前台菜單異動事件 (餐點、餐點種類、評分或餐點圖片變更)，由 MealService.invalidateMenu 在程序內發佈。
+ * <p>
+ * 本節點的菜單快照在交易提交後由 MealService 自行標記過期；
+ * 此事件只負責讓 MenuSnapshotSynchronizer 透過 Redis pub/sub 通知其他節點。
+ * </p>
+ */
+public final class MenuChangedEvent {
+}
@@ -0,0 +1,183 @@
+package com.eatfast.meal.model;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+
+import com.eatfast.common.enums.ImageSize;
+import com.eatfast.common.service.ImageDerivativeService;
+
+/**
+ * 餐點圖片的讀取與快取 (供 MealRestController 使用)。
+ * <p>
+ * 圖片以 Spring {@link Resource} 串流回應，不再整個讀進記憶體；
+ * 每個檔案版本 (最後修改時間 + 大小) 只計算一次內容雜湊作為強 ETag。
+ * 小於 app.meal-image.cache.max-file-bytes 的熱門小圖 (縮圖) 另外把內容留在 LRU 快取中，
+ * 快取總大小以 app.meal-image.cache.max-bytes 為上限。
+ * </p>
+ */
+@Service
+public class MealImageService {
+
+    private static final String BUILT_IN_PIC_LOCATION = "static/images/meal_pic/";
+
+    private final ImageDerivativeService imageDerivativeService;
+    private final String mealPicUploadDir;
+    private final int maxEntries;
+    private final long maxBytes;
+    private final long maxFileBytes;
+
+    // 依存取順序排列的 LRU：key 為實際檔案位置
+    private final LinkedHashMap<String, CachedImage> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+
+    public MealImageService(ImageDerivativeService imageDerivativeService,
+                            @Value("${app.upload.meal-pic}") String mealPicUploadDir,
+                            @Value("${app.meal-image.cache.max-entries:512}") int maxEntries,
+                            @Value("${app.meal-image.cache.max-bytes:8388608}") long maxBytes,
+                            @Value("${app.meal-image.cache.max-file-bytes:131072}") long maxFileBytes) {
+        this.imageDerivativeService = imageDerivativeService;
+        this.mealPicUploadDir = mealPicUploadDir;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.maxFileBytes = maxFileBytes;
+    }
+
+    /**
+     * 載入餐點圖片。
+     * @param fileName 餐點圖片檔名 (MealEntity.mealPic)
+     * @param size 需要的尺寸；縮圖 / 中圖尚未產生時退回原圖
+     * @return 圖片與其驗證資訊；檔案不存在時回傳 null
+     * @throws IOException 讀取檔案失敗
+     */
+    public MealImage load(String fileName, ImageSize size) throws IOException {
+        if (fileName.contains("/") || fileName.contains("\\") || fileName.contains("..")) {
+            return null; // 檔名只允許單一層，避免路徑穿越
+        }
+        Resource resource = resolve(fileName, size);
+        if (!resource.exists()) {
+            return null;
+        }
+        String cacheKey = resource.getDescription(); // 實際檔案位置 (原圖與各尺寸分開快取)
+
+        long lastModified = resource.lastModified();
+        long contentLength = resource.contentLength();
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName).orElse(MediaType.IMAGE_JPEG);
+
+        CachedImage cached = getCached(cacheKey);
+        if (cached == null || cached.lastModified != lastModified || cached.contentLength != contentLength) {
+            cached = readAndCache(cacheKey, resource, lastModified, contentLength);
+        }
+        Resource body = cached.bytes != null ? new ByteArrayResource(cached.bytes) : resource;
+        return new MealImage(body, cached.eTag, lastModified, contentLength, mediaType);
+    }
+
+    // 衍生圖 (含內建圖片的衍生圖) 存放在上傳目錄下的 thumb/、medium/；不存在時使用原圖
+    private Resource resolve(String fileName, ImageSize size) {
+        if (size != ImageSize.ORIGINAL) {
+            Path derivative = imageDerivativeService.derivativePath(Paths.get(mealPicUploadDir), fileName, size);
+            if (imageDerivativeService.isAvailable(derivative)) {
+                return new FileSystemResource(derivative);
+            }
+        }
+        return MealService.isUploadedMealPic(fileName)
+                ? new FileSystemResource(Paths.get(mealPicUploadDir, fileName))
+                : new ClassPathResource(BUILT_IN_PIC_LOCATION + fileName);
+    }
+
+    // 計算內容雜湊；小檔案順便保留內容供下次直接回應
+    private CachedImage readAndCache(String cacheKey, Resource resource, long lastModified, long contentLength)
+            throws IOException {
+        byte[] bytes = null;
+        String hash;
+        if (contentLength <= maxFileBytes) {
+            try (InputStream in = resource.getInputStream()) {
+                bytes = StreamUtils.copyToByteArray(in);
+            }
+            hash = DigestUtils.md5DigestAsHex(bytes);
+        } else {
+            try (InputStream in = resource.getInputStream()) {
+                hash = DigestUtils.md5DigestAsHex(in);
+            }
+        }
+        CachedImage cached = new CachedImage("\"" + hash + "\"", lastModified, contentLength, bytes);
+        putCached(cacheKey, cached);
+        return cached;
+    }
+
+    private synchronized CachedImage getCached(String cacheKey) {
+        return cache.get(cacheKey);
+    }
+
+    private synchronized void putCached(String cacheKey, CachedImage image) {
+        CachedImage previous = cache.put(cacheKey, image);
+        if (previous != null) {
+            cachedBytes -= previous.size();
+        }
+        cachedBytes += image.size();
+        // 超過筆數或總大小時，從最久未使用的開始淘汰
+        Iterator<Map.Entry<String, CachedImage>> it = cache.entrySet().iterator();
+        while ((cache.size() > maxEntries || cachedBytes > maxBytes) && it.hasNext()) {
+            cachedBytes -= it.next().getValue().size();
+            it.remove();
+        }
+    }
+
+    private static final class CachedImage {
+        private final String eTag;
+        private final long lastModified;
+        private final long contentLength;
+        private final byte[] bytes; // 只有小檔案會保留內容
+
+        private CachedImage(String eTag, long lastModified, long contentLength, byte[] bytes) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.contentLength = contentLength;
+            this.bytes = bytes;
+        }
+
+        private long size() {
+            return bytes != null ? bytes.length : 0;
+        }
+    }
+
+    /**
+     * 一張可回應的餐點圖片。
+     */
+    public static final class MealImage {
+        private final Resource resource;
+        private final String eTag;
+        private final long lastModified;
+        private final long contentLength;
+        private final MediaType mediaType;
+
+        MealImage(Resource resource, String eTag, long lastModified, long contentLength, MediaType mediaType) {
+            this.resource = resource;
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.contentLength = contentLength;
+            this.mediaType = mediaType;
+        }
+
+        public Resource getResource() { return resource; }
+        public String getETag() { return eTag; }
+        public long getLastModified() { return lastModified; }
+        public long getContentLength() { return contentLength; }
+        public MediaType getMediaType() { return mediaType; }
+    }
+}
@@ -0,0 +1,45 @@
+package com.eatfast.meal.model;
+
+import jakarta.persistence.*;
+
+/**
+ * 餐點評分累計表 (Meal Rating Aggregate Entity)
+ * <p>
+ * 對應資料庫中的 `meal_rating_aggregate` 表，每個餐點一列，持續累計
+ * 「星數 × 數量」的總和與已評分的數量，平均星級 = star_sum / rating_quantity。
+ * 由 OrderListInfoService.addReview 在評論的同一個交易中以增量方式更新，
+ * 並由 MealRatingRebuildJob 定期從 order_list_info 重新計算校正。
+ * </p>
+ */
+@Entity
+@Table(name = "meal_rating_aggregate")
+public class MealRatingAggregateEntity {
+
+    /**
+     * 餐點 ID (與 meal.meal_id 相同)。
+     */
+    @Id
+    @Column(name = "meal_id")
+    private Long mealId;
+
+    /**
+     * 已評分明細的 SUM(review_stars * quantity)。
+     */
+    @Column(name = "star_sum", nullable = false)
+    private Long starSum;
+
+    /**
+     * 已評分明細的 SUM(quantity)。
+     */
+    @Column(name = "rating_quantity", nullable = false)
+    private Long ratingQuantity;
+
+    public MealRatingAggregateEntity() {}
+
+    public Long getMealId() { return mealId; }
+    public void setMealId(Long mealId) { this.mealId = mealId; }
+    public Long getStarSum() { return starSum; }
+    public void setStarSum(Long starSum) { this.starSum = starSum; }
+    public Long getRatingQuantity() { return ratingQuantity; }
+    public void setRatingQuantity(Long ratingQuantity) { this.ratingQuantity = ratingQuantity; }
+}
@@ -0,0 +1,33 @@
+package com.eatfast.meal.model;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface MealRatingAggregateRepository extends JpaRepository<MealRatingAggregateEntity, Long> {
+
+    // 以單一原子語句累加評分增量 (該餐點尚無累計列時自動建立)
+    @Modifying
+    @Query(value = "INSERT INTO meal_rating_aggregate (meal_id, star_sum, rating_quantity) "
+            + "VALUES (:mealId, :starDelta, :quantityDelta) "
+            + "ON DUPLICATE KEY UPDATE star_sum = star_sum + :starDelta, "
+            + "rating_quantity = rating_quantity + :quantityDelta",
+            nativeQuery = true)
+    int applyDelta(@Param("mealId") Long mealId,
+                   @Param("starDelta") long starDelta,
+                   @Param("quantityDelta") long quantityDelta);
+
+    // 從 order_list_info 重新計算所有餐點的累計值並整批覆寫 (校正用，只在重建工作中執行)
+    @Modifying
+    @Query(value = "INSERT INTO meal_rating_aggregate (meal_id, star_sum, rating_quantity) "
+            + "SELECT m.meal_id, IFNULL(SUM(oli.review_stars * oli.quantity), 0), IFNULL(SUM(oli.quantity), 0) "
+            + "FROM meal m "
+            + "LEFT JOIN order_list_info oli ON m.meal_id = oli.meal_id AND oli.review_stars > 0 "
+            + "GROUP BY m.meal_id "
+            + "ON DUPLICATE KEY UPDATE star_sum = VALUES(star_sum), rating_quantity = VALUES(rating_quantity)",
+            nativeQuery = true)
+    int rebuildAll();
+}
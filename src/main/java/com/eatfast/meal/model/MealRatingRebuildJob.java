@@ -0,0 +1,51 @@
+package com.eatfast.meal.model;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 餐點評分累計的重建工作。
+ * <p>
+ * 啟動時執行一次 (讓既有歷史評論填入累計表)，之後依 cron 定期從 order_list_info 重新計算，
+ * 校正增量更新可能產生的誤差 (例如直接修改資料庫)，並在日誌回報誤差餐點數。
+ * </p>
+ */
+@Component
+public class MealRatingRebuildJob implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MealRatingRebuildJob.class);
+
+    private final MealRatingService mealRatingService;
+    private final MealService mealService;
+
+    @Value("${app.rating.rebuild-on-startup:true}")
+    private boolean rebuildOnStartup;
+
+    public MealRatingRebuildJob(MealRatingService mealRatingService, MealService mealService) {
+        this.mealRatingService = mealRatingService;
+        this.mealService = mealService;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (rebuildOnStartup) {
+            rebuild();
+        }
+    }
+
+    @Scheduled(cron = "${app.rating.rebuild-cron:0 30 3 * * *}")
+    public void rebuild() {
+        try {
+            int drifted = mealRatingService.rebuildAggregates();
+            if (drifted > 0) {
+                mealService.invalidateMenu(); // 平均星級有變動，讓前台菜單快照重新載入
+            }
+        } catch (Exception e) {
+            log.error("餐點評分累計重建失敗: {}", e.getMessage(), e);
+        }
+    }
+}
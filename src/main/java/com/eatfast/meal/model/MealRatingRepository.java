@@ -8,17 +8,23 @@ import org.springframework.stereotype.Repository;
 
 @Repository
 public interface MealRatingRepository extends JpaRepository<MealEntity, Long> {
-    @Query( // 使用原生SQL查詢所有餐點的平均評分
+
+    // 【優化】: 平均評分改由 meal_rating_aggregate 累計表讀取，成本只與餐點數量有關，與歷史訂單量無關
+    @Query( // 查詢所有餐點的評分累計值 [meal_id, star_sum, rating_quantity]
+            value = "SELECT m.meal_id, IFNULL(a.star_sum, 0), IFNULL(a.rating_quantity, 0) "
+                    + "FROM meal m "
+                    + "LEFT JOIN meal_rating_aggregate a ON m.meal_id = a.meal_id",
+            nativeQuery = true
+        )
+        List<Object[]> findAllMealRatingTotals();
+
+    @Query( // 從訂單明細完整重新計算所有餐點的評分累計值 (僅供重建工作比對誤差使用)
             value = "SELECT m.meal_id, " 
-            		+ " IFNULL(ROUND(SUM(oli.review_stars * oli.quantity) / NULLIF(SUM(oli.quantity),0), 1), 0) "
-                    + "AS avg_stars " 
+            		+ " IFNULL(SUM(oli.review_stars * oli.quantity), 0), IFNULL(SUM(oli.quantity), 0) "
             		+ "FROM meal m " 
                     + "LEFT JOIN order_list_info oli ON m.meal_id = oli.meal_id AND oli.review_stars > 0 " 
             		+ "GROUP BY m.meal_id",
             nativeQuery = true
         )
-        List<Object[]> findAllMealAvgStars(); // 查詢所有餐點的平均評分，返回一個包含餐點ID和平均評分的Object數組列表
-        
-        
-        
+        List<Object[]> computeMealRatingTotals();
     }
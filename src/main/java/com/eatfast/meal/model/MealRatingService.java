@@ -1,31 +1,109 @@
 package com.eatfast.meal.model;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.eatfast.meal.dto.MealRatingDto;
 
 @Service
 public class MealRatingService {
 
+    private static final Logger log = LoggerFactory.getLogger(MealRatingService.class);
+
+    @Autowired
+    private MealRatingRepository mealRatingRepository;
+
     @Autowired
-    private MealRatingRepository mealRatingRepository; 
+    private MealRatingAggregateRepository mealRatingAggregateRepository; // 評分累計表
 
-    // 每個餐點的平均評分
+    // 每個餐點的平均評分 (讀取累計表，不再掃描訂單明細)
     public List<MealRatingDto> getAllMealAvgStars() {
-        List<Object[]> result = mealRatingRepository.findAllMealAvgStars(); // 使用自定義查詢方法獲取平均評分數據
+        List<Object[]> result = mealRatingRepository.findAllMealRatingTotals(); // [meal_id, star_sum, rating_quantity]
         List<MealRatingDto> dtoList = new ArrayList<>(); // 用於存儲轉換後的 MealRatingDto 列表
-        
-        
+
         for(Object[] row : result) {
             Long mealId = ((Number)row[0]).longValue();
-            Double avgStars = row[1] != null ? ((Number)row[1]).doubleValue() : 0.0;
-            dtoList.add(new MealRatingDto(mealId, avgStars));
+            dtoList.add(new MealRatingDto(mealId, toAvgStars(((Number)row[1]).longValue(), ((Number)row[2]).longValue())));
         }
         return dtoList;
     }
-}
 
+    // 單一餐點的平均評分 (以主鍵讀取一列累計值)
+    public Double getAvgStars(Long mealId) {
+        return mealRatingAggregateRepository.findById(mealId)
+                .map(a -> toAvgStars(a.getStarSum(), a.getRatingQuantity()))
+                .orElse(0.0);
+    }
+
+    /**
+     * 評論新增或修改時，以增量更新該餐點的累計值。
+     * 必須與修改 review_stars 的動作在同一個交易中呼叫，兩者才會一起提交或一起回滾。
+     * @param mealId 餐點 ID
+     * @param oldStars 原本的星等 (0 代表尚未評論)
+     * @param newStars 新的星等
+     * @param quantity 該筆明細的數量 (作為權重)
+     */
+    @Transactional
+    public void recordReview(Long mealId, long oldStars, long newStars, long quantity) {
+        long starDelta = (newStars - oldStars) * quantity;
+        long quantityDelta = oldStars > 0 ? 0 : quantity; // 第一次評論才計入數量
+        if (starDelta == 0 && quantityDelta == 0) {
+            return;
+        }
+        mealRatingAggregateRepository.applyDelta(mealId, starDelta, quantityDelta);
+    }
+
+    /**
+     * 從訂單明細完整重新計算所有餐點的累計值，並回報與現有累計值不一致 (drift) 的餐點數。
+     * 比對期間若有新的評論寫入，可能被計為誤差，但覆寫本身是單一語句，結果以當下的明細為準。
+     * @return 累計值與重新計算結果不一致的餐點數
+     */
+    @Transactional
+    public int rebuildAggregates() {
+        Map<Long, MealRatingAggregateEntity> stored = new HashMap<>();
+        for (MealRatingAggregateEntity aggregate : mealRatingAggregateRepository.findAll()) {
+            stored.put(aggregate.getMealId(), aggregate);
+        }
+
+        int drifted = 0;
+        for (Object[] row : mealRatingRepository.computeMealRatingTotals()) {
+            Long mealId = ((Number) row[0]).longValue();
+            long starSum = ((Number) row[1]).longValue();
+            long quantity = ((Number) row[2]).longValue();
+            MealRatingAggregateEntity current = stored.get(mealId);
+            long currentSum = current != null ? current.getStarSum() : 0L;
+            long currentQuantity = current != null ? current.getRatingQuantity() : 0L;
+            if (currentSum != starSum || currentQuantity != quantity) {
+                drifted++;
+                if (current != null) {
+                    log.warn("餐點評分累計誤差 - mealId: {}, 累計: {}/{}, 重新計算: {}/{}",
+                            mealId, currentSum, currentQuantity, starSum, quantity);
+                }
+            }
+        }
+
+        int rows = mealRatingAggregateRepository.rebuildAll();
+        log.info("餐點評分累計重建完成 - 寫入 {} 筆, 誤差餐點數: {}", rows, drifted);
+        return drifted;
+    }
+
+    // 平均星級取到小數第一位 (與原本 SQL 的 ROUND(..., 1) 相同)
+    private static Double toAvgStars(long starSum, long quantity) {
+        if (quantity <= 0) {
+            return 0.0;
+        }
+        return BigDecimal.valueOf(starSum)
+                .divide(BigDecimal.valueOf(quantity), 1, RoundingMode.HALF_UP)
+                .doubleValue();
+    }
+}
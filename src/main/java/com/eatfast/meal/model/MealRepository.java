@@ -27,6 +27,14 @@ public interface MealRepository extends JpaRepository<MealEntity, Long> {
     @Query("SELECT m FROM MealEntity m JOIN FETCH m.mealType WHERE m.mealType.mealTypeId = :mealTypeId AND m.status = :status")
     List<MealEntity> findByMealTypeMealTypeIdAndStatus(Long mealTypeId, MealStatus status);
 
+    // 前台菜單快照：指定狀態的餐點，一次帶出種類
+    @Query("SELECT m FROM MealEntity m LEFT JOIN FETCH m.mealType WHERE m.status = :status ORDER BY m.mealId")
+    List<MealEntity> findAvailableWithMealType(MealStatus status);
+
+    // 只查詢餐點圖片檔名 (圖片 API 使用，避免載入整個餐點)
+    @Query("SELECT m.mealPic FROM MealEntity m WHERE m.mealId = :mealId")
+    Optional<String> findMealPicById(Long mealId);
+
     // 查詢餐點名稱是否已存在
     @Query(value = "SELECT * FROM meal WHERE meal_name = ?1", nativeQuery = true)
 	Optional<MealEntity> findByMealName(String mealName);
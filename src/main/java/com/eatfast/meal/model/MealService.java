@@ -1,20 +1,33 @@
 package com.eatfast.meal.model;
 
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
 
 import org.hibernate.SessionFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.eatfast.common.enums.ImageSize;
 import com.eatfast.common.enums.MealStatus;
+import com.eatfast.common.service.ImageDerivativeService;
 import com.eatfast.fav.model.FavRepository;
 import com.eatfast.meal.dto.MealDTO;
 import com.eatfast.meal.dto.MealRatingDto;
+import com.eatfast.meal.event.MenuChangedEvent;
+import com.eatfast.mealtype.model.MealTypeEntity;
+import com.eatfast.mealtype.repository.MealTypeRepository;
 
 @Service("mealService")
 public class MealService {
@@ -30,6 +43,31 @@ public class MealService {
 	
 	@Autowired
     private MealRatingService mealRatingService; // 用於計算餐點平均評分
+
+	@Autowired
+    private MealTypeRepository mealTypeRepository; // 菜單快照的分類清單
+
+	@Autowired
+    private ImageDerivativeService imageDerivativeService; // 依尺寸選擇圖片網址
+
+	@Autowired
+    private ApplicationEventPublisher eventPublisher; // 菜單異動時通知其他節點 (MenuSnapshotSynchronizer)
+
+	@Value("${app.upload.meal-pic}")
+    private String mealPicUploadDir;
+
+	// 菜單快照的存活時間；遺漏其他節點的異動通知 (例如 Redis 不可用) 時，最多延遲這麼久
+	@Value("${app.menu.snapshot.ttl-seconds:300}")
+    private long menuSnapshotTtlSeconds;
+
+	private static final Pattern UPLOADED_PIC_PATTERN = Pattern.compile(".*[a-f0-9\\-]{36}.*");
+
+	// === 前台菜單唯讀快照 ===
+	// menuVersion 在餐點 / 種類 / 評分異動的交易提交後遞增 (其他節點的異動經 Redis 通知)；
+	// 快照版本落後或超過存活時間時，下一次讀取才重建
+	private final AtomicLong menuVersion = new AtomicLong();
+	private final Object menuLock = new Object();
+	private volatile MenuSnapshot menuSnapshot;
 	
 	// 新增餐點
 	@Transactional
@@ -37,6 +75,7 @@ public class MealService {
 	    repository.findByMealName(mealEntity.getMealName()).ifPresent(existingMeal -> {
 	        throw new IllegalArgumentException("餐點名稱 '" + mealEntity.getMealName() + "' 已存在。");
 	    });
+	    invalidateMenu();
 	    return repository.save(mealEntity);
 	}
 
@@ -59,6 +98,7 @@ public class MealService {
 
 	    // ✅ 儲存：不會影響原本的收藏關聯
 	    repository.save(existingMeal);
+	    invalidateMenu();
 	}
 
 
@@ -94,6 +134,7 @@ public class MealService {
 	@Transactional
 	public void deleteMeal(Long mealId) {
 		repository.deleteById(mealId);
+		invalidateMenu();
 	}
 	
 	// === 前台:查詢所有上架餐點 ===
@@ -103,81 +144,160 @@ public class MealService {
 
 
 	// === 前台：取得所有上架餐點，並標註會員是否已收藏 ===
+    // 【優化】: 餐點、種類名稱與平均星級都來自記憶體快照，唯一的查詢是會員收藏清單 (一次查完)
     public List<MealDTO> getAllAvailableWithFavored(Long memberId) {
-        List<MealEntity> meals = repository.findByStatus(MealStatus.AVAILABLE);
-        
-        // 1. 取得所有餐點的平均評分列表
-        List<MealRatingDto> allMealRatings = mealRatingService.getAllMealAvgStars();
-        
-        // 2. 將評分列表轉換為一個 Map，方便透過 mealId 快速查找平均評分
-        //    鍵 (Key) 是餐點ID (Long)，值 (Value) 是平均星級 (Double)
-        Map<Long, Double> mealRatingsMap = new HashMap<>();
-        for (MealRatingDto ratingDto : allMealRatings) {
-            mealRatingsMap.put(ratingDto.getMealId(), ratingDto.getAvgStars());
+        return mergeFavored(getMenuSnapshot().getItems(), memberId);
+    }
+
+    // === 前台：依分類查詢，並標註會員是否已收藏 ===
+    public List<MealDTO> getMealsByTypeWithFavored(Long mealTypeId, Long memberId) {
+        return mergeFavored(getMenuSnapshot().getItemsByType(mealTypeId), memberId);
+    }
+
+    /**
+     * 取得前台菜單快照；快照不存在或已過期時重建 (同一時間只會有一個執行緒重建)。
+     * @return 不可變的菜單快照
+     */
+    public MenuSnapshot getMenuSnapshot() {
+        MenuSnapshot current = menuSnapshot;
+        if (isFresh(current, menuVersion.get())) {
+            return current;
         }
+        synchronized (menuLock) {
+            long version = menuVersion.get();
+            current = menuSnapshot;
+            if (!isFresh(current, version)) {
+                current = buildMenuSnapshot(version);
+                menuSnapshot = current;
+            }
+            return current;
+        }
+    }
 
-        // 3. 建立一個新的 List 來存放轉換後的 MealDTO 物件
-        List<MealDTO> mealDTOList = new ArrayList<>();
-        
-        // 4. 遍歷每個 MealEntity，將其轉換為 MealDTO，並補上平均評分
-        for (MealEntity meal : meals) {
-            MealDTO dto = toDTOWithFavored(meal, memberId); // 轉換基本資訊和收藏狀態
-            
-            // 從 Map 中查找該餐點的平均評分
-            // mealRatingsMap.get(meal.getMealId()) 會返回 Double 或 null (如果沒有找到)
-            // .getOrDefault(key, defaultValue) 是一個很方便的方法，如果找不到就給個預設值
-            Double avgStars = mealRatingsMap.getOrDefault(meal.getMealId(), 0.0);
-            
-            dto.setAvgStars(avgStars); // 設定餐點的平均星級評分
-            mealDTOList.add(dto);     // 將完成的 MealDTO 加入列表
+    /**
+     * 標記菜單快照過期 (餐點、餐點種類或評分異動時呼叫)。
+     * 在交易中呼叫時，等交易提交後才生效，避免其他請求在提交前把舊資料重新載入快照。
+     * 【修正】同時發佈 {@link MenuChangedEvent}，提交後由 MenuSnapshotSynchronizer 通知其他節點。
+     */
+    public void invalidateMenu() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    markMenuStale();
+                }
+            });
+        } else {
+            markMenuStale();
         }
-        
-        return mealDTOList; // 返回包含平均評分的 MealDTO 列表
+        eventPublisher.publishEvent(new MenuChangedEvent());
     }
 
-    // === 前台：依分類查詢，並標註會員是否已收藏 ===
-    public List<MealDTO> getMealsByTypeWithFavored(Long mealTypeId, Long memberId) {
-        List<MealEntity> meals = repository.findByMealTypeMealTypeIdAndStatus(mealTypeId, MealStatus.AVAILABLE);
+    // 只標記本節點的快照過期 (收到其他節點的異動通知時使用，不再往外通知)
+    void markMenuStale() {
+        menuVersion.incrementAndGet();
+    }
+
+    private boolean isFresh(MenuSnapshot snapshot, long version) {
+        return snapshot != null && snapshot.getVersion() == version
+                && System.nanoTime() - snapshot.getBuiltAtNanos() < TimeUnit.SECONDS.toNanos(menuSnapshotTtlSeconds);
+    }
+
+    // 重建快照：上架餐點 (JOIN FETCH 種類)、平均評分、種類清單各一次查詢
+    private MenuSnapshot buildMenuSnapshot(long version) {
+        List<MealEntity> meals = repository.findAvailableWithMealType(MealStatus.AVAILABLE);
 
-        // 1. 取得所有餐點的平均評分列表
-        List<MealRatingDto> allMealRatings = mealRatingService.getAllMealAvgStars();
-        
-        // 2. 將評分列表轉換為一個 Map，方便透過 mealId 快速查找平均評分
         Map<Long, Double> mealRatingsMap = new HashMap<>();
-        for (MealRatingDto ratingDto : allMealRatings) {
+        for (MealRatingDto ratingDto : mealRatingService.getAllMealAvgStars()) {
             mealRatingsMap.put(ratingDto.getMealId(), ratingDto.getAvgStars());
         }
-        
-        // 3. 建立一個新的 List 來存放轉換後的 MealDTO 物件
-        List<MealDTO> mealDTOList = new ArrayList<>();
-        
-        // 4. 遍歷每個 MealEntity，將其轉換為 MealDTO，並補上平均評分
+
+        List<MenuSnapshot.MenuItem> items = new ArrayList<>(meals.size());
         for (MealEntity meal : meals) {
-            MealDTO dto = toDTOWithFavored(meal, memberId); // 轉換基本資訊和收藏狀態 
-            
-            // 從 Map 中查找該餐點的平均評分，如果沒有就給 0.0
-            Double avgStars = mealRatingsMap.getOrDefault(meal.getMealId(), 0.0);
-            
-            dto.setAvgStars(avgStars); // 設定餐點的平均星級評分
-            mealDTOList.add(dto);     // 將完成的 MealDTO 加入列表
+            MealTypeEntity mealType = meal.getMealType();
+            items.add(new MenuSnapshot.MenuItem(
+                    meal.getMealId(),
+                    meal.getMealName(),
+                    meal.getMealPrice(),
+                    mealType != null ? mealType.getMealTypeId() : null,
+                    mealType != null ? mealType.getMealName() : "",
+                    meal.getMealPic(),
+                    buildMealPicUrl(meal.getMealPic(), ImageSize.MEDIUM),
+                    mealRatingsMap.getOrDefault(meal.getMealId(), 0.0)));
         }
-        
-        return mealDTOList; // 返回包含平均評分的 MealDTO 列表
+
+        List<MenuSnapshot.MenuType> mealTypes = new ArrayList<>();
+        for (MealTypeEntity mealType : mealTypeRepository.findAll()) {
+            mealTypes.add(new MenuSnapshot.MenuType(mealType.getMealTypeId(), mealType.getMealName()));
+        }
+        return new MenuSnapshot(version, items, mealTypes);
+    }
+
+    // 將快照中的餐點轉為 MealDTO，並合併會員收藏狀態
+    private List<MealDTO> mergeFavored(List<MenuSnapshot.MenuItem> items, Long memberId) {
+        Map<Long, Long> favMealIds = new HashMap<>(); // Key 是 mealId，Value 是 favMealId
+        if (memberId != null && !items.isEmpty()) {
+            for (Object[] row : favRepository.findMealIdAndFavMealIdByMemberId(memberId)) {
+                favMealIds.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+            }
+        }
+
+        List<MealDTO> mealDTOList = new ArrayList<>(items.size());
+        for (MenuSnapshot.MenuItem item : items) {
+            Long favMealId = favMealIds.get(item.getMealId());
+            MealDTO dto = new MealDTO();
+            dto.setMealId(item.getMealId());
+            dto.setMealName(item.getMealName());
+            dto.setMealPrice(item.getMealPrice());
+            dto.setMealTypeName(item.getMealTypeName());
+            dto.setMealPicUrl(item.getMealPicUrl());
+            dto.setFavored(favMealId != null);
+            dto.setFavMealId(favMealId);
+            dto.setMealPic(item.getMealPic());
+            dto.setAvgStars(item.getAvgStars());
+            mealDTOList.add(dto);
+        }
+        return mealDTOList;
     }
     
 	 // === 圖片 URL 處理 ===
 	 public String buildMealPicUrl(String mealPic) {
+	     return buildMealPicUrl(mealPic, ImageSize.ORIGINAL);
+	 }
+
+	 // 【新增】: 依顯示位置選擇尺寸；縮圖 / 中圖尚未產生時退回原圖
+	 public String buildMealPicUrl(String mealPic, ImageSize size) {
 	     if (mealPic == null || mealPic.isBlank()) {
 	         return "/images/nopic.png"; // 如果沒有圖片，回傳預設無圖片路徑
 	     }
+	     // 衍生圖 (含內建圖片的衍生圖) 一律存放在上傳目錄下的 thumb/、medium/
+	     String derivativeUrl = imageDerivativeService.findDerivativeUrl(
+	             "/meal-pic/", Paths.get(mealPicUploadDir), mealPic, size);
+	     if (derivativeUrl != null) {
+	         return derivativeUrl;
+	     }
 	     // 判斷是否為上傳的圖片 (例如檔名以 "upload_" 開頭或包含 UUID)
-	     if (mealPic.startsWith("upload_") || mealPic.matches(".*[a-f0-9\\-]{36}.*")) {
+	     if (isUploadedMealPic(mealPic)) {
 	         return "/meal-pic/" + mealPic; 
 	     }
 	     // 其他的舊圖或預設圖 (存在於 src/main/resources/static/images/meal_pic/ )
 	     return "/images/meal_pic/" + mealPic; 
 	 }
 
+	 // 是否為後台上傳的圖片 (存放於 app.upload.meal-pic)，否則為 static/images/meal_pic 下的內建圖片
+	 public static boolean isUploadedMealPic(String mealPic) {
+	     return mealPic.startsWith("upload_") || UPLOADED_PIC_PATTERN.matcher(mealPic).matches();
+	 }
+
+	 // 取得餐點圖片檔名：上架餐點直接取自菜單快照，其餘只查詢 meal_pic 一個欄位
+	 public String findMealPic(Long mealId) {
+	     MenuSnapshot.MenuItem item = getMenuSnapshot().getItem(mealId);
+	     if (item != null) {
+	         return item.getMealPic();
+	     }
+	     return repository.findMealPicById(mealId).orElse(null);
+	 }
+
 
     // === Entity to DTO（關鍵轉換）===
     public MealDTO toDTOWithFavored(MealEntity meal, Long memberId) {
@@ -255,7 +375,7 @@ public class MealService {
         dto.setMealName(meal.getMealName());
         dto.setMealPrice(meal.getMealPrice()); 
         dto.setMealTypeName(meal.getMealType() != null ? meal.getMealType().getMealName() : "");
-        dto.setMealPicUrl(buildMealPicUrl(meal.getMealPic()));
+        dto.setMealPicUrl(buildMealPicUrl(meal.getMealPic(), ImageSize.THUMB));
         dto.setMealPic(meal.getMealPic());
 
         dto.setAvgStars(0.0); // 後台不顯示平均星級，設為 0.0
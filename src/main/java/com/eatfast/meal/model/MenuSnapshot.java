@@ -0,0 +1,133 @@
+package com.eatfast.meal.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 前台菜單的唯讀模型 (不可變快照)。
+ * <p>
+ * 內含所有上架餐點 (已附上種類名稱、圖片網址與平均星級) 及所有餐點種類，
+ * 由 MealService 在餐點 / 種類 / 評分異動後重建一次，之後所有菜單請求共用同一份快照，
+ * 不再逐次查詢資料庫。會員的收藏狀態不屬於快照，於每次請求時另外合併。
+ * </p>
+ */
+public final class MenuSnapshot {
+
+    private final long version;
+    private final long builtAtNanos = System.nanoTime();
+    private final List<MenuItem> items;
+    private final Map<Long, MenuItem> itemsById;
+    private final Map<Long, List<MenuItem>> itemsByType;
+    private final List<MenuType> mealTypes;
+    private final Map<Long, MenuType> mealTypesById;
+
+    MenuSnapshot(long version, List<MenuItem> items, List<MenuType> mealTypes) {
+        this.version = version;
+        this.items = List.copyOf(items);
+
+        Map<Long, MenuItem> byId = new LinkedHashMap<>();
+        Map<Long, List<MenuItem>> byType = new LinkedHashMap<>();
+        for (MenuItem item : this.items) {
+            byId.put(item.getMealId(), item);
+            byType.computeIfAbsent(item.getMealTypeId(), k -> new ArrayList<>()).add(item);
+        }
+        byType.replaceAll((k, v) -> List.copyOf(v));
+        this.itemsByType = Collections.unmodifiableMap(byType);
+        this.itemsById = Collections.unmodifiableMap(byId);
+
+        this.mealTypes = List.copyOf(mealTypes);
+        Map<Long, MenuType> typesById = new LinkedHashMap<>();
+        for (MenuType type : this.mealTypes) {
+            typesById.put(type.getMealTypeId(), type);
+        }
+        this.mealTypesById = Collections.unmodifiableMap(typesById);
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    // 建立時間 (System.nanoTime)，用來判斷快照是否超過存活時間
+    long getBuiltAtNanos() {
+        return builtAtNanos;
+    }
+
+    // 所有上架餐點
+    public List<MenuItem> getItems() {
+        return items;
+    }
+
+    // 依 ID 取得上架餐點，找不到 (或已下架) 時回傳 null
+    public MenuItem getItem(Long mealId) {
+        return itemsById.get(mealId);
+    }
+
+    // 指定種類的上架餐點 (找不到時回傳空列表)
+    public List<MenuItem> getItemsByType(Long mealTypeId) {
+        return itemsByType.getOrDefault(mealTypeId, List.of());
+    }
+
+    // 所有餐點種類 (分類側邊欄用)
+    public List<MenuType> getMealTypes() {
+        return mealTypes;
+    }
+
+    // 依 ID 取得餐點種類，找不到時回傳 null
+    public MenuType getMealType(Long mealTypeId) {
+        return mealTypesById.get(mealTypeId);
+    }
+
+    /**
+     * 快照中的單一餐點。
+     */
+    public static final class MenuItem {
+        private final Long mealId;
+        private final String mealName;
+        private final Long mealPrice;
+        private final Long mealTypeId;
+        private final String mealTypeName;
+        private final String mealPic;
+        private final String mealPicUrl;
+        private final Double avgStars;
+
+        MenuItem(Long mealId, String mealName, Long mealPrice, Long mealTypeId, String mealTypeName,
+                 String mealPic, String mealPicUrl, Double avgStars) {
+            this.mealId = mealId;
+            this.mealName = mealName;
+            this.mealPrice = mealPrice;
+            this.mealTypeId = mealTypeId;
+            this.mealTypeName = mealTypeName;
+            this.mealPic = mealPic;
+            this.mealPicUrl = mealPicUrl;
+            this.avgStars = avgStars;
+        }
+
+        public Long getMealId() { return mealId; }
+        public String getMealName() { return mealName; }
+        public Long getMealPrice() { return mealPrice; }
+        public Long getMealTypeId() { return mealTypeId; }
+        public String getMealTypeName() { return mealTypeName; }
+        public String getMealPic() { return mealPic; }
+        public String getMealPicUrl() { return mealPicUrl; }
+        public Double getAvgStars() { return avgStars; }
+    }
+
+    /**
+     * 快照中的餐點種類 (屬性名稱與 MealTypeEntity 相同，模板可直接沿用)。
+     */
+    public static final class MenuType {
+        private final Long mealTypeId;
+        private final String mealName;
+
+        MenuType(Long mealTypeId, String mealName) {
+            this.mealTypeId = mealTypeId;
+            this.mealName = mealName;
+        }
+
+        public Long getMealTypeId() { return mealTypeId; }
+        public String getMealName() { return mealName; }
+    }
+}
@@ -0,0 +1,82 @@
+package com.eatfast.meal.model;
+
+import com.eatfast.meal.event.MenuChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 前台菜單快照的跨節點同步。
+ * <ul>
+ * <li>本節點發佈 {@link MenuChangedEvent} 的交易提交後，在 Redis 頻道發佈通知。</li>
+ * <li>收到其他節點的通知時，標記本節點的菜單快照過期 (自己發出的通知略過)。</li>
+ * </ul>
+ * Redis 不可用時遺漏的通知，由快照的存活時間 (app.menu.snapshot.ttl-seconds) 補上。
+ */
+@Component
+public class MenuSnapshotSynchronizer implements CommandLineRunner, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuSnapshotSynchronizer.class);
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("eatfast:menu:changed");
+
+    // 本節點的識別碼，用來略過自己發出的通知
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final MealService mealService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.menu.snapshot.redis-sync.enabled:true}")
+    private boolean redisSyncEnabled;
+
+    public MenuSnapshotSynchronizer(MealService mealService,
+                                    StringRedisTemplate stringRedisTemplate,
+                                    RedisMessageListenerContainer listenerContainer) {
+        this.mealService = mealService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (redisSyncEnabled) {
+            listenerContainer.addMessageListener(this, CHANNEL);
+        }
+    }
+
+    /**
+     * 菜單異動的交易提交後通知其他節點 (不在交易中時立即通知)。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMenuChanged(MenuChangedEvent event) {
+        if (!redisSyncEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL.getTopic(), nodeId);
+        } catch (Exception e) {
+            // 其他節點的快照會在存活時間到期後重建
+            log.warn("發佈菜單異動通知失敗 - 錯誤: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String origin = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!nodeId.equals(origin)) {
+            mealService.markMenuStale();
+        }
+    }
+}
@@ -13,6 +13,7 @@
  */
 package com.eatfast.mealtype.service;
 
+import com.eatfast.meal.model.MealService;
 import com.eatfast.mealtype.model.MealTypeEntity;
 import com.eatfast.mealtype.repository.MealTypeRepository;
 import jakarta.persistence.EntityNotFoundException;
@@ -27,9 +28,11 @@ import java.util.Optional;
 public class MealTypeService {
 
     private final MealTypeRepository repository;
+    private final MealService mealService; // 種類異動時通知前台菜單快照過期
 
-    public MealTypeService(MealTypeRepository repository) {
+    public MealTypeService(MealTypeRepository repository, MealService mealService) {
         this.repository = repository;
+        this.mealService = mealService;
     }
 
     @Transactional // 覆蓋類別設定，標示為寫入交易
@@ -41,6 +44,7 @@ public class MealTypeService {
 
         MealTypeEntity mealTypeEntity = new MealTypeEntity();
         mealTypeEntity.setMealName(mealName);
+        mealService.invalidateMenu();
         return repository.save(mealTypeEntity);
     }
 
@@ -58,6 +62,7 @@ public class MealTypeService {
         }
 
         existingMealType.setMealName(mealName);
+        mealService.invalidateMenu();
         // JPA 會自動偵測到物件被修改，並在交易提交時產生 UPDATE SQL。
         return repository.save(existingMealType);
     }
@@ -81,5 +86,6 @@ public class MealTypeService {
         // 注意: 若此種類下尚有關聯的餐點，由於資料庫設定為 RESTRICT，此處會拋出例外。
         // 這是預期中的正確行為，應由 Controller 層捕獲並提示使用者。
         repository.deleteById(mealTypeId);
+        mealService.invalidateMenu();
     }
 }
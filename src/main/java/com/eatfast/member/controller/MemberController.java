@@ -18,11 +18,14 @@ import com.eatfast.member.service.MemberService;
 import com.eatfast.member.validation.CreateValidation;
 import com.eatfast.member.validation.UpdateValidation;
 // 【新增】訂單相關的 import
+import com.eatfast.orderlist.model.OrderHistoryFilter;
 import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderListPage;
 import com.eatfast.orderlist.model.OrderStatus;
 // (既有 import)
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.servlet.http.HttpSession;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +47,8 @@ import com.eatfast.common.enums.Gender;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Controller;
@@ -66,10 +71,14 @@ public class MemberController {
     
     // 【依賴注入】使用 private final 確保 Service 在建構後不可變，是線程安全的最佳實踐。
     private final MemberService memberService;
+    // 會員訂單紀錄每頁筆數
+    private final int orderPageSize;
 
     // 【依賴注入路徑】透過建構子注入 MemberService，由 Spring 容器自動完成。
-    public MemberController(MemberService memberService) {
+    public MemberController(MemberService memberService,
+                            @Value("${app.member-orders.page-size:20}") int orderPageSize) {
         this.memberService = memberService;
+        this.orderPageSize = orderPageSize;
     }
     
     // ================================================================
@@ -654,7 +663,10 @@ public class MemberController {
     public String showMemberOrders(Model model, HttpSession session,
                                  @RequestParam(required = false) String status,
                                  @RequestParam(required = false) String startDate,
-                                 @RequestParam(required = false) String endDate) {
+                                 @RequestParam(required = false) String endDate,
+                                 @RequestParam(required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+                                 @RequestParam(required = false) String cursorId) {
         
         // 【Session驗證】檢查登入狀態
         Long memberId = (Long) session.getAttribute("loggedInMemberId");
@@ -674,62 +686,18 @@ public class MemberController {
                 return MemberViewConstants.REDIRECT_TO_MEMBER_LOGIN + "?error=account_disabled";
             }
             
-            // 【獲取會員訂單】使用 Service 層方法來確保正確載入訂單明細
-            List<OrderListEntity> orders = memberService.getMemberOrdersWithDetails(memberId);
-            
-            // 【過濾條件處理】根據篩選條件過濾訂單
-            if (status != null && !status.trim().isEmpty()) {
-                if ("INCOMPLETE".equals(status.trim())) {
-                    // 未完成狀態：包含 PENDING、CONFIRMED、SHIPPED
-                    orders = orders.stream()
-                            .filter(order -> order.getOrderStatus() == OrderStatus.PENDING || 
-                                           order.getOrderStatus() == OrderStatus.CONFIRMED || 
-                                           order.getOrderStatus() == OrderStatus.SHIPPED)
-                            .collect(java.util.stream.Collectors.toList());
-                } else {
-                    // 單一狀態篩選
-                    try {
-                        OrderStatus orderStatus = OrderStatus.valueOf(status.trim());
-                        orders = orders.stream()
-                                .filter(order -> order.getOrderStatus() == orderStatus)
-                                .collect(java.util.stream.Collectors.toList());
-                    } catch (IllegalArgumentException e) {
-                        log.warn("無效的訂單狀態參數: {}", status);
-                    }
-                }
-            }
-            
-            // 【日期過濾】
-            if (startDate != null && !startDate.trim().isEmpty()) {
-                try {
-                    LocalDate start = LocalDate.parse(startDate);
-                    orders = orders.stream()
-                            .filter(order -> order.getOrderDate().toLocalDate().isAfter(start.minusDays(1)))
-                            .collect(java.util.stream.Collectors.toList());
-                } catch (Exception e) {
-                    log.warn("無效的開始日期參數: {}", startDate);
-                }
-            }
+            // 【優化】篩選條件交由資料庫過濾，並以 keyset 分頁載入 (每頁固定查詢次數)
+            OrderHistoryFilter filter = OrderHistoryFilter.of(
+                    parseStatusFilter(status), parseDateParam(startDate, "開始"), parseDateParam(endDate, "結束"));
+            OrderListPage<OrderListEntity> page =
+                    memberService.getMemberOrdersWithDetails(memberId, filter, cursorDate, cursorId, orderPageSize);
             
-            if (endDate != null && !endDate.trim().isEmpty()) {
-                try {
-                    LocalDate end = LocalDate.parse(endDate);
-                    orders = orders.stream()
-                            .filter(order -> order.getOrderDate().toLocalDate().isBefore(end.plusDays(1)))
-                            .collect(java.util.stream.Collectors.toList());
-                } catch (Exception e) {
-                    log.warn("無效的結束日期參數: {}", endDate);
-                }
-            }
-            
-            // 【排序】按訂單日期降序排列
-            orders.sort((o1, o2) -> o2.getOrderDate().compareTo(o1.getOrderDate()));
-            
-            // 【計算統計資訊】
-            Map<String, Object> orderStats = calculateOrderStats(orders);
+            // 【計算統計資訊】(整個篩選結果，而非僅本頁)
+            Map<String, Object> orderStats = toOrderStats(memberService.getMemberOrderSummary(memberId, filter));
             
             // 【傳遞資料到視圖】
-            model.addAttribute("orders", orders);
+            model.addAttribute("orders", page.getContent());
+            model.addAttribute("orderPage", page);
             model.addAttribute("orderStats", orderStats);
             model.addAttribute("member", member);
             
@@ -738,7 +706,7 @@ public class MemberController {
             model.addAttribute("currentStartDate", startDate);
             model.addAttribute("currentEndDate", endDate);
             
-            log.info("會員 {} 查看訂單記錄，共 {} 筆訂單", member.getAccount(), orders.size());
+            log.info("會員 {} 查看訂單記錄，本頁 {} 筆訂單", member.getAccount(), page.getContent().size());
             
         } catch (EntityNotFoundException e) {
             log.error("載入訂單記錄失敗 - 會員不存在: {}", e.getMessage());
@@ -755,30 +723,56 @@ public class MemberController {
     }
     
     /**
-     * 【輔助方法】計算訂單統計資訊
+     * 【輔助方法】將狀態篩選參數轉換為訂單狀態集合 (null 代表不篩選)
      */
-    private Map<String, Object> calculateOrderStats(List<OrderListEntity> orders) {
-        Map<String, Object> stats = new HashMap<>();
-        
-        stats.put("totalOrders", orders.size());
-        
-        long pendingCount = orders.stream()
-                .filter(order -> order.getOrderStatus() == OrderStatus.PENDING || 
-                               order.getOrderStatus() == OrderStatus.CONFIRMED)
-                .count();
-        stats.put("pendingOrders", pendingCount);
-        
-        long completedCount = orders.stream()
-                .filter(order -> order.getOrderStatus() == OrderStatus.COMPLETED)
-                .count();
-        stats.put("completedOrders", completedCount);
-        
-        long totalAmount = orders.stream()
-                .filter(order -> order.getOrderStatus() == OrderStatus.COMPLETED)
-                .mapToLong(order -> order.getOrderAmount() != null ? order.getOrderAmount() : 0L)
-                .sum();
-        stats.put("totalAmount", totalAmount);
+    private Set<OrderStatus> parseStatusFilter(String status) {
+        if (status == null || status.trim().isEmpty()) {
+            return null;
+        }
+        if ("INCOMPLETE".equals(status.trim())) {
+            // 未完成狀態：包含 PENDING、CONFIRMED、SHIPPED
+            return EnumSet.of(OrderStatus.PENDING, OrderStatus.CONFIRMED, OrderStatus.SHIPPED);
+        }
+        try {
+            return EnumSet.of(OrderStatus.valueOf(status.trim()));
+        } catch (IllegalArgumentException e) {
+            log.warn("無效的訂單狀態參數: {}", status);
+            return null;
+        }
+    }
+    
+    /**
+     * 【輔助方法】解析日期篩選參數，格式錯誤時忽略該條件
+     */
+    private LocalDate parseDateParam(String value, String label) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (Exception e) {
+            log.warn("無效的{}日期參數: {}", label, value);
+            return null;
+        }
+    }
+    
+    /**
+     * 【輔助方法】由資料庫彙總的各狀態 [筆數, 金額] 組出統計資訊
+     */
+    private Map<String, Object> toOrderStats(Map<OrderStatus, long[]> summary) {
+        long totalOrders = 0L;
+        for (long[] counts : summary.values()) {
+            totalOrders += counts[0];
+        }
+        long[] none = {0L, 0L};
+        long[] completed = summary.getOrDefault(OrderStatus.COMPLETED, none);
         
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("totalOrders", totalOrders);
+        stats.put("pendingOrders", summary.getOrDefault(OrderStatus.PENDING, none)[0]
+                + summary.getOrDefault(OrderStatus.CONFIRMED, none)[0]);
+        stats.put("completedOrders", completed[0]);
+        stats.put("totalAmount", completed[1]);
         return stats;
     }
     
@@ -14,23 +14,31 @@ import com.eatfast.member.service.VerificationCodeService;
 // (既有 import)
 import com.eatfast.member.model.MemberEntity;
 import com.eatfast.member.repository.MemberRepository;
+import com.eatfast.orderlist.model.OrderHistoryFilter;
 import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderListPage;
+import com.eatfast.orderlist.model.OrderStatus;
 import com.eatfast.orderlist.repository.OrderListRepository;
-import com.eatfast.orderlistinfo.model.OrderListInfoEntity;
+import com.eatfast.orderlist.service.OrderListService;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.persistence.criteria.Predicate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Base64;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 /*
@@ -56,16 +64,19 @@ public class MemberService {
     private final EmailService emailService;
     // 【修正】直接使用驗證碼服務，移除重複的接口包裝
     private final VerificationCodeService verificationCodeService;
+    // 【新增】訂單狀態變更統一經過訂單服務的狀態機
+    private final OrderListService orderListService;
 
     // 依賴注入的標準建構子模式
     public MemberService(MemberRepository memberRepository, OrderListRepository orderListRepository,
                         PasswordEncoder passwordEncoder, EmailService emailService, 
-                        VerificationCodeService verificationCodeService) {
+                        VerificationCodeService verificationCodeService, OrderListService orderListService) {
         this.memberRepository = memberRepository;
         this.orderListRepository = orderListRepository;
         this.passwordEncoder = passwordEncoder;
         this.emailService = emailService;
         this.verificationCodeService = verificationCodeService;
+        this.orderListService = orderListService;
     }
 
     // ================================================================
@@ -1080,59 +1091,53 @@ public class MemberService {
     }
 
     /**
-     * 【修正】獲取會員訂單並確保載入明細 - 簡化版本避免複雜的關聯載入
-     * 
+     * 【優化】分頁取得會員訂單並載入明細。
+     * <p>
+     * 狀態與日期條件在 SQL 中過濾，以 keyset (訂單日期 + 訂單編號) 分頁；
+     * 每頁固定兩次查詢：一次取訂單與門市，一次以 entity graph 載入這些訂單的明細與餐點，
+     * 不再逐筆觸發延遲載入 (N+1)。
+     * </p>
+     *
      * @param memberId 會員ID
-     * @return 包含完整明細的訂單列表
+     * @param filter 狀態與日期條件
+     * @param cursorDate 上一頁最後一筆的訂單日期；第一頁為 null
+     * @param cursorId 上一頁最後一筆的訂單編號；第一頁為 null
+     * @param size 每頁筆數
+     * @return 一頁包含明細的訂單
      */
     @Transactional(readOnly = true)
-    public List<OrderListEntity> getMemberOrdersWithDetails(Long memberId) {
-        log.info("開始獲取會員訂單詳細資料 - 會員ID: {}", memberId);
-        
-        try {
-            // 1. 驗證會員是否存在
-            if (!memberRepository.existsById(memberId)) {
-                log.warn("會員不存在 - ID: {}", memberId);
-                return new ArrayList<>();
-            }
-            
-            // 2. 使用 Repository 查詢該會員的所有訂單
-            List<OrderListEntity> orders = orderListRepository.findByMemberMemberIdOrderByOrderDateDesc(memberId);
-            
-            log.info("找到 {} 筆訂單記錄", orders.size());
-            
-            // 3. 確保訂單明細資料被正確載入 (lazy loading)
-            for (OrderListEntity order : orders) {
-                // 強制載入訂單明細資料
-                if (order.getOrderListInfos() != null) {
-                    order.getOrderListInfos().size(); // 觸發 lazy loading
-                    
-                    // 確保餐點資料也被載入
-                    for (OrderListInfoEntity info : order.getOrderListInfos()) {
-                        if (info.getMeal() != null) {
-                            info.getMeal().getMealName(); // 觸發 lazy loading
-                        }
-                    }
-                }
-                
-                // 確保會員資料被載入
-                if (order.getMember() != null) {
-                    order.getMember().getUsername(); // 觸發 lazy loading
-                }
-                
-                // 確保商店資料被載入
-                if (order.getStore() != null) {
-                    order.getStore().getStoreName(); // 觸發 lazy loading
-                }
-            }
-            
-            return orders;
-            
-        } catch (Exception e) {
-            log.error("獲取會員訂單時發生錯誤 - 會員ID: {}, 錯誤: {}", memberId, e.getMessage(), e);
-            // 返回空列表而不是拋出異常，避免頁面崩潰
-            return new ArrayList<>();
+    public OrderListPage<OrderListEntity> getMemberOrdersWithDetails(Long memberId, OrderHistoryFilter filter,
+                                                                    LocalDateTime cursorDate, String cursorId, int size) {
+        // 多查一筆用來判斷是否還有下一頁
+        Pageable limit = PageRequest.of(0, size + 1);
+        List<OrderListEntity> rows = (cursorDate == null || cursorId == null)
+                ? orderListRepository.findMemberPage(memberId, filter.getStatuses(), filter.getFrom(), filter.getTo(), limit)
+                : orderListRepository.findMemberPageAfter(memberId, filter.getStatuses(), filter.getFrom(), filter.getTo(),
+                        cursorDate, cursorId, limit);
+        OrderListPage<OrderListEntity> page = OrderListPage.fromRows(rows, size,
+                OrderListEntity::getOrderDate, OrderListEntity::getOrderListId);
+
+        if (!page.getContent().isEmpty()) {
+            // 同一個持久化環境中回傳的是同一批實體，這裡只是把明細集合初始化，順序沿用分頁查詢
+            orderListRepository.findWithDetailsByOrderListIdIn(
+                    page.getContent().stream().map(OrderListEntity::getOrderListId).toList());
         }
+        log.debug("會員訂單分頁 - 會員ID: {}, 本頁 {} 筆, 有下一頁: {}", memberId, page.getContent().size(), page.isHasNext());
+        return page;
+    }
+
+    /**
+     * 【新增】會員訂單統計 (與分頁相同的條件，由資料庫彙總)。
+     * @return 各狀態的 [筆數, 金額合計]
+     */
+    @Transactional(readOnly = true)
+    public Map<OrderStatus, long[]> getMemberOrderSummary(Long memberId, OrderHistoryFilter filter) {
+        Map<OrderStatus, long[]> summary = new EnumMap<>(OrderStatus.class);
+        for (Object[] row : orderListRepository.summarizeMemberOrders(memberId, filter.getStatuses(),
+                filter.getFrom(), filter.getTo())) {
+            summary.put((OrderStatus) row[0], new long[] {((Number) row[1]).longValue(), ((Number) row[2]).longValue()});
+        }
+        return summary;
     }
     
     // ================================================================
@@ -1185,51 +1190,29 @@ public class MemberService {
     
     /**
      * 【功能】取消會員訂單
+     * 【優化】改由訂單服務的狀態機處理：條件式更新狀態並寫入狀態異動紀錄，
+     * 與門市同時變更同一張訂單時不會互相覆蓋。
      * 
      * @param memberId 會員ID
      * @param orderListId 訂單ID
      * @return 是否成功取消
      */
-    @Transactional
+    // 【修正】不加入類別層級的唯讀交易：由 cancelByMember 自行開啟可寫入的交易，
+    // 取消被拒絕時也只會回滾該交易，這裡單純回傳 false
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean cancelMemberOrder(Long memberId, String orderListId) {
         log.info("會員 {} 嘗試取消訂單 {}", memberId, orderListId);
         
         try {
-            // 先驗證會員存在
-            MemberEntity member = memberRepository.findById(memberId)
-                    .orElseThrow(() -> new EntityNotFoundException("找不到會員 ID: " + memberId));
-            
-            // 查詢訂單並驗證是否屬於該會員
-            Optional<OrderListEntity> orderOpt = orderListRepository.findById(orderListId);
-            
-            if (orderOpt.isEmpty()) {
-                log.warn("找不到訂單 {}", orderListId);
-                return false;
-            }
-            
-            OrderListEntity order = orderOpt.get();
-            
-            // 檢查訂單是否屬於該會員
-            if (order.getMember() == null || !order.getMember().getMemberId().equals(memberId)) {
-                log.warn("訂單 {} 不屬於會員 {}", orderListId, memberId);
-                return false;
-            }
-            
-            // 檢查訂單狀態是否可以取消（只有 PENDING 狀態可以取消）
-            if (order.getOrderStatus() != com.eatfast.orderlist.model.OrderStatus.PENDING) {
-                log.warn("訂單 {} 狀態為 {}，無法取消", orderListId, order.getOrderStatus());
-                return false;
-            }
-            
-            // 更新訂單狀態為 CANCELLED
-            order.setOrderStatus(com.eatfast.orderlist.model.OrderStatus.CANCELLED);
-            orderListRepository.save(order);
-            
+            orderListService.cancelByMember(orderListId, memberId);
             log.info("成功取消會員 {} 的訂單 {}", memberId, orderListId);
             return true;
             
         } catch (EntityNotFoundException e) {
-            log.error("取消訂單失敗 - 會員不存在: {}", e.getMessage());
+            log.warn("取消訂單失敗 - 找不到會員 {} 的訂單 {}", memberId, orderListId);
+            return false;
+        } catch (IllegalStateException | OptimisticLockingFailureException e) {
+            log.warn("訂單 {} 無法取消: {}", orderListId, e.getMessage());
             return false;
         } catch (Exception e) {
             log.error("取消會員訂單時發生錯誤: {}", e.getMessage(), e);
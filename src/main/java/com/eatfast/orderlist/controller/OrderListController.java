@@ -1,8 +1,14 @@
 package com.eatfast.orderlist.controller;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.ui.ModelMap;
@@ -13,10 +19,17 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.eatfast.orderlist.event.StoreOrderStreamRegistry;
+import com.eatfast.orderlist.model.OrderActorType;
+import com.eatfast.orderlist.model.OrderDashboardStats;
 import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderListPage;
+import com.eatfast.orderlist.model.OrderListSummaryDTO;
 import com.eatfast.orderlist.model.OrderStatus;
+import com.eatfast.orderlist.service.OrderDashboardService;
 import com.eatfast.orderlist.service.OrderListService;
 import com.eatfast.employee.service.EmployeeService; // 【新增】引入員工服務
 import com.eatfast.employee.dto.EmployeeDTO; // 【修正】引入員工DTO而非實體
@@ -34,23 +47,25 @@ public class OrderListController {
 	@Autowired // 【新增】注入員工服務
 	EmployeeService employeeService;
 
+	@Autowired // 【新增】門市訂單統計
+	OrderDashboardService orderDashboardSvc;
+
+	@Autowired // 【新增】門市訂單看板推送連線
+	StoreOrderStreamRegistry orderStreamRegistry;
+
+	// 訂單列表每頁筆數
+	@Value("${app.orderlist.page-size:50}")
+	int pageSize;
+
 	/*
-	 * 此方法將根據當前登入員工的門市權限返回相應的訂單資料
+	 * 【優化】原本以 @ModelAttribute("orderListData") 為本 Controller 的每個請求 (包含 /update、/delete、
+	 * /markAsCompleted 等不顯示列表的 POST) 都查詢員工與門市全部訂單；
+	 * 現在改由實際顯示列表的頁面各自呼叫 addStoreOrderPage，只查詢一頁列表投影。
 	 */
-	@ModelAttribute("orderListData")
-	protected List<OrderListEntity> referenceListData(HttpSession session) {
-		// 【修改】檢查當前登入員工的門市權限
-		Long employeeId = (Long) session.getAttribute("employeeId");
-		if (employeeId != null) {
-			// 獲取員工信息
-			EmployeeDTO employee = employeeService.findEmployeeById(employeeId);
-			if (employee != null && employee.getStoreId() != null) {
-				// 只返回該員工所屬門市的訂單
-				return orderSvc.findByStoreId(employee.getStoreId());
-			}
-		}
-		// 如果沒有登入或沒有門市信息，返回空列表
-		return List.of();
+	private void addStoreOrderPage(Model model, Long storeId, LocalDateTime cursorDate, String cursorId) {
+		OrderListPage<OrderListSummaryDTO> page = orderSvc.findStorePage(storeId, cursorDate, cursorId, pageSize);
+		model.addAttribute("orderListData", page.getContent());
+		model.addAttribute("orderListPage", page);
 	}
 
 	// (此處為示意，您需要提供對應的 Service 方法來獲取)
@@ -77,7 +92,7 @@ public class OrderListController {
 
 	
 	@PostMapping("/getOne_For_Display")
-	public String getOne_For_Display(@RequestParam("orderListId") String orderListId, ModelMap model, HttpSession session) {
+	public String getOne_For_Display(@RequestParam("orderListId") String orderListId, Model model, HttpSession session) {
 	    
 	    // 【新增】門市權限檢查
 	    Long employeeId = (Long) session.getAttribute("employeeId");
@@ -116,7 +131,7 @@ public class OrderListController {
 	        model.addAttribute("currentEmployeeRole", employeeRole);
 	    }
 	    
-	    OrderListEntity orderListVO = orderSvc.getOrderById(orderListId).orElse(null);
+	    OrderListEntity orderListVO = orderSvc.getOrderById(orderListId.trim()).orElse(null);
 	    
 	    if (orderListVO == null) {
 	        model.addAttribute("errorMessage", "查無資料");
@@ -180,7 +195,8 @@ public class OrderListController {
 	    @Valid @ModelAttribute("orderListVO") OrderListEntity orderListVO, 
 	    BindingResult result,
 	    RedirectAttributes redirectAttributes,
-	    Model model
+	    Model model,
+	    HttpSession session
 	) {
 	    
 	    // 檢查是否有基本的資料綁定錯誤
@@ -203,17 +219,19 @@ public class OrderListController {
 	        return "back-end/orderlist/update_orderlist_input";
 	    }
 	    
-	    // 2. 將表單送過來的新值，更新到從資料庫取出的原始物件上
-	    //    我們只更新需要變動的欄位，Member 和 Store 關聯會自動保持不變。
-	    originalOrder.setOrderAmount(orderListVO.getOrderAmount());
-	    originalOrder.setOrderStatus(orderListVO.getOrderStatus());
-	    originalOrder.setMealPickupNumber(orderListVO.getMealPickupNumber());
-	    // 注意：您 Entity 中的 cardNumber 欄位在表單上沒有，所以這裡不會更新到它，這是正確的。
-	    
-	    // 3. 儲存已經更新好的「原始物件」，JPA 會自動處理變更
-	    orderSvc.updateOrder(originalOrder);
+	    // 2. 將表單送過來的新值 (金額、取餐號碼) 與狀態變更在同一個交易中寫入，Member 和 Store 關聯保持不變。
+	    //    【修正】狀態變更經過狀態機；轉換被拒絕時整筆修改回滾，不會只留下金額的變更。
+	    try {
+	        orderSvc.updateOrderByEmployee(originalOrder.getOrderListId(), orderListVO.getOrderAmount(),
+	                orderListVO.getMealPickupNumber(), orderListVO.getOrderStatus(),
+	                (Long) session.getAttribute("employeeId"));
+	    } catch (IllegalStateException | OptimisticLockingFailureException e) {
+	        redirectAttributes.addFlashAttribute("errorMessage",
+	                "訂單編號: " + originalOrder.getOrderListId() + " 未修改：" + e.getMessage());
+	        return "redirect:/orderlist/listAllOrderList";
+	    }
 	    
-	    // 4. 使用 redirectAttributes 傳遞成功訊息並重新導向
+	    // 3. 使用 redirectAttributes 傳遞成功訊息並重新導向
 	    redirectAttributes.addFlashAttribute("success", "-(訂單編號: " + originalOrder.getOrderListId() + " 修改成功)");
 	    
 	    return "redirect:/orderlist/listAllOrderList";
@@ -260,8 +278,13 @@ public class OrderListController {
 	        return "redirect:/orderlist/listAllOrderList";
 	    }
 	    
-	    // 3. 執行更新
-	    orderSvc.updateOrderStatus(orderListId, OrderStatus.CANCELLED);
+	    // 3. 執行更新 (狀態機會再以條件式更新確認訂單未被同時變更)
+	    try {
+	        orderSvc.updateOrderStatus(orderListId, OrderStatus.CANCELLED, OrderActorType.EMPLOYEE, employeeId);
+	    } catch (IllegalStateException | OptimisticLockingFailureException e) {
+	        redirectAttributes.addFlashAttribute("errorMessage", "操作失敗：訂單 " + orderListId + " " + e.getMessage());
+	        return "redirect:/orderlist/listAllOrderList";
+	    }
 	    redirectAttributes.addFlashAttribute("success", "-(訂單編號: " + orderListId + " 已取消)");
 	    
 	    return "redirect:/orderlist/listAllOrderList";
@@ -272,109 +295,32 @@ public class OrderListController {
 	 */
 	@GetMapping("/select_page_OrderList")
 	public String selectPage(Model model, HttpSession session) {
-		try {
-			// 【修復】正確獲取當前登入的員工資訊 - 注意所有類型轉換
-			String employeeName = (String) session.getAttribute("employeeName");
-			Object employeeIdObj = session.getAttribute("employeeId");
-			Object employeeRoleObj = session.getAttribute("employeeRole");
-			
-			// 【修復】安全地轉換employeeId
-			String employeeId = null;
-			if (employeeIdObj != null) {
-				employeeId = employeeIdObj.toString();
-			}
-			
-			// 【修復】安全地轉換employeeRole
-			String employeeRole = null;
-			if (employeeRoleObj != null) {
-				employeeRole = employeeRoleObj.toString();
-			}
-			
-			// 【調試】輸出Session中的員工資訊
-			System.out.println("=== 調試信息 ===");
-			System.out.println("Session ID: " + session.getId());
-			System.out.println("Employee Name: " + employeeName);
-			System.out.println("Employee ID Object: " + employeeIdObj + " (type: " + (employeeIdObj != null ? employeeIdObj.getClass().getSimpleName() : "null") + ")");
-			System.out.println("Employee ID: " + employeeId);
-			System.out.println("Employee Role Object: " + employeeRoleObj + " (type: " + (employeeRoleObj != null ? employeeRoleObj.getClass().getSimpleName() : "null") + ")");
-			System.out.println("Employee Role: " + employeeRole);
-			System.out.println("================");
-			
-			// 將員工資訊添加到模型中
-			if (employeeName != null) {
-				model.addAttribute("currentEmployeeName", employeeName);
-				model.addAttribute("currentEmployeeId", employeeId);
-				model.addAttribute("currentEmployeeRole", employeeRole);
-				System.out.println("員工資訊已添加到模型中");
-			} else {
-				System.out.println("警告：Session中沒有找到員工資訊");
-			}
-			
-			// 【新增】計算各種狀態的訂單數量，提供給前端統計卡片顯示
-			List<OrderListEntity> allOrders = orderSvc.findAll();
-			
-			// 確保 allOrders 不為 null
-			if (allOrders != null && !allOrders.isEmpty()) {
-				// 統計各狀態訂單數量
-				long pendingCount = allOrders.stream()
-						.filter(order -> order.getOrderStatus() == OrderStatus.PENDING)
-						.count();
-				
-				long confirmedCount = allOrders.stream()
-						.filter(order -> order.getOrderStatus() == OrderStatus.CONFIRMED)
-						.count();
-				
-				long completedCount = allOrders.stream()
-						.filter(order -> order.getOrderStatus() == OrderStatus.COMPLETED)
-						.count();
-				
-				long cancelledCount = allOrders.stream()
-						.filter(order -> order.getOrderStatus() == OrderStatus.CANCELLED)
-						.count();
-				
-				// 將統計資料加入 Model
-				model.addAttribute("pendingOrdersCount", pendingCount);
-				model.addAttribute("confirmedOrdersCount", confirmedCount);
-				model.addAttribute("completedOrdersCount", completedCount);
-				model.addAttribute("cancelledOrdersCount", cancelledCount);
-				
-				// 總訂單數和今日訂單數
-				model.addAttribute("totalOrdersCount", allOrders.size());
-				
-				// 計算今日訂單數
-				long todayOrdersCount = allOrders.stream()
-						.filter(order -> {
-							if (order.getOrderDate() != null) {
-								return order.getOrderDate().toLocalDate().equals(java.time.LocalDate.now());
-							}
-							return false;
-						})
-						.count();
-				model.addAttribute("todayOrdersCount", todayOrdersCount);
-			} else {
-				// 如果沒有訂單資料，設定預設值
-				model.addAttribute("pendingOrdersCount", 0L);
-				model.addAttribute("confirmedOrdersCount", 0L);
-				model.addAttribute("completedOrdersCount", 0L);
-				model.addAttribute("cancelledOrdersCount", 0L);
-				model.addAttribute("totalOrdersCount", 0L);
-				model.addAttribute("todayOrdersCount", 0L);
+		String employeeName = (String) session.getAttribute("employeeName");
+		Object employeeIdObj = session.getAttribute("employeeId");
+		Object employeeRoleObj = session.getAttribute("employeeRole");
+
+		// 將員工資訊添加到模型中
+		if (employeeName != null) {
+			model.addAttribute("currentEmployeeName", employeeName);
+			model.addAttribute("currentEmployeeId", employeeIdObj != null ? employeeIdObj.toString() : null);
+			model.addAttribute("currentEmployeeRole", employeeRoleObj != null ? employeeRoleObj.toString() : null);
+		}
+
+		// 【優化】統計卡片：只統計該員工所屬門市，由資料庫 GROUP BY 計算，不再載入全部訂單
+		OrderDashboardStats stats = OrderDashboardStats.empty();
+		if (employeeIdObj instanceof Long employeeId) {
+			EmployeeDTO employee = employeeService.findEmployeeById(employeeId);
+			if (employee != null && employee.getStoreId() != null) {
+				stats = orderDashboardSvc.getStoreStats(employee.getStoreId());
 			}
-			
-		} catch (Exception e) {
-			// 記錄錯誤並設定預設值
-			System.err.println("Error in selectPage: " + e.getMessage());
-			e.printStackTrace();
-			
-			// 設定預設值以防止頁面錯誤
-			model.addAttribute("pendingOrdersCount", 0L);
-			model.addAttribute("confirmedOrdersCount", 0L);
-			model.addAttribute("completedOrdersCount", 0L);
-			model.addAttribute("cancelledOrdersCount", 0L);
-			model.addAttribute("totalOrdersCount", 0L);
-			model.addAttribute("todayOrdersCount", 0L);
 		}
-		
+		model.addAttribute("pendingOrdersCount", stats.getPendingCount());
+		model.addAttribute("confirmedOrdersCount", stats.getConfirmedCount());
+		model.addAttribute("completedOrdersCount", stats.getCompletedCount());
+		model.addAttribute("cancelledOrdersCount", stats.getCancelledCount());
+		model.addAttribute("totalOrdersCount", stats.getTotalCount());
+		model.addAttribute("todayOrdersCount", stats.getTodayCount());
+
 		return "back-end/orderlist/select_page_OrderList"; 
 	}
 
@@ -382,7 +328,11 @@ public class OrderListController {
 	 * 顯示所有訂單列表 - 【修改】添加門市權限檢查
 	 */
 	@GetMapping("/listAllOrderList")
-	public String listAllOrderList(Model model, HttpSession session) {
+	public String listAllOrderList(
+			@RequestParam(value = "cursorDate", required = false)
+			@DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime cursorDate,
+			@RequestParam(value = "cursorId", required = false) String cursorId,
+			Model model, HttpSession session) {
 		// 檢查員工登入狀態
 		Long employeeId = (Long) session.getAttribute("employeeId");
 		if (employeeId == null) {
@@ -403,9 +353,9 @@ public class OrderListController {
 			return "back-end/error";
 		}
 
-		// 獲取該門市的所有訂單
-		List<OrderListEntity> storeOrders = orderSvc.findByStoreId(employee.getStoreId());
-		model.addAttribute("orderListData", storeOrders);
+		// 【優化】以 keyset 分頁取得該門市的訂單 (依訂單日期由新到舊)，不再一次載入全部訂單
+		addStoreOrderPage(model, employee.getStoreId(), cursorDate, cursorId);
+		model.addAttribute("firstPage", cursorId == null);
 
 		// 添加當前員工和門市信息到模型
 		model.addAttribute("currentEmployee", employee);
@@ -415,6 +365,24 @@ public class OrderListController {
 	}
 	
 	
+	/**
+	 * 【新增】門市訂單即時推送 (Server-Sent Events)。
+	 * 新訂單與訂單狀態變更會即時推送到訂單列表頁，門市人員不需重新整理 (也不再重複查詢資料庫)。
+	 * 只在建立連線時查詢一次員工的所屬門市。
+	 */
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> streamStoreOrders(HttpSession session) {
+		Long employeeId = (Long) session.getAttribute("employeeId");
+		if (employeeId == null) {
+			return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+		}
+		EmployeeDTO employee = employeeService.findEmployeeById(employeeId);
+		if (employee == null || employee.getStoreId() == null) {
+			return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+		}
+		return ResponseEntity.ok(orderStreamRegistry.register(employee.getStoreId()));
+	}
+
 	@PostMapping("/markAsCompleted")
 	public String markAsCompleted(@RequestParam("orderListId") String orderListId, RedirectAttributes redirectAttributes, HttpSession session) {
 	    
@@ -446,7 +414,12 @@ public class OrderListController {
 	    }
 
 	    // 執行狀態更新
-	    orderSvc.updateOrderStatus(orderListId, OrderStatus.COMPLETED);
+	    try {
+	        orderSvc.updateOrderStatus(orderListId, OrderStatus.COMPLETED, OrderActorType.EMPLOYEE, employeeId);
+	    } catch (IllegalStateException | OptimisticLockingFailureException e) {
+	        redirectAttributes.addFlashAttribute("errorMessage", "操作失敗：訂單 " + orderListId + " " + e.getMessage());
+	        return "redirect:/orderlist/listAllOrderList";
+	    }
 	    
 	    // 設定成功訊息並重導向
 	    redirectAttributes.addFlashAttribute("success", "-(訂單編號: " + orderListId + " 已標示為完成)");
@@ -0,0 +1,73 @@
+package com.eatfast.orderlist.event;
+
+import java.time.LocalDateTime;
+
+import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderStatus;
+
+/**
+ * 訂單異動事件 (新訂單 / 狀態變更)，經由 Spring 的應用程式事件在程序內發佈。
+ * <p>
+ * 由 OrderListService 在寫入訂單的交易中發佈，交易提交後才推送到門市看板，
+ * 因此看板不會看到之後被回滾的異動。欄位只包含看板顯示所需的資料，建立時即從實體複製，
+ * 推送時不會再碰觸延遲載入的關聯。
+ * </p>
+ */
+public final class OrderChangedEvent {
+
+    public enum Type {
+        CREATED("order-created"),
+        STATUS_CHANGED("order-status-changed");
+
+        private final String eventName;
+
+        Type(String eventName) {
+            this.eventName = eventName;
+        }
+
+        // 推送給瀏覽器時的事件名稱 (EventSource.addEventListener 使用)
+        public String getEventName() {
+            return eventName;
+        }
+    }
+
+    private final Type type;
+    private final String orderListId;
+    private final Long storeId;
+    private final OrderStatus orderStatus;
+    private final OrderStatus previousStatus;
+    private final Long orderAmount;
+    private final Long mealPickupNumber;
+    private final LocalDateTime orderDate;
+    private final LocalDateTime pickupTime;
+
+    private OrderChangedEvent(Type type, OrderListEntity order, OrderStatus previousStatus) {
+        this.type = type;
+        this.orderListId = order.getOrderListId();
+        this.storeId = order.getStore().getStoreId(); // 代理物件取得主鍵不會觸發查詢
+        this.orderStatus = order.getOrderStatus();
+        this.previousStatus = previousStatus;
+        this.orderAmount = order.getOrderAmount();
+        this.mealPickupNumber = order.getMealPickupNumber();
+        this.orderDate = order.getOrderDate();
+        this.pickupTime = order.getPickupTime();
+    }
+
+    public static OrderChangedEvent created(OrderListEntity order) {
+        return new OrderChangedEvent(Type.CREATED, order, null);
+    }
+
+    public static OrderChangedEvent statusChanged(OrderListEntity order, OrderStatus previousStatus) {
+        return new OrderChangedEvent(Type.STATUS_CHANGED, order, previousStatus);
+    }
+
+    public Type getType() { return type; }
+    public String getOrderListId() { return orderListId; }
+    public Long getStoreId() { return storeId; }
+    public OrderStatus getOrderStatus() { return orderStatus; }
+    public OrderStatus getPreviousStatus() { return previousStatus; }
+    public Long getOrderAmount() { return orderAmount; }
+    public Long getMealPickupNumber() { return mealPickupNumber; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public LocalDateTime getPickupTime() { return pickupTime; }
+}
@@ -0,0 +1,154 @@
+package com.eatfast.orderlist.event;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 門市訂單看板的推送連線登記表 (Server-Sent Events)。
+ * <p>
+ * 每個門市一組連線集合；訂單異動事件在交易提交後序列化一次，再依序寫到該門市的每一條連線。
+ * SSE 連線使用 Servlet 非同步處理，閒置時不佔用請求執行緒，數百條閒置連線只是集合中的物件。
+ * 定期送出註解行作為心跳，讓代理伺服器不會切斷閒置連線，同時清除已斷線的連線。
+ * 連線只存在於建立它的節點上，多節點部署時其他節點的異動由 {@link StoreOrderStreamRelay} 經 Redis 轉送進來。
+ * </p>
+ */
+@Component
+public class StoreOrderStreamRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreOrderStreamRegistry.class);
+
+    private final Map<Long, Set<SseEmitter>> emittersByStore = new ConcurrentHashMap<>();
+    private final ThreadPoolTaskExecutor orderStreamExecutor;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+
+    public StoreOrderStreamRegistry(@Qualifier("orderStreamExecutor") ThreadPoolTaskExecutor orderStreamExecutor,
+                                    ObjectMapper objectMapper,
+                                    @Value("${app.order-stream.timeout-ms:1800000}") long timeoutMillis) {
+        this.orderStreamExecutor = orderStreamExecutor;
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * 為門市建立一條新的推送連線。連線逾時後瀏覽器的 EventSource 會自動重新連線。
+     * @param storeId 門市 ID
+     * @return 交由 Spring MVC 以非同步方式回應的 SseEmitter
+     */
+    public SseEmitter register(Long storeId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        // compute 對同一門市是原子操作，不會把連線加進剛被心跳清掉的空集合
+        Set<SseEmitter> emitters = emittersByStore.compute(storeId, (k, set) -> {
+            Set<SseEmitter> target = set != null ? set : ConcurrentHashMap.newKeySet();
+            target.add(emitter);
+            return target;
+        });
+
+        Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    // 目前的連線數 (所有門市)
+    public int getConnectionCount() {
+        int count = 0;
+        for (Set<SseEmitter> emitters : emittersByStore.values()) {
+            count += emitters.size();
+        }
+        return count;
+    }
+
+    /**
+     * 訂單異動提交後推送給本節點上該門市的所有連線。
+     * 沒有交易的呼叫 (fallbackExecution) 也會直接推送；其他節點上的連線由 {@link StoreOrderStreamRelay} 轉送。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        Set<SseEmitter> emitters = emittersByStore.get(event.getStoreId());
+        if (emitters == null || emitters.isEmpty()) {
+            return; // 該門市沒有人在看板上，不需序列化
+        }
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.warn("訂單事件序列化失敗 - 訂單: {}, 錯誤: {}", event.getOrderListId(), e.getMessage());
+            return;
+        }
+        deliver(event.getStoreId(), event.getType().getEventName(), payload);
+    }
+
+    /**
+     * 把已序列化的事件寫到本節點上該門市的所有連線。
+     * @param storeId 門市 ID
+     * @param eventName SSE 事件名稱
+     * @param payload 事件內容 (JSON)
+     */
+    public void deliver(Long storeId, String eventName, String payload) {
+        Set<SseEmitter> emitters = emittersByStore.get(storeId);
+        if (emitters == null || emitters.isEmpty()) {
+            return;
+        }
+        dispatch(() -> {
+            for (SseEmitter emitter : emitters) {
+                send(emitters, emitter, SseEmitter.event().name(eventName).data(payload, MediaType.APPLICATION_JSON));
+            }
+        });
+    }
+
+    // 心跳：SSE 註解行，瀏覽器會忽略
+    @Scheduled(fixedDelayString = "${app.order-stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (emittersByStore.isEmpty()) {
+            return;
+        }
+        dispatch(() -> {
+            for (Map.Entry<Long, Set<SseEmitter>> entry : emittersByStore.entrySet()) {
+                Set<SseEmitter> emitters = entry.getValue();
+                for (SseEmitter emitter : emitters) {
+                    send(emitters, emitter, SseEmitter.event().comment("ping"));
+                }
+                emittersByStore.computeIfPresent(entry.getKey(), (k, set) -> set.isEmpty() ? null : set);
+            }
+        });
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            orderStreamExecutor.execute(task);
+        } catch (TaskRejectedException e) {
+            log.warn("訂單看板推送佇列已滿，略過本次推送");
+        }
+    }
+
+    // 寫入失敗代表瀏覽器已斷線，直接移除該連線
+    private static void send(Set<SseEmitter> emitters, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            emitters.remove(emitter);
+            emitter.completeWithError(e);
+        } catch (IllegalStateException e) {
+            emitters.remove(emitter); // 連線已經結束
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.eatfast.orderlist.event;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 門市訂單看板推送的跨節點轉送。
+ * <ul>
+ * <li>本節點的 {@link OrderChangedEvent} 交易提交後，把已序列化的事件發佈到 Redis 頻道。</li>
+ * <li>收到其他節點的事件時，交給 {@link StoreOrderStreamRegistry} 推送給本節點上的連線 (自己發出的略過)。</li>
+ * </ul>
+ * Redis 不可用時遺漏的事件不會補送，看板重新連線或重新整理後即可看到最新狀態。
+ */
+@Component
+public class StoreOrderStreamRelay implements CommandLineRunner, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(StoreOrderStreamRelay.class);
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("eatfast:orderlist:changed");
+
+    // 訊息格式：節點識別碼|門市 ID|事件名稱|事件內容 (JSON)
+    private static final String SEPARATOR = "|";
+
+    // 本節點的識別碼，用來略過自己發出的事件
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final StoreOrderStreamRegistry registry;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.order-stream.redis-sync.enabled:true}")
+    private boolean redisSyncEnabled;
+
+    public StoreOrderStreamRelay(StoreOrderStreamRegistry registry,
+                                 ObjectMapper objectMapper,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 RedisMessageListenerContainer listenerContainer) {
+        this.registry = registry;
+        this.objectMapper = objectMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (redisSyncEnabled) {
+            listenerContainer.addMessageListener(this, CHANNEL);
+        }
+    }
+
+    /**
+     * 訂單異動的交易提交後轉送給其他節點 (不在交易中時立即轉送)。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!redisSyncEnabled) {
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(event);
+            String message = nodeId + SEPARATOR + event.getStoreId() + SEPARATOR
+                    + event.getType().getEventName() + SEPARATOR + payload;
+            stringRedisTemplate.convertAndSend(CHANNEL.getTopic(), message);
+        } catch (JsonProcessingException e) {
+            log.warn("訂單事件序列化失敗 - 訂單: {}, 錯誤: {}", event.getOrderListId(), e.getMessage());
+        } catch (Exception e) {
+            // 其他節點的看板在重新連線後會看到最新狀態
+            log.warn("轉送訂單事件失敗 - 訂單: {}, 錯誤: {}", event.getOrderListId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        // 事件內容是 JSON，可能含有分隔字元，因此只切前三段
+        String[] parts = body.split("\\|", 4);
+        if (parts.length < 4 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            registry.deliver(Long.valueOf(parts[1]), parts[2], parts[3]);
+        } catch (NumberFormatException e) {
+            log.warn("忽略格式錯誤的訂單事件通知: {}", parts[1]);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.eatfast.orderlist.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 自定義例外：所選的取餐時段已額滿時拋出。
+ * 未被捕捉時回傳 HTTP 409 Conflict。
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class PickupSlotFullException extends RuntimeException {
+
+    public PickupSlotFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,16 @@
+package com.eatfast.orderlist.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 自定義例外：所選的取餐時間不在可選擇的時段內 (已過去、來不及備餐或不在今天) 時拋出。
+ * 未被捕捉時回傳 HTTP 400 Bad Request。
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class PickupSlotUnavailableException extends RuntimeException {
+
+    public PickupSlotUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,10 @@
+package com.eatfast.orderlist.model;
+
+/**
+ * 訂單狀態變更的操作者類型 (記錄在 order_status_event)。
+ */
+public enum OrderActorType {
+    EMPLOYEE, // 門市員工 (後台)
+    MEMBER,   // 會員 (前台取消訂單)
+    SYSTEM    // 系統 (例如付款失敗自動取消)
+}
@@ -0,0 +1,47 @@
+package com.eatfast.orderlist.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 單一門市的訂單統計 (後台訂單查詢頁的統計卡片使用)。
+ * <p>
+ * 由 {@code OrderDashboardService} 以一次 GROUP BY 查詢彙總而成，不需要把訂單載入記憶體。
+ * </p>
+ */
+public final class OrderDashboardStats {
+
+    private static final OrderDashboardStats EMPTY = new OrderDashboardStats(new EnumMap<>(OrderStatus.class), 0L);
+
+    private final Map<OrderStatus, Long> countsByStatus;
+    private final long totalCount;
+    private final long todayCount;
+
+    public OrderDashboardStats(Map<OrderStatus, Long> countsByStatus, long todayCount) {
+        EnumMap<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
+        counts.putAll(countsByStatus);
+        long total = 0L;
+        for (Long count : counts.values()) {
+            total += count;
+        }
+        this.countsByStatus = counts;
+        this.totalCount = total;
+        this.todayCount = todayCount;
+    }
+
+    // 沒有登入或沒有所屬門市時使用的全零統計
+    public static OrderDashboardStats empty() {
+        return EMPTY;
+    }
+
+    public long getCount(OrderStatus status) {
+        return countsByStatus.getOrDefault(status, 0L);
+    }
+
+    public long getPendingCount() { return getCount(OrderStatus.PENDING); }
+    public long getConfirmedCount() { return getCount(OrderStatus.CONFIRMED); }
+    public long getCompletedCount() { return getCount(OrderStatus.COMPLETED); }
+    public long getCancelledCount() { return getCount(OrderStatus.CANCELLED); }
+    public long getTotalCount() { return totalCount; }
+    public long getTodayCount() { return todayCount; }
+}
@@ -0,0 +1,59 @@
+package com.eatfast.orderlist.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * 訂單歷史的查詢條件 (狀態與日期區間)，交由資料庫在 SQL 中過濾。
+ * <p>
+ * 未指定的條件以「全部狀態」及涵蓋所有資料的日期邊界表示，
+ * 查詢語句因此固定不變，不需要依條件組合出不同的 JPQL。
+ * </p>
+ */
+public final class OrderHistoryFilter {
+
+    // MySQL DATETIME 可表示的範圍內，作為未指定日期時的邊界
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1000, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final OrderHistoryFilter ALL = new OrderHistoryFilter(EnumSet.allOf(OrderStatus.class), MIN_DATE, MAX_DATE);
+
+    private final Set<OrderStatus> statuses;
+    private final LocalDateTime from;
+    private final LocalDateTime to;
+
+    private OrderHistoryFilter(Set<OrderStatus> statuses, LocalDateTime from, LocalDateTime to) {
+        this.statuses = statuses;
+        this.from = from;
+        this.to = to;
+    }
+
+    public static OrderHistoryFilter all() {
+        return ALL;
+    }
+
+    /**
+     * @param statuses 要包含的訂單狀態，null 或空集合代表全部狀態
+     * @param startDate 起始日期 (含)，可為 null
+     * @param endDate 結束日期 (含當日整天)，可為 null
+     */
+    public static OrderHistoryFilter of(Collection<OrderStatus> statuses, LocalDate startDate, LocalDate endDate) {
+        Set<OrderStatus> included = (statuses == null || statuses.isEmpty())
+                ? EnumSet.allOf(OrderStatus.class)
+                : EnumSet.copyOf(statuses);
+        return new OrderHistoryFilter(included,
+                startDate != null ? startDate.atStartOfDay() : MIN_DATE,
+                endDate != null ? endDate.plusDays(1).atStartOfDay() : MAX_DATE);
+    }
+
+    public Set<OrderStatus> getStatuses() { return statuses; }
+
+    // 訂單日期下限 (含)
+    public LocalDateTime getFrom() { return from; }
+
+    // 訂單日期上限 (不含)
+    public LocalDateTime getTo() { return to; }
+}
@@ -20,7 +20,12 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "order_list")
+// 【新增】複合索引：支援依門市 / 會員 / 狀態以 (order_date, order_list_id) 做 keyset 分頁
+@Table(name = "order_list", indexes = {
+        @Index(name = "idx_order_list_store_date", columnList = "store_id, order_date, order_list_id"),
+        @Index(name = "idx_order_list_member_date", columnList = "member_id, order_date, order_list_id"),
+        @Index(name = "idx_order_list_store_pickup", columnList = "store_id, pickup_time")
+})
 public class OrderListEntity {
 
     @Id
@@ -39,6 +44,16 @@ public class OrderListEntity {
     @Column(name = "order_status", nullable = false)
     private OrderStatus orderStatus;
 
+    // 【新增】付款狀態 (付款改為非同步處理，與出餐流程的 orderStatus 分開記錄；舊資料為 null 視同已付款)
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private PaymentStatus paymentStatus;
+
+    // 【新增】樂觀鎖版本號：同時修改同一筆訂單時，後提交的一方會失敗而不是默默覆蓋 (既有資料預設為 0)
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @Column(name = "meal_pickup_number", nullable = false)
     private Long mealPickupNumber;
 
@@ -72,8 +87,12 @@ public class OrderListEntity {
     public void setOrderAmount(Long orderAmount) { this.orderAmount = orderAmount; }
     public LocalDateTime getOrderDate() { return orderDate; }
     public void setOrderDate(LocalDateTime orderDate) { this.orderDate = orderDate; }
+    public Long getVersion() { return version; }
+    public void setVersion(Long version) { this.version = version; }
     public OrderStatus getOrderStatus() { return orderStatus; }
     public void setOrderStatus(OrderStatus orderStatus) { this.orderStatus = orderStatus; }
+    public PaymentStatus getPaymentStatus() { return paymentStatus; }
+    public void setPaymentStatus(PaymentStatus paymentStatus) { this.paymentStatus = paymentStatus; }
     public Long getMealPickupNumber() { return mealPickupNumber; }
     public void setMealPickupNumber(Long mealPickupNumber) { this.mealPickupNumber = mealPickupNumber; }
     public String getCardNumber() { return cardNumber; }
@@ -0,0 +1,50 @@
+package com.eatfast.orderlist.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 以 keyset (訂單日期 + 訂單編號) 分頁取得的一頁訂單。
+ * <p>
+ * 下一頁從本頁最後一筆的 (orderDate, orderListId) 之後繼續往舊的訂單查詢，
+ * 不使用 OFFSET，因此不論翻到第幾頁，資料庫都只需從索引位置讀取一頁的筆數。
+ * </p>
+ */
+public final class OrderListPage<T> {
+
+    private final List<T> content;
+    private final LocalDateTime nextCursorDate;
+    private final String nextCursorId;
+
+    public OrderListPage(List<T> content, LocalDateTime nextCursorDate, String nextCursorId) {
+        this.content = List.copyOf(content);
+        this.nextCursorDate = nextCursorDate;
+        this.nextCursorId = nextCursorId;
+    }
+
+    /**
+     * 由「多查一筆」的查詢結果建立分頁：結果超過 size 筆代表還有下一頁，
+     * 游標取自本頁最後一筆的 (orderDate, orderListId)。
+     */
+    public static <T> OrderListPage<T> fromRows(List<T> rows, int size,
+                                                Function<T, LocalDateTime> orderDateOf,
+                                                Function<T, String> orderListIdOf) {
+        if (rows.size() <= size) {
+            return new OrderListPage<>(rows, null, null);
+        }
+        List<T> content = rows.subList(0, size);
+        T last = content.get(size - 1);
+        return new OrderListPage<>(content, orderDateOf.apply(last), orderListIdOf.apply(last));
+    }
+
+    public List<T> getContent() { return content; }
+
+    // 下一頁的游標；沒有下一頁時為 null
+    public LocalDateTime getNextCursorDate() { return nextCursorDate; }
+    public String getNextCursorId() { return nextCursorId; }
+
+    public boolean isHasNext() {
+        return nextCursorId != null;
+    }
+}
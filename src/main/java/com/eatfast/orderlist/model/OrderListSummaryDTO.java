@@ -0,0 +1,50 @@
+package com.eatfast.orderlist.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * 後台訂單列表使用的唯讀投影 (projection)。
+ * <p>
+ * 由 JPQL 建構子運算式直接查出列表需要的欄位 (含會員名稱與門市名稱)，
+ * 不會載入訂單實體與其延遲載入的關聯，列表每筆資料不再觸發額外查詢。
+ * </p>
+ */
+public class OrderListSummaryDTO {
+
+    private final String orderListId;
+    private final Long orderAmount;
+    private final LocalDateTime orderDate;
+    private final OrderStatus orderStatus;
+    private final Long mealPickupNumber;
+    private final LocalDateTime pickupTime;
+    private final Long memberId;
+    private final String memberName;
+    private final Long storeId;
+    private final String storeName;
+
+    public OrderListSummaryDTO(String orderListId, Long orderAmount, LocalDateTime orderDate, OrderStatus orderStatus,
+                               Long mealPickupNumber, LocalDateTime pickupTime, Long memberId, String memberName,
+                               Long storeId, String storeName) {
+        this.orderListId = orderListId;
+        this.orderAmount = orderAmount;
+        this.orderDate = orderDate;
+        this.orderStatus = orderStatus;
+        this.mealPickupNumber = mealPickupNumber;
+        this.pickupTime = pickupTime;
+        this.memberId = memberId;
+        this.memberName = memberName;
+        this.storeId = storeId;
+        this.storeName = storeName;
+    }
+
+    public String getOrderListId() { return orderListId; }
+    public Long getOrderAmount() { return orderAmount; }
+    public LocalDateTime getOrderDate() { return orderDate; }
+    public OrderStatus getOrderStatus() { return orderStatus; }
+    public Long getMealPickupNumber() { return mealPickupNumber; }
+    public LocalDateTime getPickupTime() { return pickupTime; }
+    public Long getMemberId() { return memberId; }
+    public String getMemberName() { return memberName; }
+    public Long getStoreId() { return storeId; }
+    public String getStoreName() { return storeName; }
+}
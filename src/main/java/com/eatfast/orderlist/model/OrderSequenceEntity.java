@@ -0,0 +1,40 @@
+package com.eatfast.orderlist.model;
+
+import jakarta.persistence.*;
+
+/**
+ * 訂單編號序號表 (Order Sequence Entity)
+ * <p>
+ * 對應資料庫中的 `order_sequence` 表，每一天一列，記錄當日已配發出去的最大序號。
+ * 作為 Redis 不可用時的訂單編號配號來源 (DB fallback)。
+ * </p>
+ */
+@Entity
+@Table(name = "order_sequence")
+public class OrderSequenceEntity {
+
+    /**
+     * 日期字串 (YYYYMMDD)，即訂單編號的前 8 碼。
+     */
+    @Id
+    @Column(name = "seq_date", length = 8)
+    private String seqDate;
+
+    /**
+     * 當日已配發出去的最大序號 (含)。
+     */
+    @Column(name = "last_value", nullable = false)
+    private Long lastValue;
+
+    public OrderSequenceEntity() {}
+
+    public OrderSequenceEntity(String seqDate, Long lastValue) {
+        this.seqDate = seqDate;
+        this.lastValue = lastValue;
+    }
+
+    public String getSeqDate() { return seqDate; }
+    public void setSeqDate(String seqDate) { this.seqDate = seqDate; }
+    public Long getLastValue() { return lastValue; }
+    public void setLastValue(Long lastValue) { this.lastValue = lastValue; }
+}
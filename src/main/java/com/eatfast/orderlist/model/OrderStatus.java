@@ -21,4 +21,14 @@ public enum OrderStatus {
     public String getDisplayName() {
         return displayName;
     }
+
+    // 4. 【新增】訂單狀態機規則：已完成與已取消為終止狀態，不可再變更
+    public boolean isTerminal() {
+        return this == COMPLETED || this == CANCELLED;
+    }
+
+    // 【新增】是否允許從目前狀態轉換到目標狀態 (終止狀態不可再變更，也不可轉換成相同狀態)
+    public boolean canTransitionTo(OrderStatus target) {
+        return !isTerminal() && target != null && target != this;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,69 @@
+package com.eatfast.orderlist.model;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+/**
+ * 訂單狀態變更紀錄 (Order Status Event Entity)
+ * <p>
+ * 對應 `order_status_event` 表，只新增不修改 (append-only)：
+ * 每次狀態轉換都與訂單的條件式 UPDATE 在同一個交易中寫入一列，作為稽核軌跡。
+ * </p>
+ */
+@Entity
+@Immutable
+@Table(name = "order_status_event", indexes = {
+        @Index(name = "idx_order_status_event_order", columnList = "order_list_id, event_id")
+})
+public class OrderStatusEventEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "event_id")
+    private Long eventId;
+
+    @Column(name = "order_list_id", nullable = false, length = 20)
+    private String orderListId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", nullable = false, length = 20)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 20)
+    private OrderStatus toStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "actor_type", nullable = false, length = 20)
+    private OrderActorType actorType;
+
+    // 員工 ID 或會員 ID；系統操作為 null
+    @Column(name = "actor_id")
+    private Long actorId;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    protected OrderStatusEventEntity() {}
+
+    public OrderStatusEventEntity(String orderListId, OrderStatus fromStatus, OrderStatus toStatus,
+                                  OrderActorType actorType, Long actorId) {
+        this.orderListId = orderListId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.actorType = actorType;
+        this.actorId = actorId;
+    }
+
+    public Long getEventId() { return eventId; }
+    public String getOrderListId() { return orderListId; }
+    public OrderStatus getFromStatus() { return fromStatus; }
+    public OrderStatus getToStatus() { return toStatus; }
+    public OrderActorType getActorType() { return actorType; }
+    public Long getActorId() { return actorId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,22 @@
+package com.eatfast.orderlist.model;
+
+/**
+ * 訂單付款狀態 - 與 OrderStatus (出餐流程) 分開記錄，
+ * 付款改為非同步處理後，訂單建立時為 AWAITING，由付款閘道回覆後轉為 PAID 或 FAILED。
+ */
+public enum PaymentStatus {
+
+    AWAITING("付款處理中"),
+    PAID("已付款"),
+    FAILED("付款失敗");
+
+    private final String displayName;
+
+    PaymentStatus(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,36 @@
+package com.eatfast.orderlist.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * 門市取餐時段 (供付款頁選擇取餐時間)。
+ * 每個時段有固定的訂單容量，已預約數達到容量後即不再接受該時段的訂單。
+ */
+public final class PickupSlot {
+
+    private final LocalDateTime start;
+    private final String time;
+    private final int capacity;
+    private final long reserved;
+
+    public PickupSlot(LocalDateTime start, String time, int capacity, long reserved) {
+        this.start = start;
+        this.time = time;
+        this.capacity = capacity;
+        this.reserved = reserved;
+    }
+
+    // 時段開始時間
+    public LocalDateTime getStart() { return start; }
+
+    // 顯示用時間 (HH:mm)，也是送回結帳的取餐時間值
+    public String getTime() { return time; }
+
+    public int getCapacity() { return capacity; }
+
+    public long getReserved() { return reserved; }
+
+    public long getRemaining() { return Math.max(capacity - reserved, 0); }
+
+    public boolean isAvailable() { return reserved < capacity; }
+}
@@ -8,40 +8,153 @@ package com.eatfast.orderlist.repository;
 
 import com.eatfast.member.model.MemberEntity;
 import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderListSummaryDTO;
 import com.eatfast.orderlist.model.OrderStatus; // 【新】引入 OrderStatus Enum
 import com.eatfast.store.model.StoreEntity; // 【新增】引入 StoreEntity
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderListRepository extends JpaRepository<OrderListEntity, String> {
     
-    // 【修正】: 參數型別從 Long 改為 OrderStatus Enum，與 Entity 保持一致。
-    List<OrderListEntity> findByOrderStatus(OrderStatus orderStatus);
-
-    List<OrderListEntity> findByMemberOrderByOrderDateDesc(MemberEntity member);
-
     // 【修正】: 參數型別從 Long 改為 OrderStatus Enum。
     List<OrderListEntity> findByMemberAndOrderStatus(MemberEntity member, OrderStatus orderStatus);
     
-    // 【新增】根據會員ID查詢訂單並按日期降序排列 - 解決 ERR_INCOMPLETE_CHUNKED_ENCODING 錯誤
-    List<OrderListEntity> findByMemberMemberIdOrderByOrderDateDesc(Long memberId);
-    
     // 【新增】根據會員ID和訂單狀態查詢訂單
     List<OrderListEntity> findByMemberMemberIdAndOrderStatus(Long memberId, OrderStatus orderStatus);
     
-    // 【新增】按門市過濾訂單的方法
-    List<OrderListEntity> findByStoreOrderByOrderDateDesc(StoreEntity store);
-    
-    // 【新增】按門市ID過濾訂單的方法
-    List<OrderListEntity> findByStore_StoreIdOrderByOrderDateDesc(Long storeId);
-    
     // 【新增】按門市和訂單狀態過濾的方法
     List<OrderListEntity> findByStoreAndOrderStatus(StoreEntity store, OrderStatus orderStatus);
     
     // 【新增】根據訂單編號前綴查詢最大訂單編號
     Optional<OrderListEntity> findTopByOrderListIdStartingWithOrderByOrderListIdDesc(String prefix);
-}
\ No newline at end of file
+
+    // 【新增】門市訂單統計：依狀態分組計數，並同時計算指定時間區間 (今日) 內的筆數
+    // 回傳 [orderStatus, 筆數, 今日筆數]
+    @Query("SELECT o.orderStatus, COUNT(o), "
+            + "SUM(CASE WHEN o.orderDate >= :from AND o.orderDate < :to THEN 1 ELSE 0 END) "
+            + "FROM OrderListEntity o WHERE o.store.storeId = :storeId GROUP BY o.orderStatus")
+    List<Object[]> countByStatusForStore(@Param("storeId") Long storeId,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    // 【新增】門市訂單 keyset 分頁 - 第一頁 (直接查出列表用的投影，不載入實體與關聯)
+    @Query("SELECT new com.eatfast.orderlist.model.OrderListSummaryDTO("
+            + "o.orderListId, o.orderAmount, o.orderDate, o.orderStatus, o.mealPickupNumber, o.pickupTime, "
+            + "m.memberId, m.username, s.storeId, s.storeName) "
+            + "FROM OrderListEntity o JOIN o.member m JOIN o.store s "
+            + "WHERE s.storeId = :storeId "
+            + "ORDER BY o.orderDate DESC, o.orderListId DESC")
+    List<OrderListSummaryDTO> findStoreSummaryPage(@Param("storeId") Long storeId, Pageable pageable);
+
+    // 【新增】門市訂單 keyset 分頁 - 從游標 (上一頁最後一筆) 之後繼續
+    @Query("SELECT new com.eatfast.orderlist.model.OrderListSummaryDTO("
+            + "o.orderListId, o.orderAmount, o.orderDate, o.orderStatus, o.mealPickupNumber, o.pickupTime, "
+            + "m.memberId, m.username, s.storeId, s.storeName) "
+            + "FROM OrderListEntity o JOIN o.member m JOIN o.store s "
+            + "WHERE s.storeId = :storeId "
+            + "AND (o.orderDate < :cursorDate OR (o.orderDate = :cursorDate AND o.orderListId < :cursorId)) "
+            + "ORDER BY o.orderDate DESC, o.orderListId DESC")
+    List<OrderListSummaryDTO> findStoreSummaryPageAfter(@Param("storeId") Long storeId,
+                                                        @Param("cursorDate") LocalDateTime cursorDate,
+                                                        @Param("cursorId") String cursorId,
+                                                        Pageable pageable);
+
+    // 【新增】會員訂單 keyset 分頁 - 第一頁 (狀態與日期區間條件在 SQL 中過濾)
+    @Query("SELECT o FROM OrderListEntity o JOIN FETCH o.store "
+            + "WHERE o.member.memberId = :memberId AND o.orderStatus IN :statuses "
+            + "AND o.orderDate >= :from AND o.orderDate < :to "
+            + "ORDER BY o.orderDate DESC, o.orderListId DESC")
+    List<OrderListEntity> findMemberPage(@Param("memberId") Long memberId,
+                                         @Param("statuses") Collection<OrderStatus> statuses,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         Pageable pageable);
+
+    // 【新增】會員訂單 keyset 分頁 - 從游標之後繼續
+    @Query("SELECT o FROM OrderListEntity o JOIN FETCH o.store "
+            + "WHERE o.member.memberId = :memberId AND o.orderStatus IN :statuses "
+            + "AND o.orderDate >= :from AND o.orderDate < :to "
+            + "AND (o.orderDate < :cursorDate OR (o.orderDate = :cursorDate AND o.orderListId < :cursorId)) "
+            + "ORDER BY o.orderDate DESC, o.orderListId DESC")
+    List<OrderListEntity> findMemberPageAfter(@Param("memberId") Long memberId,
+                                              @Param("statuses") Collection<OrderStatus> statuses,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to,
+                                              @Param("cursorDate") LocalDateTime cursorDate,
+                                              @Param("cursorId") String cursorId,
+                                              Pageable pageable);
+
+    // 【新增】一次載入多筆訂單的明細與餐點 (entity graph)，供分頁後補齊顯示所需的關聯
+    @EntityGraph(attributePaths = {"orderListInfos", "orderListInfos.meal"})
+    @Query("SELECT o FROM OrderListEntity o WHERE o.orderListId IN :orderListIds")
+    List<OrderListEntity> findWithDetailsByOrderListIdIn(@Param("orderListIds") Collection<String> orderListIds);
+
+    // 【新增】會員訂單統計 (與分頁相同的條件)：回傳 [orderStatus, 筆數, 金額合計]
+    @Query("SELECT o.orderStatus, COUNT(o), COALESCE(SUM(o.orderAmount), 0) FROM OrderListEntity o "
+            + "WHERE o.member.memberId = :memberId AND o.orderStatus IN :statuses "
+            + "AND o.orderDate >= :from AND o.orderDate < :to "
+            + "GROUP BY o.orderStatus")
+    List<Object[]> summarizeMemberOrders(@Param("memberId") Long memberId,
+                                         @Param("statuses") Collection<OrderStatus> statuses,
+                                         @Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to);
+
+    /**
+     * 【新增】訂單狀態的條件式更新 (compare-and-set)。
+     * 只有在狀態仍為 expectedStatus 時才會更新，並同時遞增版本號；
+     * 回傳 0 代表訂單已被其他請求先行變更，呼叫端應視為併發衝突。
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE OrderListEntity o SET o.orderStatus = :newStatus, o.version = o.version + 1 "
+            + "WHERE o.orderListId = :orderListId AND o.orderStatus = :expectedStatus")
+    int compareAndSetStatus(@Param("orderListId") String orderListId,
+                            @Param("expectedStatus") OrderStatus expectedStatus,
+                            @Param("newStatus") OrderStatus newStatus);
+
+    // 【新增】門市某個取餐時段內的有效訂單數 (不含已取消)，作為取餐時段容量的計數來源
+    @Query("SELECT COUNT(o) FROM OrderListEntity o "
+            + "WHERE o.store.storeId = :storeId AND o.pickupTime >= :from AND o.pickupTime < :to "
+            + "AND o.orderStatus <> com.eatfast.orderlist.model.OrderStatus.CANCELLED")
+    long countActiveByPickupWindow(@Param("storeId") Long storeId,
+                                   @Param("from") LocalDateTime from,
+                                   @Param("to") LocalDateTime to);
+
+    // 【新增】門市一段時間內有效訂單的取餐時間 (不含已取消)，由呼叫端依時段分組計數
+    @Query("SELECT o.pickupTime FROM OrderListEntity o "
+            + "WHERE o.store.storeId = :storeId AND o.pickupTime >= :from AND o.pickupTime < :to "
+            + "AND o.orderStatus <> com.eatfast.orderlist.model.OrderStatus.CANCELLED")
+    List<LocalDateTime> findActivePickupTimes(@Param("storeId") Long storeId,
+                                              @Param("from") LocalDateTime from,
+                                              @Param("to") LocalDateTime to);
+
+    // 【新增】門市某一天仍在處理中 (未完成、未取消) 的訂單所使用的取餐號碼
+    @Query("SELECT o.mealPickupNumber FROM OrderListEntity o "
+            + "WHERE o.store.storeId = :storeId AND o.orderDate >= :from AND o.orderDate < :to "
+            + "AND o.mealPickupNumber IS NOT NULL "
+            + "AND o.orderStatus NOT IN (com.eatfast.orderlist.model.OrderStatus.COMPLETED, "
+            + "com.eatfast.orderlist.model.OrderStatus.CANCELLED)")
+    List<Long> findActivePickupNumbers(@Param("storeId") Long storeId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    // 【新增】門市某一天最近發出的取餐號碼 (依訂單日期由新到舊，搭配 PageRequest.of(0, 1) 只取一筆)
+    @Query("SELECT o.mealPickupNumber FROM OrderListEntity o "
+            + "WHERE o.store.storeId = :storeId AND o.orderDate >= :from AND o.orderDate < :to "
+            + "AND o.mealPickupNumber IS NOT NULL "
+            + "ORDER BY o.orderDate DESC, o.orderListId DESC")
+    List<Long> findLatestPickupNumbers(@Param("storeId") Long storeId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to,
+                                       Pageable pageable);
+}
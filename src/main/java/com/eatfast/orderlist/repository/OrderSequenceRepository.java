@@ -0,0 +1,20 @@
+package com.eatfast.orderlist.repository;
+
+import com.eatfast.orderlist.model.OrderSequenceEntity;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface OrderSequenceRepository extends JpaRepository<OrderSequenceEntity, String> {
+
+    // 以悲觀鎖 (SELECT ... FOR UPDATE) 讀取當日序號列，確保多節點同時配號時不會重複
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM OrderSequenceEntity s WHERE s.seqDate = :seqDate")
+    Optional<OrderSequenceEntity> findForUpdate(@Param("seqDate") String seqDate);
+}
@@ -0,0 +1,14 @@
+package com.eatfast.orderlist.repository;
+
+import com.eatfast.orderlist.model.OrderStatusEventEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderStatusEventRepository extends JpaRepository<OrderStatusEventEntity, Long> {
+
+    // 單一訂單的狀態變更歷程 (依發生順序)
+    List<OrderStatusEventEntity> findByOrderListIdOrderByEventIdAsc(String orderListId);
+}
@@ -0,0 +1,175 @@
+package com.eatfast.orderlist.service;
+
+import com.eatfast.orderlist.model.OrderSequenceEntity;
+import com.eatfast.orderlist.repository.OrderSequenceRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 訂單編號配號服務 (YYYYMMDDNNNN)。
+ * <p>
+ * 取代原本「先查當日最大編號、再逐一 existsById 探測」的做法：
+ * 每個節點一次向原子儲存區預留一整段 (block) 當日序號，之後在記憶體內逐一發放，
+ * 因此結帳熱路徑上不需要任何 Repository 讀取。
+ * </p>
+ * <ul>
+ * <li>Redis 每日一把 key (order:seq:YYYYMMDD)，以 Lua 腳本原子地 INCRBY 一整段。</li>
+ * <li>`order_sequence` 表每日一列，記錄所有節點、所有來源已預留的最大序號。</li>
+ * </ul>
+ * 兩個來源必須一致，否則一個節點改走資料庫時，會從沒看過其他節點 Redis 區段的序號表重新配號而發出重複編號。
+ * 因此每次預留都在同一個資料庫交易中鎖定當日序號列 (SELECT ... FOR UPDATE)：
+ * <ul>
+ * <li>Redis 可用時，以序號列的值作為下限 (每次都墊高，不只是當日第一次) 向 Redis 預留，再把區段結尾寫回序號列。</li>
+ * <li>Redis 不可用時，直接從序號列往上預留；Redis 恢復後的第一次預留會以序號列墊高 Redis key。</li>
+ * </ul>
+ * 序號列因此永遠不小於任何已發出的序號，且兩種預留都在同一把列鎖下依序進行，不會重疊。
+ * 每個區段只需一次鎖定，區段內的編號仍然只在記憶體內遞增。
+ */
+@Service
+public class OrderIdSequenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdSequenceService.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String REDIS_KEY_PREFIX = "order:seq:";
+    private static final long REDIS_KEY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(2);
+
+    /**
+     * KEYS[1] = 當日序號 key
+     * ARGV[1] = 本次預留的區段大小
+     * ARGV[2] = 下限 (floor)：序號表已記錄的最大序號
+     * ARGV[3] = TTL (秒)
+     * 回傳值 = 本次預留區段的最後一個序號 (含)
+     */
+    private static final DefaultRedisScript<Long> RESERVE_BLOCK_SCRIPT = new DefaultRedisScript<>(
+            "local cur = tonumber(redis.call('GET', KEYS[1]) or '0') " +
+            "local floor = tonumber(ARGV[2]) " +
+            "if cur < floor then " +
+            "  redis.call('SET', KEYS[1], floor) " +
+            "end " +
+            "local v = redis.call('INCRBY', KEYS[1], ARGV[1]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[3]) " +
+            "return v",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderSequenceRepository orderSequenceRepository;
+    private final OrderListService orderListService;
+    private final TransactionTemplate requiresNewTx;
+
+    @Value("${app.order-id.block-size:20}")
+    private int blockSize;
+
+    // 目前持有的區段：[nextValue, endValue]，皆屬於 currentDate 這一天
+    private String currentDate;
+    private long nextValue;
+    private long endValue;
+    // 本節點在 currentDate 已知的最高水位 (任一來源配發過的最大序號)
+    private long highWater = -1;
+
+    public OrderIdSequenceService(StringRedisTemplate stringRedisTemplate,
+                                  OrderSequenceRepository orderSequenceRepository,
+                                  OrderListService orderListService,
+                                  PlatformTransactionManager transactionManager) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.orderSequenceRepository = orderSequenceRepository;
+        this.orderListService = orderListService;
+        this.requiresNewTx = new TransactionTemplate(transactionManager);
+        this.requiresNewTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 取得下一個訂單編號 (YYYYMMDDNNNN)。
+     * 區段未用完時只在記憶體內遞增，不會有任何網路往返。
+     * @return 全域唯一的訂單編號
+     */
+    public synchronized String nextOrderId() {
+        String today = LocalDate.now().format(DATE_FORMAT);
+        if (!today.equals(currentDate)) {
+            currentDate = today;
+            nextValue = 1;
+            endValue = 0;
+            highWater = -1;
+        }
+        if (nextValue > endValue) {
+            long end = reserveBlock(today);
+            nextValue = end - blockSize + 1;
+            endValue = end;
+            highWater = Math.max(highWater, end);
+        }
+        long sequence = nextValue++;
+        return today + String.format("%04d", sequence);
+    }
+
+    // 預留一整段序號，回傳該段最後一個序號
+    private long reserveBlock(String date) {
+        try {
+            return requiresNewTx.execute(status -> reserveBlockInTx(date));
+        } catch (DataIntegrityViolationException e) {
+            // 其他節點同時建立了當日序號列，重試一次即可取得鎖
+            return requiresNewTx.execute(status -> reserveBlockInTx(date));
+        }
+    }
+
+    private long reserveBlockInTx(String date) {
+        OrderSequenceEntity row = orderSequenceRepository.findForUpdate(date)
+                .orElseGet(() -> new OrderSequenceEntity(date, resolveFloor(date)));
+        long floor = Math.max(row.getLastValue(), Math.max(highWater, 0));
+        long end;
+        try {
+            end = reserveFromRedis(date, floor);
+        } catch (Exception e) {
+            log.warn("Redis 訂單序號配號失敗，改由資料庫序號表配號 - date: {}, 錯誤: {}", date, e.getMessage());
+            end = floor + blockSize;
+        }
+        // 區段結尾寫回序號列，之後任何節點 (不論走哪個來源) 都會以此為下限
+        row.setLastValue(end);
+        orderSequenceRepository.saveAndFlush(row);
+        return end;
+    }
+
+    private long reserveFromRedis(String date, long floor) {
+        Long end = stringRedisTemplate.execute(RESERVE_BLOCK_SCRIPT, List.of(REDIS_KEY_PREFIX + date),
+                String.valueOf(blockSize), String.valueOf(floor), String.valueOf(REDIS_KEY_TTL_SECONDS));
+        if (end == null) {
+            throw new IllegalStateException("Redis 未回傳序號");
+        }
+        return end;
+    }
+
+    // 當日序號列尚不存在時的起始值：取已存在的訂單、Redis key 與本節點水位的最大值 (每日只會執行一次)
+    private long resolveFloor(String date) {
+        long floor = Math.max(highWater, 0);
+        String maxOrderId = orderListService.findMaxOrderIdByDatePrefix(date);
+        if (maxOrderId != null && maxOrderId.length() > 8) {
+            try {
+                floor = Math.max(floor, Long.parseLong(maxOrderId.substring(8)));
+            } catch (NumberFormatException e) {
+                // 非標準格式的編號不影響下限
+            }
+        }
+        try {
+            // Redis 上可能有已預留但尚未使用的區段 (例如序號列建立前就存在的 key)
+            String redisValue = stringRedisTemplate.opsForValue().get(REDIS_KEY_PREFIX + date);
+            if (redisValue != null) {
+                floor = Math.max(floor, Long.parseLong(redisValue));
+            }
+        } catch (Exception e) {
+            log.warn("讀取 Redis 訂單序號失敗 - date: {}, 錯誤: {}", date, e.getMessage());
+        }
+        return floor;
+    }
+}
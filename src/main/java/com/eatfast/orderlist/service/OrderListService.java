@@ -7,21 +7,32 @@
  * 1. 遵循最佳實踐: 改用建構子注入，並使用 Spring 的 @Transactional。
  * 2. 強化更新邏輯: `updateOrderStatus` 方法加入了對「當前狀態」的檢查，防止不合法的狀態轉換。
  * 3. 型別安全: 所有與訂單狀態相關的操作，都改用 OrderStatus Enum，避免使用「魔法數字」。
- * 4. 新增方法: 加入 `getOrdersByMemberId` 方法，讓 Controller 可以直接透過 ID 查詢。
+ * 4. 列表查詢: 會員與門市的訂單列表一律走分頁 / keyset 查詢，不提供一次載入全部歷史訂單的方法。
  */
 package com.eatfast.orderlist.service;
 
-import com.eatfast.member.model.MemberEntity;
 import com.eatfast.member.repository.MemberRepository;
+import com.eatfast.orderlist.event.OrderChangedEvent;
+import com.eatfast.orderlist.model.OrderActorType;
 import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderListPage;
+import com.eatfast.orderlist.model.OrderListSummaryDTO;
 import com.eatfast.orderlist.model.OrderStatus;
+import com.eatfast.orderlist.model.OrderStatusEventEntity;
+import com.eatfast.orderlist.model.PaymentStatus;
 import com.eatfast.orderlist.repository.OrderListRepository;
-import com.eatfast.store.model.StoreEntity; // 【新增】引入 StoreEntity
+import com.eatfast.orderlist.repository.OrderStatusEventRepository;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Collections;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -30,71 +41,179 @@ import java.util.Optional;
 public class OrderListService {
 
 	private final OrderListRepository orderListRepository;
-	private final MemberRepository memberRepository; // 【新】為了 getOrdersByMemberId 而依賴
+	private final MemberRepository memberRepository; // 建立訂單時取得會員參考
+	private final EntityManager entityManager;
+	private final ApplicationEventPublisher eventPublisher; // 【新增】訂單異動事件 (門市看板推送)
+	private final OrderStatusEventRepository orderStatusEventRepository; // 【新增】狀態異動紀錄
+	private final PickupNumberAllocator pickupNumberAllocator; // 【新增】取餐號碼配號
 
 	// 【優化】: 改用建構子注入。
-	public OrderListService(OrderListRepository orderListRepository, MemberRepository memberRepository) {
+	public OrderListService(OrderListRepository orderListRepository, MemberRepository memberRepository,
+			EntityManager entityManager, ApplicationEventPublisher eventPublisher,
+			OrderStatusEventRepository orderStatusEventRepository, PickupNumberAllocator pickupNumberAllocator) {
 		this.orderListRepository = orderListRepository;
 		this.memberRepository = memberRepository;
+		this.entityManager = entityManager;
+		this.eventPublisher = eventPublisher;
+		this.orderStatusEventRepository = orderStatusEventRepository;
+		this.pickupNumberAllocator = pickupNumberAllocator;
 	}
 
 	@Transactional
 	public OrderListEntity createOrder(OrderListEntity order) {
-		// 【優化】: 儲存前，應先從資料庫撈取真實的 Member 和 Store 實體並設定回去，
-		// 避免傳入的 order 物件中含有不完整的 detached entity。
-		var member = memberRepository.findById(order.getMember().getMemberId())
-				.orElseThrow(() -> new EntityNotFoundException("建立訂單失敗：找不到會員 ID " + order.getMember().getMemberId()));
-		// (此處省略 StoreRepository 的注入與驗證，但真實專案中應一併加入)
-
-		order.setMember(member);
-		// order.setStore(store);
+		// 【優化】: 不再重新查詢會員；呼叫端已確認過會員身分，這裡只需以 getReferenceById
+		// 取得代理物件 (proxy) 作為外鍵關聯即可，不會產生額外的 SELECT。
+		order.setMember(memberRepository.getReferenceById(order.getMember().getMemberId()));
 
 		// 在 Service 中設定初始狀態，確保一致性
 		order.setOrderStatus(OrderStatus.PENDING);
 
-		return orderListRepository.save(order);
+		// 訂單編號由應用程式指定，直接 persist 可避免 save() 走 merge 路徑先 SELECT 一次；
+		// 立即 flush 讓同一交易中後續以 JDBC 批次寫入的訂單明細能參照到此訂單。
+		entityManager.persist(order);
+		orderListRepository.flush();
+		eventPublisher.publishEvent(OrderChangedEvent.created(order)); // 交易提交後才推送
+		return order;
+	}
+
+	/**
+	 * 【新增】為門市今天的新訂單配發取餐號碼 (1 ~ 上限循環)。
+	 * 同一門市處理中的訂單號碼不會重複；已完成或已取消訂單的號碼會在循環回來時重新使用。
+	 * 須在建立訂單的交易中呼叫，交易回滾時號碼會自動歸還。
+	 * @param storeId 門市 ID
+	 * @return 取餐號碼
+	 */
+	@Transactional
+	public Long allocatePickupNumber(Long storeId) {
+		return pickupNumberAllocator.allocate(storeId, LocalDate.now());
 	}
 
 	public Optional<OrderListEntity> getOrderById(String orderId) {
 		return orderListRepository.findById(orderId);
 	}
 
-	// 【優化】: 讓 Controller 可以直接透過 ID 查詢，而無需先取得 MemberEntity 物件。
-	public List<OrderListEntity> getOrdersByMemberId(Long memberId) {
-		return memberRepository.findById(memberId).map(orderListRepository::findByMemberOrderByOrderDateDesc)
-				.orElse(Collections.emptyList());
+	/**
+	 * 【核心邏輯重構】更新訂單狀態，並加入業務規則驗證。
+	 * 所有狀態變更都經過同一個狀態機 ({@link #transition})，並在同一交易中寫入狀態異動紀錄。
+	 * @param actorType 操作者類型 (員工 / 會員 / 系統)
+	 * @param actorId 操作者 ID，系統操作時為 null
+	 */
+	@Transactional
+	public OrderListEntity updateOrderStatus(String orderId, OrderStatus newStatus, OrderActorType actorType, Long actorId) {
+		OrderListEntity order = orderListRepository.findById(orderId)
+				.orElseThrow(() -> new EntityNotFoundException("找不到訂單，ID: " + orderId));
+		return transition(order, newStatus, actorType, actorId);
 	}
 
 	/**
-	 * 【核心邏輯重構】更新訂單狀態，並加入業務規則驗證。
+	 * 【新增】會員取消自己的訂單，只有待處理 (PENDING) 的訂單可以取消。
+	 * 訂單不存在或不屬於該會員時一律視為找不到，不透露訂單是否存在。
 	 */
 	@Transactional
-	public OrderListEntity updateOrderStatus(String orderId, OrderStatus newStatus) {
+	public OrderListEntity cancelByMember(String orderId, Long memberId) {
 		OrderListEntity order = orderListRepository.findById(orderId)
+				.filter(o -> o.getMember().getMemberId().equals(memberId)) // 代理物件取得主鍵不會觸發查詢
 				.orElseThrow(() -> new EntityNotFoundException("找不到訂單，ID: " + orderId));
+		if (order.getOrderStatus() != OrderStatus.PENDING) {
+			throw new IllegalStateException("只有待處理的訂單可以取消。");
+		}
+		return transition(order, OrderStatus.CANCELLED, OrderActorType.MEMBER, memberId);
+	}
 
-		// 【優化】: 加入狀態轉換的業務規則檢查。
-		// 例如：已完成或已取消的訂單，不允許再變更回其他狀態。
-		if (order.getOrderStatus() == OrderStatus.COMPLETED || order.getOrderStatus() == OrderStatus.CANCELLED) {
-			throw new IllegalStateException("無法更新一個已完成或已取消的訂單。");
+	/**
+	 * 【新增】記錄非同步付款的結果。
+	 * 付款失敗的訂單會一併標記為已取消，避免出現在門市的待處理清單中。
+	 * @param orderId 訂單編號
+	 * @param paymentStatus PAID 或 FAILED
+	 */
+	@Transactional
+	public OrderListEntity recordPaymentResult(String orderId, PaymentStatus paymentStatus) {
+		OrderListEntity order = orderListRepository.findById(orderId)
+				.orElseThrow(() -> new EntityNotFoundException("找不到訂單，ID: " + orderId));
+
+		order.setPaymentStatus(paymentStatus);
+		OrderListEntity saved = orderListRepository.save(order);
+		if (paymentStatus == PaymentStatus.FAILED && !saved.getOrderStatus().isTerminal()) {
+			return transition(saved, OrderStatus.CANCELLED, OrderActorType.SYSTEM, null);
+		}
+		return saved;
+	}
+
+	/**
+	 * 訂單狀態機：驗證轉換規則後以條件式 UPDATE 寫入新狀態，
+	 * 再於同一交易中新增一筆狀態異動紀錄並發佈事件。
+	 * 以讀取時的狀態作為更新條件，兩個請求同時變更同一張訂單時只有一個會成功，
+	 * 另一個會收到 OptimisticLockingFailureException，不會互相覆蓋。
+	 */
+	private OrderListEntity transition(OrderListEntity order, OrderStatus newStatus, OrderActorType actorType, Long actorId) {
+		OrderStatus previousStatus = order.getOrderStatus();
+		if (!previousStatus.canTransitionTo(newStatus)) {
+			throw new IllegalStateException(previousStatus.isTerminal()
+					? "無法更新一個已完成或已取消的訂單。"
+					: "訂單狀態已是「" + previousStatus.getDisplayName() + "」。");
+		}
+
+		int updated = orderListRepository.compareAndSetStatus(order.getOrderListId(), previousStatus, newStatus);
+		if (updated == 0) {
+			throw new OptimisticLockingFailureException("訂單已被其他人更新，請重新整理後再試。ID: " + order.getOrderListId());
 		}
+		orderStatusEventRepository.save(
+				new OrderStatusEventEntity(order.getOrderListId(), previousStatus, newStatus, actorType, actorId));
 
+		// 條件式 UPDATE 會清除持久化環境，這裡同步更新 (已脫離管理的) 實體作為回傳值與事件內容
 		order.setOrderStatus(newStatus);
-		return orderListRepository.save(order);
+		if (order.getVersion() != null) {
+			order.setVersion(order.getVersion() + 1);
+		}
+		eventPublisher.publishEvent(OrderChangedEvent.statusChanged(order, previousStatus));
+		return order;
 	}
 
-	public List<OrderListEntity> findAll() {
-		return orderListRepository.findAll();
+	/**
+	 * 【新增】以 keyset 分頁查詢門市訂單 (依訂單日期、訂單編號由新到舊)。
+	 * 取代原本一次載入門市全部歷史訂單的 findByStoreId；回傳列表用的投影而非實體。
+	 * @param storeId 門市 ID
+	 * @param cursorDate 上一頁最後一筆的訂單日期；查詢第一頁時為 null
+	 * @param cursorId 上一頁最後一筆的訂單編號；查詢第一頁時為 null
+	 * @param size 每頁筆數
+	 */
+	public OrderListPage<OrderListSummaryDTO> findStorePage(Long storeId, LocalDateTime cursorDate, String cursorId, int size) {
+		Pageable limit = limitOf(size);
+		List<OrderListSummaryDTO> rows = isFirstPage(cursorDate, cursorId)
+				? orderListRepository.findStoreSummaryPage(storeId, limit)
+				: orderListRepository.findStoreSummaryPageAfter(storeId, cursorDate, cursorId, limit);
+		return OrderListPage.fromRows(rows, size, OrderListSummaryDTO::getOrderDate, OrderListSummaryDTO::getOrderListId);
+	}
+
+	// 多查一筆用來判斷是否還有下一頁，不需要額外的 COUNT 查詢
+	private static Pageable limitOf(int size) {
+		return PageRequest.of(0, size + 1);
 	}
 
-	// 【新增】按門市過濾訂單的方法
-	public List<OrderListEntity> findByStore(StoreEntity store) {
-		return orderListRepository.findByStoreOrderByOrderDateDesc(store);
+	private static boolean isFirstPage(LocalDateTime cursorDate, String cursorId) {
+		return cursorDate == null || cursorId == null;
 	}
 
-	// 【新增】按門市ID過濾訂單的方法
-	public List<OrderListEntity> findByStoreId(Long storeId) {
-		return orderListRepository.findByStore_StoreIdOrderByOrderDateDesc(storeId);
+	/**
+	 * 【新增】員工修改訂單：金額、取餐號碼與狀態在同一交易中更新。
+	 * 狀態有變更時經過狀態機 ({@link #transition})；轉換被拒絕時拋出例外，欄位修改一併回滾。
+	 * @param newStatus 表單選擇的狀態，與目前狀態相同 (或為 null) 時不變更
+	 * @param employeeId 操作的員工 ID
+	 * @throws IllegalStateException 不允許的狀態轉換
+	 * @throws OptimisticLockingFailureException 訂單已被其他人更新
+	 */
+	@Transactional
+	public OrderListEntity updateOrderByEmployee(String orderId, Long orderAmount, Long mealPickupNumber,
+			OrderStatus newStatus, Long employeeId) {
+		OrderListEntity order = orderListRepository.findById(orderId)
+				.orElseThrow(() -> new EntityNotFoundException("找不到訂單，ID: " + orderId));
+		order.setOrderAmount(orderAmount);
+		order.setMealPickupNumber(mealPickupNumber);
+		OrderListEntity saved = orderListRepository.save(order);
+		if (newStatus != null && newStatus != saved.getOrderStatus()) {
+			return transition(saved, newStatus, OrderActorType.EMPLOYEE, employeeId);
+		}
+		return saved;
 	}
 
 	@Transactional
@@ -0,0 +1,289 @@
+package com.eatfast.orderlist.service;
+
+import com.eatfast.orderlist.event.OrderChangedEvent;
+import com.eatfast.orderlist.repository.OrderListRepository;
+import com.eatfast.store.repository.StoreRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 門市取餐號碼配號器 (每門市、每天 1 ~ max 循環)。
+ * <p>
+ * 取代原本「會員手機末三碼」的做法 (同一時段常有兩位顧客拿到相同號碼)。
+ * 號碼依序遞增，到達上限後從 1 重新開始；重新使用前會跳過仍在處理中訂單所持有的號碼，
+ * 因此同一門市處理中的訂單號碼不會重複，已完成或已取消訂單的號碼則可以再次發出。
+ * </p>
+ * <ul>
+ * <li>主要來源：Redis 每門市每天一個計數 key 與一個「使用中號碼」集合，
+ * 以 Lua 腳本原子地遞增並檢查集合，一次往返即完成配號。
+ * key 不存在時 (新的一天或 Redis 被清空) 以訂單表的資料作為起始值。</li>
+ * <li>備援來源：Redis 不可用時，在結帳交易中鎖定門市列，再依訂單表的使用中號碼配號。
+ * 備援發出的號碼在交易提交後補進 Redis 的使用中集合；Redis 仍不可用時先記在記憶體，
+ * 下一次向 Redis 配號前補上，避免 Redis 恢復後再次發出同一個號碼。</li>
+ * </ul>
+ * 由 {@link OrderListService#allocatePickupNumber} 對外提供。
+ */
+@Component
+public class PickupNumberAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(PickupNumberAllocator.class);
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final String COUNTER_KEY_PREFIX = "pickup:no:";
+    private static final String ACTIVE_KEY_PREFIX = "pickup:no:active:";
+    private static final long REDIS_KEY_TTL_SECONDS = TimeUnit.DAYS.toSeconds(2);
+
+    /**
+     * KEYS[1] = 當日計數 key，KEYS[2] = 當日使用中號碼集合
+     * ARGV[1] = 號碼上限 (max)
+     * ARGV[2] = TTL (秒)
+     * ARGV[3] = 起始值 (最近發出的號碼)；-1 表示呼叫端尚未查詢，若 key 不存在則回傳 -1 由呼叫端補上
+     * ARGV[4..] = 起始時的使用中號碼
+     * 回傳值 = 配發的號碼；0 表示所有號碼都在使用中；-1 表示需要起始值
+     */
+    private static final DefaultRedisScript<Long> ALLOCATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  local seed = tonumber(ARGV[3]) " +
+            "  if seed < 0 then return -1 end " +
+            "  redis.call('SET', KEYS[1], seed) " +
+            "  redis.call('DEL', KEYS[2]) " +
+            "  for i = 4, #ARGV do redis.call('SADD', KEYS[2], ARGV[i]) end " +
+            "end " +
+            "local max = tonumber(ARGV[1]) " +
+            "local result = 0 " +
+            "for i = 1, max do " +
+            "  local n = redis.call('INCR', KEYS[1]) " +
+            "  local num = ((n - 1) % max) + 1 " +
+            "  if redis.call('SADD', KEYS[2], num) == 1 then " +
+            "    result = num " +
+            "    break " +
+            "  end " +
+            "end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+            "return result",
+            Long.class);
+
+    /**
+     * KEYS[1] = 當日計數 key，KEYS[2] = 當日使用中號碼集合
+     * ARGV[1..] = 備援發出的號碼
+     * 計數 key 不存在時不寫入：之後的起始值本來就由訂單表載入，已包含這些號碼
+     */
+    private static final DefaultRedisScript<Long> ADD_ACTIVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            "for i = 1, #ARGV do redis.call('SADD', KEYS[2], ARGV[i]) end " +
+            "return #ARGV",
+            Long.class);
+
+    // 備援發出、尚未寫入 Redis 使用中集合的號碼 (key: "門市 ID:日期")
+    private final Map<String, Set<Long>> pendingActiveNumbers = new ConcurrentHashMap<>();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderListRepository orderListRepository;
+    private final StoreRepository storeRepository;
+
+    @Value("${app.pickup-number.max:999}")
+    private int maxNumber;
+
+    public PickupNumberAllocator(StringRedisTemplate stringRedisTemplate,
+                                 OrderListRepository orderListRepository,
+                                 StoreRepository storeRepository) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.orderListRepository = orderListRepository;
+        this.storeRepository = storeRepository;
+    }
+
+    /**
+     * 為門市當天的新訂單配發取餐號碼。交易回滾時會歸還在 Redis 配發的號碼。
+     * @param storeId 門市 ID
+     * @param day 訂單日期
+     * @return 1 ~ max 之間、不與該門市處理中訂單重複的號碼
+     * @throws IllegalStateException 該門市所有號碼都在使用中
+     */
+    @Transactional
+    public long allocate(Long storeId, LocalDate day) {
+        long number;
+        try {
+            number = allocateFromRedis(storeId, day);
+            if (number > 0) {
+                releaseOnRollback(storeId, day, number);
+            }
+        } catch (Exception e) {
+            log.warn("Redis 取餐號碼配號失敗，改用資料庫 - 門市: {}, 日期: {}, 錯誤: {}", storeId, day, e.getMessage());
+            number = allocateFromDatabase(storeId, day);
+            if (number > 0) {
+                addToRedisAfterCommit(storeId, day, number);
+            }
+        }
+        if (number <= 0) {
+            throw new IllegalStateException("門市今日的取餐號碼已全部使用中，請稍後再試");
+        }
+        return number;
+    }
+
+    /**
+     * 訂單完成或取消提交後，歸還其取餐號碼供之後的訂單重新使用。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getType() != OrderChangedEvent.Type.STATUS_CHANGED
+                || !event.getOrderStatus().isTerminal()
+                || event.getMealPickupNumber() == null
+                || event.getOrderDate() == null) {
+            return;
+        }
+        release(event.getStoreId(), event.getOrderDate().toLocalDate(), event.getMealPickupNumber());
+    }
+
+    private long allocateFromRedis(Long storeId, LocalDate day) {
+        flushPendingActiveNumbers();
+        List<String> keys = keysOf(keySuffix(storeId, day));
+        String max = String.valueOf(maxNumber);
+        String ttl = String.valueOf(REDIS_KEY_TTL_SECONDS);
+        Long number = stringRedisTemplate.execute(ALLOCATE_SCRIPT, keys, max, ttl, "-1");
+        if (number != null && number < 0) {
+            // 當日 key 尚不存在：以訂單表最近發出的號碼與使用中號碼作為起始狀態
+            List<String> args = new ArrayList<>();
+            args.add(max);
+            args.add(ttl);
+            args.add(String.valueOf(latestNumber(storeId, day)));
+            for (Long active : activeNumbers(storeId, day)) {
+                args.add(String.valueOf(active));
+            }
+            number = stringRedisTemplate.execute(ALLOCATE_SCRIPT, keys, args.toArray());
+        }
+        if (number == null || number < 0) {
+            throw new IllegalStateException("Redis 未回傳取餐號碼");
+        }
+        return number;
+    }
+
+    // 鎖定門市列讓同一門市的配號依序進行，鎖在結帳交易提交 (訂單已寫入) 後才釋放
+    private long allocateFromDatabase(Long storeId, LocalDate day) {
+        storeRepository.findForUpdate(storeId)
+                .orElseThrow(() -> new EntityNotFoundException("找不到門市，ID: " + storeId));
+        Set<Long> active = new HashSet<>(activeNumbers(storeId, day));
+        long last = latestNumber(storeId, day);
+        for (int i = 1; i <= maxNumber; i++) {
+            long candidate = ((last + i - 1) % maxNumber) + 1;
+            if (!active.contains(candidate)) {
+                return candidate;
+            }
+        }
+        return 0;
+    }
+
+    private List<Long> activeNumbers(Long storeId, LocalDate day) {
+        return orderListRepository.findActivePickupNumbers(storeId, day.atStartOfDay(), nextDay(day));
+    }
+
+    private long latestNumber(Long storeId, LocalDate day) {
+        List<Long> latest = orderListRepository.findLatestPickupNumbers(storeId, day.atStartOfDay(), nextDay(day),
+                PageRequest.of(0, 1));
+        return latest.isEmpty() ? 0L : latest.get(0);
+    }
+
+    private static LocalDateTime nextDay(LocalDate day) {
+        return day.plusDays(1).atStartOfDay();
+    }
+
+    // 備援號碼在交易提交 (訂單已寫入) 後才加入待補清單，回滾的號碼不會佔用 Redis 集合
+    private void addToRedisAfterCommit(Long storeId, LocalDate day, long number) {
+        String suffix = keySuffix(storeId, day);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pendingActiveNumbers.computeIfAbsent(suffix, k -> ConcurrentHashMap.newKeySet()).add(number);
+            flushPendingActiveNumbers();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingActiveNumbers.computeIfAbsent(suffix, k -> ConcurrentHashMap.newKeySet()).add(number);
+                flushPendingActiveNumbers();
+            }
+        });
+    }
+
+    // 將待補的備援號碼寫入 Redis；Redis 仍不可用時保留，下一次配號前再試
+    private void flushPendingActiveNumbers() {
+        if (pendingActiveNumbers.isEmpty()) {
+            return;
+        }
+        for (Map.Entry<String, Set<Long>> entry : pendingActiveNumbers.entrySet()) {
+            List<Long> numbers = new ArrayList<>(entry.getValue());
+            if (numbers.isEmpty()) {
+                pendingActiveNumbers.remove(entry.getKey(), entry.getValue());
+                continue;
+            }
+            Object[] args = new Object[numbers.size()];
+            for (int i = 0; i < args.length; i++) {
+                args[i] = String.valueOf(numbers.get(i));
+            }
+            try {
+                stringRedisTemplate.execute(ADD_ACTIVE_SCRIPT, keysOf(entry.getKey()), args);
+            } catch (Exception e) {
+                log.debug("Redis 仍不可用，稍後再補寫備援取餐號碼 - {}: {}", entry.getKey(), e.getMessage());
+                return;
+            }
+            entry.getValue().removeAll(numbers);
+            pendingActiveNumbers.computeIfPresent(entry.getKey(), (k, v) -> v.isEmpty() ? null : v);
+        }
+    }
+
+    private static String keySuffix(Long storeId, LocalDate day) {
+        return storeId + ":" + day.format(DATE_FORMAT);
+    }
+
+    private static List<String> keysOf(String suffix) {
+        return List.of(COUNTER_KEY_PREFIX + suffix, ACTIVE_KEY_PREFIX + suffix);
+    }
+
+    private void releaseOnRollback(Long storeId, LocalDate day, long number) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(storeId, day, number);
+                }
+            }
+        });
+    }
+
+    private void release(Long storeId, LocalDate day, long number) {
+        String suffix = keySuffix(storeId, day);
+        Set<Long> pending = pendingActiveNumbers.get(suffix);
+        if (pending != null) {
+            pending.remove(number); // 尚未補寫就已完成的訂單，不必再寫入
+        }
+        try {
+            stringRedisTemplate.opsForSet().remove(ACTIVE_KEY_PREFIX + suffix, String.valueOf(number));
+        } catch (Exception e) {
+            // 歸還失敗只會讓該號碼在當天被跳過，不影響唯一性
+            log.warn("歸還取餐號碼失敗 - 門市: {}, 號碼: {}, 錯誤: {}", storeId, number, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.eatfast.orderlist.service;
+
+import com.eatfast.orderlist.event.OrderChangedEvent;
+import com.eatfast.orderlist.exception.PickupSlotFullException;
+import com.eatfast.orderlist.exception.PickupSlotUnavailableException;
+import com.eatfast.orderlist.model.OrderStatus;
+import com.eatfast.orderlist.model.PickupSlot;
+import com.eatfast.orderlist.repository.OrderListRepository;
+import com.eatfast.store.repository.StoreRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 門市取餐時段容量控管。
+ * <p>
+ * 一天依固定寬度切成多個取餐時段，每個時段每間門市最多接受 capacity 筆有效訂單，
+ * 避免尖峰時大量訂單集中在同一個取餐時間，讓廚房負載平均分散。
+ * </p>
+ * <ul>
+ * <li>主要來源：Redis 每個門市、每個時段一把計數 key (pickup:slot:{storeId}:{yyyyMMddHHmm})，
+ * 以 Lua 腳本原子地「檢查容量並遞增」，一次往返即完成預約。
+ * key 不存在時以訂單表中該時段的有效訂單數作為起始值。</li>
+ * <li>備援來源：Redis 不可用時，在結帳交易中鎖定門市列，再以訂單表計數判斷容量。</li>
+ * </ul>
+ * 訂單取消 (含付款失敗) 時歸還名額；結帳交易回滾時也會歸還已在 Redis 預約的名額。
+ */
+@Service
+public class PickupSlotService {
+
+    private static final Logger log = LoggerFactory.getLogger(PickupSlotService.class);
+
+    private static final String REDIS_KEY_PREFIX = "pickup:slot:";
+    private static final DateTimeFormatter KEY_FORMAT = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+    // 計數 key 在時段結束後再保留一段時間，供取消訂單時歸還名額
+    private static final Duration KEY_GRACE = Duration.ofHours(1);
+
+    /**
+     * KEYS[1] = 時段計數 key
+     * ARGV[1] = 時段容量
+     * ARGV[2] = TTL (秒)
+     * ARGV[3] = 起始值；-1 表示呼叫端尚未查詢，若 key 不存在則回傳 -1 由呼叫端補上
+     * 回傳值 = 預約後的已預約數；0 表示已額滿；-1 表示需要起始值
+     */
+    private static final DefaultRedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "local cur = redis.call('GET', KEYS[1]) " +
+            "if not cur then " +
+            "  local seed = tonumber(ARGV[3]) " +
+            "  if seed < 0 then return -1 end " +
+            "  redis.call('SET', KEYS[1], seed, 'EX', ARGV[2]) " +
+            "  cur = seed " +
+            "end " +
+            "if tonumber(cur) >= tonumber(ARGV[1]) then return 0 end " +
+            "local v = redis.call('INCR', KEYS[1]) " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[2]) " +
+            "return v",
+            Long.class);
+
+    // 歸還名額：只在 key 存在且大於 0 時遞減，避免產生負數或重建過期的 key
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "local cur = redis.call('GET', KEYS[1]) " +
+            "if cur and tonumber(cur) > 0 then return redis.call('DECR', KEYS[1]) end " +
+            "return -1",
+            Long.class);
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final OrderListRepository orderListRepository;
+    private final StoreRepository storeRepository;
+
+    @Value("${app.pickup-slot.width-minutes:15}")
+    private int slotWidthMinutes;
+
+    @Value("${app.pickup-slot.capacity:20}")
+    private int slotCapacity;
+
+    @Value("${app.pickup-slot.lead-minutes:20}")
+    private int leadMinutes;
+
+    public PickupSlotService(StringRedisTemplate stringRedisTemplate,
+                             OrderListRepository orderListRepository,
+                             StoreRepository storeRepository) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.orderListRepository = orderListRepository;
+        this.storeRepository = storeRepository;
+    }
+
+    /**
+     * 取得門市今天還可以選擇的取餐時段 (從現在加上備餐時間起，到當天結束)。
+     * 計數以一次 MGET 從 Redis 取得；Redis 沒有的時段改用訂單表分組計數。
+     * @param storeId 門市 ID
+     * @return 依時間排序的時段清單 (含已額滿的時段，由前端顯示為不可選)
+     */
+    public List<PickupSlot> getSlots(Long storeId) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime first = firstOfferedSlot(now);
+        LocalDateTime endOfDay = endOfDay(now);
+
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (LocalDateTime t = first; t.isBefore(endOfDay); t = t.plusMinutes(slotWidthMinutes)) {
+            starts.add(t);
+        }
+        if (starts.isEmpty()) {
+            return List.of();
+        }
+
+        List<String> cached = readCachedCounts(storeId, starts);
+        Map<LocalDateTime, Long> fromDatabase = null;
+        List<PickupSlot> slots = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            LocalDateTime start = starts.get(i);
+            String value = cached != null ? cached.get(i) : null;
+            long reserved;
+            if (value != null) {
+                reserved = Long.parseLong(value);
+            } else {
+                if (fromDatabase == null) {
+                    fromDatabase = countByStartFromDatabase(storeId, first, endOfDay);
+                }
+                reserved = fromDatabase.getOrDefault(start, 0L);
+            }
+            slots.add(new PickupSlot(start, start.format(TIME_FORMAT), slotCapacity, reserved));
+        }
+        return slots;
+    }
+
+    /**
+     * 目前最早可選擇的取餐時間 (與 {@link #getSlots} 的第一個時段相同)。
+     */
+    public LocalDateTime getEarliestPickupTime() {
+        return firstOfferedSlot(LocalDateTime.now());
+    }
+
+    /**
+     * 在結帳交易中為訂單預約取餐時段的名額。
+     * 交易回滾時會自動歸還在 Redis 預約的名額。
+     * @param storeId 門市 ID
+     * @param pickupTime 訂單的取餐時間
+     * @throws PickupSlotUnavailableException 取餐時間不在 {@link #getSlots} 提供的時段內
+     * @throws PickupSlotFullException 該時段已額滿
+     */
+    @Transactional
+    public void reserve(Long storeId, LocalDateTime pickupTime) {
+        LocalDateTime start = slotStartOf(pickupTime);
+        // 【修正】只接受目前仍會提供的時段，已過去或來不及備餐的時間不計入容量
+        LocalDateTime now = LocalDateTime.now();
+        if (start.isBefore(firstOfferedSlot(now)) || !start.isBefore(endOfDay(now))) {
+            throw new PickupSlotUnavailableException(
+                    "取餐時段 " + start.format(TIME_FORMAT) + " 已無法選擇，請重新選擇取餐時間");
+        }
+        boolean reserved;
+        try {
+            reserved = reserveInRedis(storeId, start);
+            if (reserved) {
+                releaseOnRollback(storeId, start);
+            }
+        } catch (Exception e) {
+            log.warn("Redis 取餐時段預約失敗，改用資料庫計數 - 門市: {}, 時段: {}, 錯誤: {}",
+                    storeId, start, e.getMessage());
+            reserved = reserveInDatabase(storeId, start);
+        }
+        if (!reserved) {
+            throw new PickupSlotFullException("取餐時段 " + start.format(TIME_FORMAT) + " 已額滿，請選擇其他時段");
+        }
+    }
+
+    /**
+     * 訂單取消 (含付款失敗) 提交後歸還該訂單的取餐時段名額。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (event.getType() != OrderChangedEvent.Type.STATUS_CHANGED
+                || event.getOrderStatus() != OrderStatus.CANCELLED
+                || event.getPickupTime() == null) {
+            return;
+        }
+        release(event.getStoreId(), slotStartOf(event.getPickupTime()));
+    }
+
+    // 第一個可選擇的時段：現在加上備餐時間之後的下一個時段開始時間
+    private LocalDateTime firstOfferedSlot(LocalDateTime now) {
+        return slotStartOf(now.plusMinutes(leadMinutes + slotWidthMinutes - 1L));
+    }
+
+    // 可選擇的時段只到今天結束
+    private static LocalDateTime endOfDay(LocalDateTime now) {
+        return now.toLocalDate().plusDays(1).atStartOfDay();
+    }
+
+    // 將時間對齊到所屬時段的開始時間
+    private LocalDateTime slotStartOf(LocalDateTime time) {
+        LocalDateTime minuteStart = time.withSecond(0).withNano(0);
+        int minuteOfDay = minuteStart.getHour() * 60 + minuteStart.getMinute();
+        return minuteStart.minusMinutes(minuteOfDay % slotWidthMinutes);
+    }
+
+    private boolean reserveInRedis(Long storeId, LocalDateTime start) {
+        List<String> keys = List.of(keyOf(storeId, start));
+        String ttl = String.valueOf(ttlSecondsOf(start));
+        String capacity = String.valueOf(slotCapacity);
+        Long result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys, capacity, ttl, "-1");
+        if (result != null && result < 0) {
+            // 該時段尚無計數：以訂單表的有效訂單數作為起始值後再預約一次
+            long seed = orderListRepository.countActiveByPickupWindow(storeId, start, start.plusMinutes(slotWidthMinutes));
+            result = stringRedisTemplate.execute(RESERVE_SCRIPT, keys, capacity, ttl, String.valueOf(seed));
+        }
+        if (result == null || result < 0) {
+            throw new IllegalStateException("Redis 未回傳取餐時段計數");
+        }
+        return result > 0;
+    }
+
+    // 鎖定門市列讓同一門市的預約依序進行，鎖在結帳交易提交 (訂單已寫入) 後才釋放
+    private boolean reserveInDatabase(Long storeId, LocalDateTime start) {
+        storeRepository.findForUpdate(storeId)
+                .orElseThrow(() -> new EntityNotFoundException("找不到門市，ID: " + storeId));
+        long reserved = orderListRepository.countActiveByPickupWindow(storeId, start, start.plusMinutes(slotWidthMinutes));
+        return reserved < slotCapacity;
+    }
+
+    private void releaseOnRollback(Long storeId, LocalDateTime start) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    release(storeId, start);
+                }
+            }
+        });
+    }
+
+    private void release(Long storeId, LocalDateTime start) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(keyOf(storeId, start)));
+        } catch (Exception e) {
+            // 歸還失敗只會讓該時段暫時少一個名額，計數 key 過期後即恢復
+            log.warn("歸還取餐時段名額失敗 - 門市: {}, 時段: {}, 錯誤: {}", storeId, start, e.getMessage());
+        }
+    }
+
+    private List<String> readCachedCounts(Long storeId, List<LocalDateTime> starts) {
+        List<String> keys = new ArrayList<>(starts.size());
+        for (LocalDateTime start : starts) {
+            keys.add(keyOf(storeId, start));
+        }
+        try {
+            return stringRedisTemplate.opsForValue().multiGet(keys);
+        } catch (Exception e) {
+            log.warn("讀取 Redis 取餐時段計數失敗，改用資料庫計數 - 門市: {}, 錯誤: {}", storeId, e.getMessage());
+            return null;
+        }
+    }
+
+    private Map<LocalDateTime, Long> countByStartFromDatabase(Long storeId, LocalDateTime from, LocalDateTime to) {
+        Map<LocalDateTime, Long> counts = new HashMap<>();
+        for (LocalDateTime pickupTime : orderListRepository.findActivePickupTimes(storeId, from, to)) {
+            counts.merge(slotStartOf(pickupTime), 1L, Long::sum);
+        }
+        return counts;
+    }
+
+    private String keyOf(Long storeId, LocalDateTime start) {
+        return REDIS_KEY_PREFIX + storeId + ":" + start.format(KEY_FORMAT);
+    }
+
+    private long ttlSecondsOf(LocalDateTime start) {
+        LocalDateTime expireAt = start.plusMinutes(slotWidthMinutes).plus(KEY_GRACE);
+        return Math.max(Duration.between(LocalDateTime.now(), expireAt).getSeconds(), 60L);
+    }
+}
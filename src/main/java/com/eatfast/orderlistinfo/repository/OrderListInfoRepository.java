@@ -1,8 +1,10 @@
 package com.eatfast.orderlistinfo.repository;
 
 import java.util.List;
+import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -10,6 +12,8 @@ import org.springframework.stereotype.Repository;
 import com.eatfast.orderlist.model.OrderListEntity;
 import com.eatfast.orderlistinfo.model.OrderListInfoEntity;
 
+import jakarta.persistence.LockModeType;
+
 /**
  * OrderListInfoEntity 的 Repository 介面。
  * 繼承 JpaRepository 來獲得所有標準的資料庫操作方法。
@@ -58,33 +62,14 @@ public interface OrderListInfoRepository extends JpaRepository<OrderListInfoEnti
     List<OrderListInfoEntity> findByOrderListAndReviewStars(OrderListEntity orderList, Long reviewStars);
 
     /**
-     * 【新增】根據會員ID查詢其所有訂單明細
-     * 使用 JPQL 查詢，透過 orderList.member.memberId 關聯查詢
-     * @param memberId 會員ID
-     * @return 該會員的所有訂單明細列表
-     */
-    @Query("SELECT oli FROM OrderListInfoEntity oli WHERE oli.orderList.member.memberId = :memberId ORDER BY oli.orderList.orderDate DESC")
-    List<OrderListInfoEntity> findByMemberId(@Param("memberId") Long memberId);
-
-    /**
-     * 【新增】根據會員ID和評論狀態查詢訂單明細
-     * @param memberId 會員ID
-     * @param reviewStars 評論星等 (0 表示未評論)
-     * @return 符合條件的訂單明細列表
-     */
-    @Query("SELECT oli FROM OrderListInfoEntity oli WHERE oli.orderList.member.memberId = :memberId AND oli.reviewStars = :reviewStars ORDER BY oli.orderList.orderDate DESC")
-    List<OrderListInfoEntity> findByMemberIdAndReviewStars(@Param("memberId") Long memberId, @Param("reviewStars") Long reviewStars);
-
-    /**
-     * 【新增】查詢會員的可評論訂單明細（訂單已完成且未評論）
-     * @param memberId 會員ID
-     * @return 可評論的訂單明細列表
+     * 以悲觀鎖 (SELECT ... FOR UPDATE) 讀取單筆訂單明細。
+     * 評論時使用，確保同一筆明細被同時評論時，評分累計表只會依序套用各自的增量。
+     * @param orderListInfoId 訂單明細的 ID
+     * @return 訂單明細
      */
-    @Query("SELECT oli FROM OrderListInfoEntity oli WHERE oli.orderList.member.memberId = :memberId " +
-           "AND oli.orderList.orderStatus = com.eatfast.orderlist.model.OrderStatus.COMPLETED " +
-           "AND (oli.reviewStars = 0 OR oli.reviewStars IS NULL) " +
-           "ORDER BY oli.orderList.orderDate DESC")
-    List<OrderListInfoEntity> findReviewableByMemberId(@Param("memberId") Long memberId);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM OrderListInfoEntity i WHERE i.orderListInfoId = :orderListInfoId")
+    Optional<OrderListInfoEntity> findByIdForUpdate(@Param("orderListInfoId") Long orderListInfoId);
 
     /**
      * 【新增】統計會員的訂單明細數量
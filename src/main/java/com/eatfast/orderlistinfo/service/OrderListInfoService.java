@@ -4,9 +4,12 @@ import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.eatfast.meal.model.MealRatingService;
+import com.eatfast.meal.model.MealService;
 import com.eatfast.orderlist.model.OrderListEntity;
 import com.eatfast.orderlist.repository.OrderListRepository; // 可能需要訂單主表的 Repository
 import com.eatfast.orderlistinfo.model.OrderListInfoDTO;
@@ -22,11 +25,22 @@ public class OrderListInfoService {
 
     private final OrderListInfoRepository orderListInfoRepository;
     private final OrderListRepository orderListRepository; // 注入訂單主表的 Repository 以便查詢
+    private final JdbcTemplate jdbcTemplate; // 結帳批次寫入明細用
+    private final MealService mealService; // 評分異動時通知前台菜單快照過期
+    private final MealRatingService mealRatingService; // 評分累計表的增量更新
+
+    private static final String BATCH_INSERT_SQL =
+            "INSERT INTO order_list_info (order_list_id, meal_id, meal_price, quantity, review_stars) VALUES (?, ?, ?, ?, ?)";
 
     @Autowired
-    public OrderListInfoService(OrderListInfoRepository orderListInfoRepository, OrderListRepository orderListRepository) {
+    public OrderListInfoService(OrderListInfoRepository orderListInfoRepository, OrderListRepository orderListRepository,
+                                JdbcTemplate jdbcTemplate, MealService mealService,
+                                MealRatingService mealRatingService) {
         this.orderListInfoRepository = orderListInfoRepository;
         this.orderListRepository = orderListRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.mealService = mealService;
+        this.mealRatingService = mealRatingService;
     }
 
     /**
@@ -55,8 +69,8 @@ public class OrderListInfoService {
             throw new IllegalArgumentException("評論星等必須介於 1 到 5 之間。");
         }
 
-        // 2. 從資料庫讀取資料 - 【修正】使用 EntityNotFoundException
-        OrderListInfoEntity info = orderListInfoRepository.findById(orderListInfoId)
+        // 2. 從資料庫讀取資料 (加鎖，與評分累計的增量更新串行化) - 【修正】使用 EntityNotFoundException
+        OrderListInfoEntity info = orderListInfoRepository.findByIdForUpdate(orderListInfoId)
                 .orElseThrow(() -> new EntityNotFoundException("找不到指定的訂單明細項目，ID: " + orderListInfoId));
 
         // 【新增】檢查訂單狀態 - 只有已完成的訂單才能評論
@@ -65,11 +79,15 @@ public class OrderListInfoService {
             throw new IllegalStateException("只有已完成的訂單才能進行評論");
         }
 
-        // 3. 修改資料
+        // 3. 修改資料，並在同一個交易中累加該餐點的評分累計值
+        long oldStars = info.getReviewStars() != null ? info.getReviewStars() : 0L;
         info.setReviewStars(stars);
+        mealRatingService.recordReview(info.getMeal().getMealId(), oldStars, stars, info.getQuantity());
 
-        // 4. 儲存回資料庫
-        return orderListInfoRepository.save(info);
+        // 4. 儲存回資料庫，並讓前台菜單的平均星級在提交後重新計算
+        OrderListInfoEntity saved = orderListInfoRepository.save(info);
+        mealService.invalidateMenu();
+        return saved;
     }
     
     /**
@@ -98,6 +116,29 @@ public class OrderListInfoService {
         return orderListInfoRepository.save(orderListInfoEntity);
     }
 
+    /**
+     * 【新增】以 JDBC 批次一次寫入多筆訂單明細 (結帳用)
+     * <p>
+     * 訂單明細主鍵為 IDENTITY，Hibernate 無法對其做批次 INSERT，逐筆 save 會造成每一行一次往返；
+     * 這裡改用 JdbcTemplate.batchUpdate，無論明細筆數多寡都只需一次批次往返。
+     * 必須在已 flush 訂單主檔的同一交易中呼叫。
+     * </p>
+     * @param details 要寫入的訂單明細 (orderList 與 meal 只需帶有 ID，可為 getReferenceById 取得的代理物件)
+     */
+    @Transactional
+    public void createOrderListInfos(List<OrderListInfoEntity> details) {
+        if (details.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(BATCH_INSERT_SQL, details, details.size(), (ps, detail) -> {
+            ps.setString(1, detail.getOrderList().getOrderListId());
+            ps.setLong(2, detail.getMeal().getMealId());
+            ps.setLong(3, detail.getMealPrice());
+            ps.setLong(4, detail.getQuantity());
+            ps.setLong(5, detail.getReviewStars());
+        });
+    }
+
     /**
      * 獲取訂單明細的 DTO 列表
      * @param orderId 訂單 ID
@@ -117,20 +158,6 @@ public class OrderListInfoService {
                 .collect(Collectors.toList());
     }
 
-    /**
-     * 【新增】獲取會員的所有訂單明細（用於統計和分析）
-     * @param memberId 會員 ID
-     * @return 該會員的所有訂單明細列表
-     */
-    public List<OrderListInfoEntity> getOrderDetailsByMemberId(Long memberId) {
-        // 透過 JPQL 或 Criteria API 查詢
-        return orderListInfoRepository.findAll().stream()
-                .filter(detail -> detail.getOrderList() != null && 
-                                detail.getOrderList().getMember() != null &&
-                                detail.getOrderList().getMember().getMemberId().equals(memberId))
-                .collect(Collectors.toList());
-    }
-
     /**
      * 【新增】檢查訂單明細是否可以評論
      * @param orderListInfoId 訂單明細 ID
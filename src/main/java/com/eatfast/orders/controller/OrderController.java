@@ -2,16 +2,19 @@ package com.eatfast.orders.controller;
 
 import com.eatfast.cart.service.CartService;
 import com.eatfast.cart.dto.CartDTO.CartItemDto;
+import com.eatfast.orderlist.service.OrderIdSequenceService;
 import com.eatfast.orderlist.service.OrderListService;
+import com.eatfast.orderlist.service.PickupSlotService;
+import com.eatfast.orderlist.exception.PickupSlotFullException;
+import com.eatfast.orderlist.exception.PickupSlotUnavailableException;
 import com.eatfast.orderlist.model.OrderListEntity;
-import com.eatfast.orderlist.model.OrderStatus;
+import com.eatfast.orderlist.model.PaymentStatus;
 import com.eatfast.orderlistinfo.service.OrderListInfoService;
 import com.eatfast.orderlistinfo.model.OrderListInfoEntity;
-import com.eatfast.member.repository.MemberRepository;
-import com.eatfast.member.model.MemberEntity;
-import com.eatfast.store.repository.StoreRepository;
-import com.eatfast.store.model.StoreEntity;
-import com.eatfast.meal.model.MealEntity;
+import com.eatfast.orders.payment.PaymentRequest;
+import com.eatfast.orders.service.CheckoutService;
+import com.eatfast.orders.service.CheckoutTokenService;
+import com.eatfast.orders.service.PaymentService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -26,7 +29,6 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import jakarta.servlet.http.HttpSession;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -46,10 +48,19 @@ public class OrderController {
     private OrderListInfoService orderListInfoService;
     
     @Autowired
-    private MemberRepository memberRepository;
+    private CheckoutService checkoutService;
     
     @Autowired
-    private StoreRepository storeRepository;
+    private PaymentService paymentService;
+    
+    @Autowired
+    private OrderIdSequenceService orderIdSequenceService;
+    
+    @Autowired
+    private PickupSlotService pickupSlotService;
+    
+    @Autowired
+    private CheckoutTokenService checkoutTokenService;
 
     @GetMapping("/pay")
     public String showPaymentPage(Model model, HttpSession session) {
@@ -83,6 +94,8 @@ public class OrderController {
         // 創建訂單DTO
         OrderPaymentDTO orderToPay = new OrderPaymentDTO();
         orderToPay.setOrderListId(generateOrderId());
+        // 【新增】結帳冪等權杖：同一個付款頁面只會建立一筆訂單
+        orderToPay.setCheckoutToken(checkoutTokenService.issue(memberId, orderToPay.getOrderListId()));
         orderToPay.setOrderDate(LocalDateTime.now());
         orderToPay.setPickupTime(pickupTime);
         orderToPay.setStoreName(storeName);
@@ -94,9 +107,41 @@ public class OrderController {
         return "front-end/orders/pay";
     }
     
+    /**
+     * 【新增】查詢購物車門市今天可選擇的取餐時段 (供付款頁選擇取餐時間)
+     */
+    @GetMapping("/pickup-slots")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getPickupSlots(HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        
+        Long memberId = (Long) session.getAttribute("loggedInMemberId");
+        if (memberId == null) {
+            response.put("success", false);
+            response.put("message", "請先登入");
+            return ResponseEntity.status(401).body(response);
+        }
+        
+        List<CartItemDto> cartItems = cartService.getCartItemsByMember(memberId);
+        if (cartItems == null || cartItems.isEmpty()) {
+            response.put("success", false);
+            response.put("message", "購物車是空的");
+            return ResponseEntity.status(400).body(response);
+        }
+        
+        Long storeId = cartItems.get(0).getStoreId();
+        response.put("success", true);
+        response.put("storeId", storeId);
+        response.put("selected", session.getAttribute("pickupTime"));
+        response.put("slots", pickupSlotService.getSlots(storeId));
+        return ResponseEntity.ok(response);
+    }
+    
     @PostMapping("/process-payment")
     public String processPayment(
             @RequestParam String orderId,
+            @RequestParam(required = false) String checkoutToken,
+            @RequestParam(required = false) String pickupTime,
             @RequestParam(required = false) String cardNumber,
             @RequestParam(required = false) String expiryMonth,
             @RequestParam(required = false) String expiryYear,
@@ -126,23 +171,66 @@ public class OrderController {
             return "redirect:/orders/pay";
         }
 
+        // 【新增】冪等檢查：只有第一次以該權杖送出的請求會建立訂單，
+        // 重複送出或瀏覽器重試直接導向第一次請求的結果，不再寫入任何資料
+        CheckoutTokenService.Claim claim = checkoutTokenService.claim(checkoutToken, memberId);
+        switch (claim.getStatus()) {
+            case CLAIMED:
+                orderId = claim.getOrderId(); // 以權杖記錄的訂單編號為準，不採用表單欄位
+                break;
+            case IN_PROGRESS:
+                // 第一個請求仍在建立訂單 (尚未提交)：顯示付款等待頁輪詢狀態，不直接導向付款結果頁
+                session.setAttribute("currentOrderId", claim.getOrderId());
+                session.setAttribute("currentCheckoutToken", checkoutToken);
+                model.addAttribute("orderId", claim.getOrderId());
+                return "front-end/orders/payment-processing";
+            case COMPLETED:
+                session.setAttribute("currentOrderId", claim.getOrderId());
+                return "redirect:/orders/payment-success";
+            case UNAVAILABLE:
+                // Redis 不可用 (或付款頁沒有權杖)：以訂單編號是否已建立判斷重複送出
+                if (orderListService.existsByOrderListId(orderId)) {
+                    // 【修正】表單的訂單編號不可信任，只導向自己的訂單
+                    OrderListEntity existing = orderListService.getOrderById(orderId).orElse(null);
+                    if (!isOwnedBy(existing, memberId)) {
+                        redirectAttributes.addFlashAttribute("paymentError", "付款頁面已過期，請重新確認訂單後再付款");
+                        return "redirect:/orders/pay";
+                    }
+                    session.setAttribute("currentOrderId", orderId);
+                    return "redirect:/orders/payment-success";
+                }
+                break;
+            default:
+                redirectAttributes.addFlashAttribute("paymentError", "付款頁面已過期，請重新確認訂單後再付款");
+                return "redirect:/orders/pay";
+        }
+
+        boolean orderPlaced = false;
         try {
             // 獲取購物車資訊
             List<CartItemDto> cartItems = cartService.getCartItemsByMember(memberId);
             
             if (cartItems == null || cartItems.isEmpty()) {
+                releaseCheckoutToken(claim, checkoutToken);
                 redirectAttributes.addFlashAttribute("paymentError", "購物車是空的，無法結帳");
                 return "redirect:/cart";
             }
             
-            // 模擬付款處理
-            Thread.sleep(1000);
+            // 【新增】付款頁選擇的取餐時段優先於購物車頁儲存在 session 的取餐時間
+            if (pickupTime != null && !pickupTime.isBlank()) {
+                session.setAttribute("pickupTime", pickupTime);
+            }
             
-            // 付款成功後創建訂單
-            createOrderFromCart(memberId, orderId, cartItems, session, cardNumber);
+            // 付款前先建立訂單（同一交易寫入主檔與明細，付款狀態為 AWAITING）
+            OrderListEntity order = checkoutService.placeOrder(memberId, orderId, cartItems,
+                    (String) session.getAttribute("pickupTime"),
+                    (String) session.getAttribute("orderNotes"),
+                    cardNumber);
+            orderPlaced = true;
             
-            // 付款成功後清空購物車
-            cartService.clearCartByMember(memberId);
+            // 【優化】扣款交由付款閘道在背景執行，不再於請求執行緒上 Thread.sleep 模擬等待；
+            // 付款成功後由 PaymentService 清空購物車
+            paymentService.submitPayment(new PaymentRequest(orderId, memberId, order.getOrderAmount(), cardNumber));
             
             // 清除session中的取餐時間
             session.removeAttribute("pickupTime");
@@ -151,14 +239,43 @@ public class OrderController {
             // 【修正】將訂單ID保存到 Session 中，供付款成功頁面使用
             session.setAttribute("currentOrderId", orderId);
             
+            if (claim.getStatus() == CheckoutTokenService.Status.CLAIMED) {
+                checkoutTokenService.complete(checkoutToken);
+            }
             return "redirect:/orders/payment-success";
+        } catch (PickupSlotFullException | PickupSlotUnavailableException e) {
+            // 【新增】取餐時段已額滿 (或已無法選擇)：訂單未建立，回到付款頁重新選擇時段
+            releaseCheckoutToken(claim, checkoutToken);
+            redirectAttributes.addFlashAttribute("paymentError", e.getMessage());
+            return "redirect:/orders/pay";
         } catch (Exception e) {
             e.printStackTrace();
+            if (orderPlaced) {
+                // 訂單已建立：之後相同權杖的請求導向此訂單，不會再建立第二筆
+                if (claim.getStatus() == CheckoutTokenService.Status.CLAIMED) {
+                    checkoutTokenService.complete(checkoutToken);
+                }
+            } else {
+                releaseCheckoutToken(claim, checkoutToken);
+            }
             redirectAttributes.addFlashAttribute("paymentError", "付款處理失敗，請稍後再試");
             return "redirect:/orders/pay";
         }
     }
     
+    // 未建立訂單時歸還結帳權杖，讓使用者可以用同一個付款頁面重新送出
+    private void releaseCheckoutToken(CheckoutTokenService.Claim claim, String checkoutToken) {
+        if (claim.getStatus() == CheckoutTokenService.Status.CLAIMED) {
+            checkoutTokenService.release(checkoutToken);
+        }
+    }
+    
+    // 訂單是否屬於指定會員 (代理物件取得主鍵不會觸發查詢)
+    private static boolean isOwnedBy(OrderListEntity order, Long memberId) {
+        return order != null && memberId != null && order.getMember() != null
+                && memberId.equals(order.getMember().getMemberId());
+    }
+    
     // 信用卡資料驗證方法
     private List<String> validateCreditCardData(String cardNumber, String expiryMonth, String expiryYear, String cvv) {
         List<String> errors = new ArrayList<>();
@@ -227,7 +344,7 @@ public class OrderController {
     }
     
     @GetMapping("/payment-success")
-    public String showPaymentSuccess(Model model, HttpSession session) {
+    public String showPaymentSuccess(Model model, HttpSession session, RedirectAttributes redirectAttributes) {
         // 【修正】從 URL 參數中獲取訂單ID，或者使用 Session 備份
         String orderId = (String) session.getAttribute("currentOrderId");
         
@@ -235,11 +352,31 @@ public class OrderController {
         if (orderId == null) {
             return "redirect:/menu";
         }
+        Long memberId = (Long) session.getAttribute("loggedInMemberId");
         
         try {
             // 獲取訂單資訊
             OrderListEntity order = orderListService.getOrderById(orderId).orElse(null);
+            if (order != null && !isOwnedBy(order, memberId)) {
+                // 【修正】只顯示目前登入會員自己的訂單
+                session.removeAttribute("currentOrderId");
+                session.removeAttribute("currentCheckoutToken");
+                return "redirect:/menu";
+            }
             if (order != null) {
+                // 【新增】付款仍在處理中：顯示等待頁面，由前端輪詢付款狀態後再回到此頁
+                if (order.getPaymentStatus() == PaymentStatus.AWAITING) {
+                    model.addAttribute("orderId", orderId);
+                    return "front-end/orders/payment-processing";
+                }
+                
+                // 【新增】付款失敗：訂單已取消，購物車保持原狀，回到付款頁重試
+                if (order.getPaymentStatus() == PaymentStatus.FAILED) {
+                    session.removeAttribute("currentOrderId");
+                    redirectAttributes.addFlashAttribute("paymentError", "付款處理失敗，請稍後再試");
+                    return "redirect:/orders/pay";
+                }
+                
                 // 使用正確的方法名稱獲取訂單明細
                 List<OrderListInfoEntity> orderItems = orderListInfoService.getDetailsForOrder(orderId);
                 
@@ -249,7 +386,21 @@ public class OrderController {
                 
                 // 清除session中的訂單ID（防止重複訪問）
                 session.removeAttribute("currentOrderId");
+                session.removeAttribute("currentCheckoutToken");
             } else {
+                // 【修正】同一結帳權杖的第一個請求仍在處理中 (訂單尚未提交)：視為付款處理中
+                String checkoutToken = (String) session.getAttribute("currentCheckoutToken");
+                if (checkoutTokenService.isProcessing(checkoutToken)) {
+                    model.addAttribute("orderId", orderId);
+                    return "front-end/orders/payment-processing";
+                }
+                session.removeAttribute("currentOrderId");
+                session.removeAttribute("currentCheckoutToken");
+                if (checkoutToken != null) {
+                    // 第一個請求最後沒有建立訂單 (權杖已歸還)，回到付款頁重新送出
+                    redirectAttributes.addFlashAttribute("paymentError", "付款處理失敗，請稍後再試");
+                    return "redirect:/orders/pay";
+                }
                 // 如果找不到訂單，重定向到菜單頁面
                 return "redirect:/menu";
             }
@@ -261,6 +412,34 @@ public class OrderController {
         return "front-end/orders/payment-success";
     }
     
+    /**
+     * 【新增】查詢目前付款中訂單的付款狀態 (供付款等待頁輪詢)
+     */
+    @GetMapping("/payment-status")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> getPaymentStatus(HttpSession session) {
+        Map<String, Object> response = new HashMap<>();
+        
+        String orderId = (String) session.getAttribute("currentOrderId");
+        if (orderId == null) {
+            response.put("status", "NONE");
+            return ResponseEntity.ok(response);
+        }
+        
+        Long memberId = (Long) session.getAttribute("loggedInMemberId");
+        PaymentStatus status = orderListService.getOrderById(orderId)
+                .filter(order -> isOwnedBy(order, memberId))
+                .map(OrderListEntity::getPaymentStatus)
+                .orElse(null);
+        if (status == null && checkoutTokenService.isProcessing((String) session.getAttribute("currentCheckoutToken"))) {
+            status = PaymentStatus.AWAITING; // 訂單仍在第一個請求的交易中，尚未提交
+        }
+        
+        response.put("orderId", orderId);
+        response.put("status", status != null ? status.name() : "NONE");
+        return ResponseEntity.ok(response);
+    }
+    
     /**
      * 保存餐點評分
      */
@@ -329,147 +508,9 @@ public class OrderController {
     }
     
     // 生成訂單編號 (YYYYMMDDXXXX格式)
+    // 【優化】改由 OrderIdSequenceService 從 Redis / 序號表預留區段配號，熱路徑不再查詢訂單表
     private String generateOrderId() {
-        String dateStr = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd"));
-        
-        // 查詢當日最大的訂單編號
-        String maxOrderId = orderListService.findMaxOrderIdByDatePrefix(dateStr);
-        
-        int nextSequence = 1; // 從1開始
-        
-        if (maxOrderId != null && maxOrderId.length() >= 12) {
-            // 提取序號部分 (後4位)
-            String sequenceStr = maxOrderId.substring(8);
-            try {
-                int currentSequence = Integer.parseInt(sequenceStr);
-                nextSequence = currentSequence + 1;
-            } catch (NumberFormatException e) {
-                // 如果解析失敗，使用預設值1
-                nextSequence = 1;
-            }
-        }
-        
-        // 格式化序號為4位數字，不足前面補0
-        String sequenceStr = String.format("%04d", nextSequence);
-        String orderId = dateStr + sequenceStr;
-        
-        // 確保訂單編號不重複（防止併發問題）
-        while (orderListService.existsByOrderListId(orderId)) {
-            nextSequence++;
-            sequenceStr = String.format("%04d", nextSequence);
-            orderId = dateStr + sequenceStr;
-        }
-        
-        return orderId;
-    }
-    
-    // 根據購物車資訊創建訂單
-    private void createOrderFromCart(Long memberId, String orderId, List<CartItemDto> cartItems, HttpSession session, String cardNumber) {
-        try {
-            // 計算總金額
-            Long totalAmount = cartItems.stream()
-                .mapToLong(item -> item.getMealPrice() * item.getQuantity())
-                .sum();
-            
-            // 獲取會員資訊 - 直接使用Repository
-            MemberEntity member = memberRepository.findById(memberId)
-                .orElseThrow(() -> new RuntimeException("找不到會員資訊"));
-            
-            // 獲取門市資訊 - 直接使用Repository
-            Long storeId = cartItems.get(0).getStoreId();
-            StoreEntity store = storeRepository.findById(storeId)
-                .orElseThrow(() -> new RuntimeException("找不到門市資訊"));
-            
-            // 獲取取餐時間和備註
-            String pickupTimeStr = (String) session.getAttribute("pickupTime");
-            String orderNotes = (String) session.getAttribute("orderNotes");
-            
-            // 創建訂單主體
-            OrderListEntity orderList = new OrderListEntity();
-            orderList.setOrderListId(orderId);
-            orderList.setOrderAmount(totalAmount);
-            orderList.setOrderDate(LocalDateTime.now());
-            orderList.setOrderStatus(OrderStatus.PENDING); // 預設為處理中
-            orderList.setMember(member);
-            orderList.setStore(store);
-            orderList.setCardNumber(maskCardNumber(cardNumber));
-            orderList.setMealCustomization(orderNotes);
-            
-            // 設定取餐號碼為會員電話末三碼
-            Long pickupNumber = generatePickupNumberFromPhone(member.getPhone());
-            orderList.setMealPickupNumber(pickupNumber);
-            
-            // 設定取餐時間
-            if (pickupTimeStr != null && !pickupTimeStr.trim().isEmpty()) {
-                try {
-                    LocalDateTime pickupTime = LocalDateTime.parse(
-                        LocalDateTime.now().toLocalDate() + "T" + pickupTimeStr + ":00"
-                    );
-                    orderList.setPickupTime(pickupTime);
-                } catch (Exception e) {
-                    // 如果解析失敗，設定為預設時間（當前時間+30分鐘）
-                    orderList.setPickupTime(LocalDateTime.now().plusMinutes(30));
-                }
-            }
-            
-            // 儲存訂單
-            OrderListEntity savedOrder = orderListService.createOrder(orderList);
-            
-            // 創建訂單明細
-            for (CartItemDto cartItem : cartItems) {
-                OrderListInfoEntity orderInfo = new OrderListInfoEntity();
-                orderInfo.setOrderList(savedOrder);
-                
-                // 設定餐點資訊
-                MealEntity meal = new MealEntity();
-                meal.setMealId(cartItem.getMealId());
-                orderInfo.setMeal(meal);
-                
-                orderInfo.setMealPrice(cartItem.getMealPrice());
-                orderInfo.setQuantity(cartItem.getQuantity());
-                orderInfo.setReviewStars(0L); // 初始評論星數為0
-                
-                // 儲存訂單明細
-                orderListInfoService.createOrderListInfo(orderInfo);
-            }
-            
-        } catch (Exception e) {
-            e.printStackTrace();
-            throw new RuntimeException("創建訂單失敗: " + e.getMessage());
-        }
-    }
-    
-    // 遮罩信用卡號碼 (只顯示後4位)
-    private String maskCardNumber(String cardNumber) {
-        if (cardNumber == null || cardNumber.length() < 4) {
-            return "****";
-        }
-        String cleanCardNumber = cardNumber.replaceAll("\\D", "");
-        if (cleanCardNumber.length() >= 4) {
-            return "************" + cleanCardNumber.substring(cleanCardNumber.length() - 4);
-        }
-        return "****";
-    }
-    
-    // 從電話號碼生成取餐號碼 (取末三位數字)
-    private Long generatePickupNumberFromPhone(String phone) {
-        if (phone == null || phone.trim().isEmpty()) {
-            return 999L; // 預設值
-        }
-        
-        // 移除非數字字符
-        String cleanPhone = phone.replaceAll("\\D", "");
-        
-        if (cleanPhone.length() >= 3) {
-            String lastThreeDigits = cleanPhone.substring(cleanPhone.length() - 3);
-            try {
-                return Long.parseLong(lastThreeDigits);
-            } catch (NumberFormatException e) {
-                return 999L; // 預設值
-            }
-        } else {
-            return 999L; // 預設值
-        }
+        return orderIdSequenceService.nextOrderId();
     }
     
     // 訂單付款DTO
@@ -479,6 +520,7 @@ public class OrderController {
         private String pickupTime;
         private String storeName;
         private Long totalAmount;
+        private String checkoutToken;
         
         // Getters and Setters
         public String getOrderListId() { return orderListId; }
@@ -491,6 +533,8 @@ public class OrderController {
         public void setStoreName(String storeName) { this.storeName = storeName; }
         public Long getTotalAmount() { return totalAmount; }
         public void setTotalAmount(Long totalAmount) { this.totalAmount = totalAmount; }
+        public String getCheckoutToken() { return checkoutToken; }
+        public void setCheckoutToken(String checkoutToken) { this.checkoutToken = checkoutToken; }
         
         // 為了兼容現有的模板，添加一個store對象
         public StoreDTO getStore() {
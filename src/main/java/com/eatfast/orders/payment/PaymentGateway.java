@@ -0,0 +1,16 @@
+package com.eatfast.orders.payment;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 付款閘道抽象介面。
+ * <p>
+ * 實作必須是非同步的：不可在呼叫端 (Tomcat 請求執行緒) 上等待外部閘道回應，
+ * 而是回傳一個在扣款完成時完成的 CompletableFuture。
+ * 若閘道目前無法受理 (例如執行緒池已滿)，可直接拋出 RejectedExecutionException。
+ * </p>
+ */
+public interface PaymentGateway {
+
+    CompletableFuture<PaymentResult> charge(PaymentRequest request);
+}
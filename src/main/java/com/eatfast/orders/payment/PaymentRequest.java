@@ -0,0 +1,25 @@
+package com.eatfast.orders.payment;
+
+/**
+ * 送往付款閘道的扣款請求。
+ * 卡號只在記憶體中傳遞給閘道，不會寫入資料庫 (資料庫只保存遮罩後的卡號)。
+ */
+public class PaymentRequest {
+
+    private final String orderId;
+    private final Long memberId;
+    private final Long amount;
+    private final String cardNumber;
+
+    public PaymentRequest(String orderId, Long memberId, Long amount, String cardNumber) {
+        this.orderId = orderId;
+        this.memberId = memberId;
+        this.amount = amount;
+        this.cardNumber = cardNumber;
+    }
+
+    public String getOrderId() { return orderId; }
+    public Long getMemberId() { return memberId; }
+    public Long getAmount() { return amount; }
+    public String getCardNumber() { return cardNumber; }
+}
@@ -0,0 +1,40 @@
+package com.eatfast.orders.payment;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 本地模擬付款閘道 - 取代原本在請求執行緒上 Thread.sleep(1000) 的做法。
+ * 模擬的閘道延遲發生在有界的付款執行緒池中，一律回傳扣款成功。
+ */
+@Component
+public class SimulatedPaymentGateway implements PaymentGateway {
+
+    private final Executor paymentExecutor;
+
+    @Value("${app.payment.simulated-latency-ms:1000}")
+    private long simulatedLatencyMs;
+
+    public SimulatedPaymentGateway(@Qualifier("paymentExecutor") Executor paymentExecutor) {
+        this.paymentExecutor = paymentExecutor;
+    }
+
+    @Override
+    public CompletableFuture<PaymentResult> charge(PaymentRequest request) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                // 模擬外部閘道的回應時間
+                Thread.sleep(simulatedLatencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return PaymentResult.failure("付款處理中斷");
+            }
+            return PaymentResult.success("SIM-" + UUID.randomUUID());
+        }, paymentExecutor);
+    }
+}
@@ -0,0 +1,147 @@
+package com.eatfast.orders.service;
+
+import com.eatfast.cart.dto.CartDTO.CartItemDto;
+import com.eatfast.meal.model.MealRepository;
+import com.eatfast.member.repository.MemberRepository;
+import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderStatus;
+import com.eatfast.orderlist.model.PaymentStatus;
+import com.eatfast.orderlist.service.OrderListService;
+import com.eatfast.orderlist.service.PickupSlotService;
+import com.eatfast.orderlistinfo.model.OrderListInfoEntity;
+import com.eatfast.orderlistinfo.service.OrderListInfoService;
+import com.eatfast.store.repository.StoreRepository;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 結帳服務 - 在單一交易中把購物車轉成訂單。
+ * <p>
+ * 無論購物車有幾行，往返次數都是固定的：
+ * 1. 確認會員存在
+ * 2. INSERT 訂單主檔 (會員 / 門市以 getReferenceById 代理物件關聯，不重新查詢)
+ * 3. 以 JDBC 批次 INSERT 所有訂單明細 (餐點同樣以代理物件關聯)
+ * 每筆訂單都會先向 PickupSlotService 預約取餐時段的名額 (Redis 一次往返)，時段額滿時不建立訂單；
+ * 未指定取餐時間時使用最早可選擇的時段。
+ * 取餐號碼由 OrderListService 依門市每日循環配發 (Redis 一次往返)。
+ * 購物車在付款成功後才由 PaymentService 清空。
+ * </p>
+ */
+@Service
+public class CheckoutService {
+
+    private final OrderListService orderListService;
+    private final OrderListInfoService orderListInfoService;
+    private final MemberRepository memberRepository;
+    private final StoreRepository storeRepository;
+    private final MealRepository mealRepository;
+    private final PickupSlotService pickupSlotService;
+
+    public CheckoutService(OrderListService orderListService,
+                           OrderListInfoService orderListInfoService,
+                           MemberRepository memberRepository,
+                           StoreRepository storeRepository,
+                           MealRepository mealRepository,
+                           PickupSlotService pickupSlotService) {
+        this.orderListService = orderListService;
+        this.orderListInfoService = orderListInfoService;
+        this.memberRepository = memberRepository;
+        this.storeRepository = storeRepository;
+        this.mealRepository = mealRepository;
+        this.pickupSlotService = pickupSlotService;
+    }
+
+    /**
+     * 根據購物車資訊建立訂單主檔與明細 (付款狀態為 AWAITING)。
+     * @param memberId 會員 ID
+     * @param orderId 訂單編號
+     * @param cartItems 購物車項目 (不可為空)
+     * @param pickupTimeStr 取餐時間 (HH:mm)；為 null 時使用最早可選擇的取餐時段
+     * @param orderNotes 訂單備註，可為 null
+     * @param cardNumber 信用卡號碼 (只會保存遮罩後的值)
+     * @return 已寫入的訂單主檔
+     * @throws com.eatfast.orderlist.exception.PickupSlotFullException 取餐時段已額滿
+     * @throws com.eatfast.orderlist.exception.PickupSlotUnavailableException 取餐時間已無法選擇
+     */
+    @Transactional
+    public OrderListEntity placeOrder(Long memberId, String orderId, List<CartItemDto> cartItems,
+                                      String pickupTimeStr, String orderNotes, String cardNumber) {
+        // 計算總金額
+        Long totalAmount = cartItems.stream()
+            .mapToLong(item -> item.getMealPrice() * item.getQuantity())
+            .sum();
+
+        // 確認會員存在 (訂單主檔以代理物件關聯會員，不載入整個會員實體)
+        if (!memberRepository.existsById(memberId)) {
+            throw new EntityNotFoundException("找不到會員資訊");
+        }
+
+        Long storeId = cartItems.get(0).getStoreId();
+
+        // 創建訂單主體
+        OrderListEntity orderList = new OrderListEntity();
+        orderList.setOrderListId(orderId);
+        orderList.setOrderAmount(totalAmount);
+        orderList.setOrderDate(LocalDateTime.now());
+        orderList.setOrderStatus(OrderStatus.PENDING); // 預設為處理中
+        orderList.setPaymentStatus(PaymentStatus.AWAITING); // 等待付款閘道回覆
+        orderList.setMember(memberRepository.getReferenceById(memberId));
+        orderList.setStore(storeRepository.getReferenceById(storeId));
+        orderList.setCardNumber(maskCardNumber(cardNumber));
+        orderList.setMealCustomization(orderNotes);
+
+        // 【優化】取餐號碼改由門市每日循環配號，取代會員電話末三碼 (同時段常有重複號碼)
+        orderList.setMealPickupNumber(orderListService.allocatePickupNumber(storeId));
+
+        // 設定取餐時間
+        // 【修正】未指定 (或無法解析) 時改用最早可選擇的取餐時段，每筆訂單都會經過時段容量控管
+        LocalDateTime pickupTime = null;
+        if (pickupTimeStr != null && !pickupTimeStr.trim().isEmpty()) {
+            try {
+                pickupTime = LocalDateTime.parse(
+                    LocalDateTime.now().toLocalDate() + "T" + pickupTimeStr.trim() + ":00"
+                );
+            } catch (Exception e) {
+                // 格式錯誤時與未指定相同
+            }
+        }
+        orderList.setPickupTime(pickupTime != null ? pickupTime : pickupSlotService.getEarliestPickupTime());
+        // 預約取餐時段名額 (時段無法選擇或額滿時拋出例外，整筆交易回滾)
+        pickupSlotService.reserve(storeId, orderList.getPickupTime());
+
+        // 儲存訂單主檔
+        OrderListEntity savedOrder = orderListService.createOrder(orderList);
+
+        // 創建訂單明細，一次批次寫入
+        List<OrderListInfoEntity> details = new ArrayList<>(cartItems.size());
+        for (CartItemDto cartItem : cartItems) {
+            OrderListInfoEntity orderInfo = new OrderListInfoEntity();
+            orderInfo.setOrderList(savedOrder);
+            orderInfo.setMeal(mealRepository.getReferenceById(cartItem.getMealId()));
+            orderInfo.setMealPrice(cartItem.getMealPrice());
+            orderInfo.setQuantity(cartItem.getQuantity());
+            orderInfo.setReviewStars(0L); // 初始評論星數為0
+            details.add(orderInfo);
+        }
+        orderListInfoService.createOrderListInfos(details);
+
+        return savedOrder;
+    }
+
+    // 遮罩信用卡號碼 (只顯示後4位)
+    private String maskCardNumber(String cardNumber) {
+        if (cardNumber == null || cardNumber.length() < 4) {
+            return "****";
+        }
+        String cleanCardNumber = cardNumber.replaceAll("\\D", "");
+        if (cleanCardNumber.length() >= 4) {
+            return "************" + cleanCardNumber.substring(cleanCardNumber.length() - 4);
+        }
+        return "****";
+    }
+}
@@ -0,0 +1,183 @@
+package com.eatfast.orders.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 結帳冪等權杖 (idempotency key)。
+ * <p>
+ * 付款頁 (/orders/pay) 顯示時發出一個權杖，與會員及訂單編號一起存在 Redis (有 TTL)；
+ * 送出付款 (/orders/process-payment) 時以 Lua 腳本原子地把權杖從 ISSUED 改為 PROCESSING，
+ * 只有第一個請求能取得權杖並建立訂單。重複送出或瀏覽器重試會直接導向第一次請求的結果，
+ * 不會再寫入任何資料。
+ * </p>
+ * Redis 不可用時回傳 UNAVAILABLE，由呼叫端改以訂單編號是否已存在判斷 (訂單主鍵仍保證不會重複建立)。
+ */
+@Service
+public class CheckoutTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutTokenService.class);
+
+    private static final String REDIS_KEY_PREFIX = "checkout:token:";
+
+    private static final String STATE_ISSUED = "ISSUED";
+    private static final String STATE_PROCESSING = "PROCESSING";
+    private static final String STATE_COMPLETED = "COMPLETED";
+
+    /**
+     * KEYS[1] = 權杖 key
+     * ARGV[1] = 送出請求的會員 ID
+     * 回傳值 = "取得前的狀態:訂單編號"；權杖不存在或不屬於該會員時回傳 "INVALID:"
+     */
+    private static final DefaultRedisScript<String> CLAIM_SCRIPT = new DefaultRedisScript<>(
+            "local values = redis.call('HMGET', KEYS[1], 'state', 'memberId', 'orderId') " +
+            "if not values[1] or values[2] ~= ARGV[1] then return 'INVALID:' end " +
+            "if values[1] == 'ISSUED' then redis.call('HSET', KEYS[1], 'state', 'PROCESSING') end " +
+            "return values[1] .. ':' .. values[3]",
+            String.class);
+
+    // 處理失敗時歸還權杖：只有仍在 PROCESSING 的權杖會改回 ISSUED，已完成的不受影響
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'state') == 'PROCESSING' then " +
+            "  redis.call('HSET', KEYS[1], 'state', 'ISSUED') return 1 " +
+            "end " +
+            "return 0",
+            Long.class);
+
+    public enum Status {
+        CLAIMED,      // 第一次送出，可以建立訂單
+        IN_PROGRESS,  // 相同權杖的請求正在處理中
+        COMPLETED,    // 相同權杖的請求已完成
+        INVALID,      // 權杖不存在、已過期或不屬於該會員
+        UNAVAILABLE   // Redis 不可用，無法判斷
+    }
+
+    /**
+     * 權杖取得結果。
+     */
+    public static final class Claim {
+        private final Status status;
+        private final String orderId;
+
+        private Claim(Status status, String orderId) {
+            this.status = status;
+            this.orderId = orderId;
+        }
+
+        public Status getStatus() { return status; }
+
+        // 權杖對應的訂單編號 (INVALID / UNAVAILABLE 時為 null)
+        public String getOrderId() { return orderId; }
+    }
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${app.checkout.token-ttl-seconds:1800}")
+    private long tokenTtlSeconds;
+
+    public CheckoutTokenService(StringRedisTemplate stringRedisTemplate) {
+        this.stringRedisTemplate = stringRedisTemplate;
+    }
+
+    /**
+     * 為付款頁發出權杖。
+     * @param memberId 會員 ID
+     * @param orderId 付款頁顯示的訂單編號
+     * @return 權杖；Redis 不可用時回傳 null
+     */
+    public String issue(Long memberId, String orderId) {
+        String token = UUID.randomUUID().toString();
+        String key = REDIS_KEY_PREFIX + token;
+        try {
+            stringRedisTemplate.opsForHash().putAll(key, Map.of(
+                    "state", STATE_ISSUED,
+                    "memberId", String.valueOf(memberId),
+                    "orderId", orderId));
+            stringRedisTemplate.expire(key, tokenTtlSeconds, TimeUnit.SECONDS);
+            return token;
+        } catch (Exception e) {
+            log.warn("發出結帳權杖失敗 - memberId: {}, 錯誤: {}", memberId, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 以權杖取得建立訂單的資格 (一次 Redis 往返)。
+     * 【修正】表單沒有權杖 (付款頁產生時 Redis 不可用，{@link #issue} 回傳 null) 時視為 UNAVAILABLE，
+     * 由呼叫端改用訂單編號判斷重複送出，不會一直被導回付款頁。
+     * @param token 付款表單送回的權杖，可為 null
+     * @param memberId 送出請求的會員 ID
+     */
+    public Claim claim(String token, Long memberId) {
+        if (token == null || token.isBlank()) {
+            return new Claim(Status.UNAVAILABLE, null);
+        }
+        String result;
+        try {
+            result = stringRedisTemplate.execute(CLAIM_SCRIPT, List.of(REDIS_KEY_PREFIX + token), String.valueOf(memberId));
+        } catch (Exception e) {
+            log.warn("取得結帳權杖失敗 - memberId: {}, 錯誤: {}", memberId, e.getMessage());
+            return new Claim(Status.UNAVAILABLE, null);
+        }
+        if (result == null) {
+            return new Claim(Status.UNAVAILABLE, null);
+        }
+        int separator = result.indexOf(':');
+        String state = result.substring(0, separator);
+        String orderId = result.substring(separator + 1);
+        switch (state) {
+            case STATE_ISSUED:
+                return new Claim(Status.CLAIMED, orderId);
+            case STATE_PROCESSING:
+                return new Claim(Status.IN_PROGRESS, orderId);
+            case STATE_COMPLETED:
+                return new Claim(Status.COMPLETED, orderId);
+            default:
+                return new Claim(Status.INVALID, null);
+        }
+    }
+
+    /**
+     * 權杖是否仍在處理中 (第一個請求尚未建立訂單或尚未提交)，不會改變權杖狀態。
+     * @return Redis 不可用或權杖不存在時回傳 false
+     */
+    public boolean isProcessing(String token) {
+        if (token == null || token.isBlank()) {
+            return false;
+        }
+        try {
+            return STATE_PROCESSING.equals(stringRedisTemplate.opsForHash().get(REDIS_KEY_PREFIX + token, "state"));
+        } catch (Exception e) {
+            log.warn("查詢結帳權杖狀態失敗 - 錯誤: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    // 訂單已建立並送出付款，之後相同權杖的請求都導向此訂單
+    public void complete(String token) {
+        try {
+            stringRedisTemplate.opsForHash().put(REDIS_KEY_PREFIX + token, "state", STATE_COMPLETED);
+        } catch (Exception e) {
+            // 權杖停留在 PROCESSING 時重複送出同樣會導向原訂單
+            log.warn("更新結帳權杖狀態失敗 - 錯誤: {}", e.getMessage());
+        }
+    }
+
+    // 處理失敗 (未建立訂單)，讓同一個權杖可以再次送出
+    public void release(String token) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(REDIS_KEY_PREFIX + token));
+        } catch (Exception e) {
+            log.warn("歸還結帳權杖失敗 - 錯誤: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.eatfast.orders.service;
+
+import com.eatfast.cart.service.CartService;
+import com.eatfast.orderlist.model.PaymentStatus;
+import com.eatfast.orderlist.service.OrderListService;
+import com.eatfast.orders.payment.PaymentGateway;
+import com.eatfast.orders.payment.PaymentRequest;
+import com.eatfast.orders.payment.PaymentResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 非同步付款階段。
+ * <p>
+ * 訂單建立後 (付款狀態 AWAITING) 即把扣款交給 PaymentGateway，請求執行緒立即返回；
+ * 閘道完成時在付款執行緒上將訂單轉為 PAID (並清空購物車) 或 FAILED (並取消訂單)。
+ * 前端的付款結果頁以輪詢 /orders/payment-status 取得最新狀態。
+ * </p>
+ */
+@Service
+public class PaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentService.class);
+
+    private final PaymentGateway paymentGateway;
+    private final OrderListService orderListService;
+    private final CartService cartService;
+
+    public PaymentService(PaymentGateway paymentGateway,
+                          OrderListService orderListService,
+                          CartService cartService) {
+        this.paymentGateway = paymentGateway;
+        this.orderListService = orderListService;
+        this.cartService = cartService;
+    }
+
+    /**
+     * 送出扣款請求，不等待結果。
+     * @param request 扣款請求 (訂單必須已建立且付款狀態為 AWAITING)
+     */
+    public void submitPayment(PaymentRequest request) {
+        try {
+            paymentGateway.charge(request).whenComplete((result, ex) -> {
+                if (ex != null) {
+                    log.error("付款閘道處理失敗 - orderId: {}, 錯誤: {}", request.getOrderId(), ex.getMessage(), ex);
+                    completePayment(request, PaymentResult.failure("付款處理失敗，請稍後再試"));
+                } else {
+                    completePayment(request, result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("付款執行緒池已滿，拒絕付款 - orderId: {}", request.getOrderId());
+            completePayment(request, PaymentResult.failure("系統忙碌中，請稍後再試"));
+        }
+    }
+
+    private void completePayment(PaymentRequest request, PaymentResult result) {
+        try {
+            if (result.isSuccess()) {
+                orderListService.recordPaymentResult(request.getOrderId(), PaymentStatus.PAID);
+                // 付款成功後才清空購物車，付款失敗時顧客可直接以原購物車重試
+                cartService.clearCartByMember(request.getMemberId());
+                log.info("付款成功 - orderId: {}, transactionId: {}", request.getOrderId(), result.getTransactionId());
+            } else {
+                orderListService.recordPaymentResult(request.getOrderId(), PaymentStatus.FAILED);
+                log.warn("付款失敗 - orderId: {}, 原因: {}", request.getOrderId(), result.getMessage());
+            }
+        } catch (Exception e) {
+            log.error("更新付款結果失敗 - orderId: {}, 錯誤: {}", request.getOrderId(), e.getMessage(), e);
+        }
+    }
+}
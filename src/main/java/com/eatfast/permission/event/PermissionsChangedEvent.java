@@ -0,0 +1,22 @@
+package com.eatfast.permission.event;
+
+/**
+ * 權限異動事件 (授予 / 撤銷權限、員工角色變更或刪除)，經由 Spring 的應用程式事件在程序內發佈。
+ * <p>
+ * 在寫入的交易中發佈，交易提交後 PermissionServiceImpl 才重建角色權限矩陣，
+ * 並透過 Redis pub/sub 通知其他節點重建。
+ * </p>
+ */
+public final class PermissionsChangedEvent {
+
+    private final String reason;
+
+    public PermissionsChangedEvent(String reason) {
+        this.reason = reason;
+    }
+
+    // 異動原因 (記錄用)
+    public String getReason() {
+        return reason;
+    }
+}
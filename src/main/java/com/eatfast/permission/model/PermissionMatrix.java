@@ -0,0 +1,101 @@
+package com.eatfast.permission.model;
+
+import com.eatfast.common.enums.EmployeeRole;
+import com.eatfast.permission.dto.PermissionDto;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 角色 → 權限矩陣 (不可變快照)。
+ * <p>
+ * 內含所有權限，以及每個角色擁有的權限 (以權限 ID 為索引的位元集合)，
+ * 由 PermissionServiceImpl 在啟動時與權限異動後整份重建，查詢時不再存取資料庫。
+ * 回傳的 DTO 與集合由所有呼叫端共用，不可修改。
+ * </p>
+ */
+public final class PermissionMatrix {
+
+    private static final long[] NO_BITS = new long[0];
+
+    private final long version;
+    private final List<PermissionDto> allPermissions;
+    private final Map<EmployeeRole, Set<PermissionDto>> permissionsByRole;
+    private final Map<EmployeeRole, long[]> bitsByRole;
+
+    /**
+     * @param version 版本號 (每次重建遞增)
+     * @param allPermissions 所有權限
+     * @param permissionIdsByRole 每個角色擁有的權限 ID
+     */
+    public PermissionMatrix(long version, List<PermissionDto> allPermissions,
+                            Map<EmployeeRole, ? extends Iterable<Long>> permissionIdsByRole) {
+        this.version = version;
+        this.allPermissions = List.copyOf(allPermissions);
+
+        Map<Long, PermissionDto> byId = new LinkedHashMap<>();
+        for (PermissionDto permission : this.allPermissions) {
+            byId.put(permission.getPermissionId(), permission);
+        }
+
+        Map<EmployeeRole, Set<PermissionDto>> byRole = new EnumMap<>(EmployeeRole.class);
+        Map<EmployeeRole, long[]> bits = new EnumMap<>(EmployeeRole.class);
+        for (EmployeeRole role : EmployeeRole.values()) {
+            Iterable<Long> ids = permissionIdsByRole.get(role);
+            Set<PermissionDto> permissions = new LinkedHashSet<>();
+            long[] roleBits = NO_BITS;
+            if (ids != null) {
+                for (Long id : ids) {
+                    PermissionDto permission = byId.get(id);
+                    if (permission == null || id < 0) {
+                        continue;
+                    }
+                    permissions.add(permission);
+                    int word = (int) (id >> 6);
+                    if (word >= roleBits.length) {
+                        roleBits = Arrays.copyOf(roleBits, word + 1);
+                    }
+                    roleBits[word] |= 1L << id;
+                }
+            }
+            byRole.put(role, Collections.unmodifiableSet(permissions));
+            bits.put(role, roleBits);
+        }
+        this.permissionsByRole = Collections.unmodifiableMap(byRole);
+        this.bitsByRole = bits;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // 所有權限
+    public List<PermissionDto> getAllPermissions() {
+        return allPermissions;
+    }
+
+    // 角色擁有的權限 (沒有任何權限時為空集合)
+    public Set<PermissionDto> getPermissions(EmployeeRole role) {
+        return role != null ? permissionsByRole.get(role) : Collections.emptySet();
+    }
+
+    /**
+     * 角色是否擁有指定權限 (只做位元測試)。
+     * @param role 員工角色
+     * @param permissionId 權限 ID
+     */
+    public boolean hasPermission(EmployeeRole role, long permissionId) {
+        if (role == null || permissionId < 0) {
+            return false;
+        }
+        long[] roleBits = bitsByRole.get(role);
+        long word = permissionId >> 6;
+        return word < roleBits.length && (roleBits[(int) word] & (1L << permissionId)) != 0;
+    }
+}
@@ -31,4 +31,11 @@ public interface PermissionRepository extends JpaRepository<PermissionEntity, Lo
      */
     @Query("SELECT DISTINCT p FROM PermissionEntity p JOIN p.employeePermissions ep JOIN ep.employee e WHERE e.role = :role")
     Set<PermissionEntity> findPermissionsByEmployeeRole(@Param("role") EmployeeRole role);
+
+    /**
+     * 【新增方法】: 一次查出所有「角色 - 權限 ID」組合，供建立角色權限矩陣使用。
+     * @return 每筆為 [EmployeeRole, Long permissionId]。
+     */
+    @Query("SELECT DISTINCT e.role, p.permissionId FROM PermissionEntity p JOIN p.employeePermissions ep JOIN ep.employee e")
+    List<Object[]> findRolePermissionIds();
 }
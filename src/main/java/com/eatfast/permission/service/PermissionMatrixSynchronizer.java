@@ -0,0 +1,97 @@
+package com.eatfast.permission.service;
+
+import com.eatfast.permission.event.PermissionsChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * 角色權限矩陣的載入與跨節點同步。
+ * <ul>
+ * <li>啟動時載入一次。</li>
+ * <li>本節點發佈 {@link PermissionsChangedEvent} 的交易提交後重建，並在 Redis 頻道發佈通知。</li>
+ * <li>收到其他節點的通知時重建 (自己發出的通知略過)。</li>
+ * <li>定期重建，補上 Redis 不可用時遺漏的通知，以及未經服務層的異動 (例如直接修改資料庫)。</li>
+ * </ul>
+ */
+@Component
+public class PermissionMatrixSynchronizer implements CommandLineRunner, MessageListener {
+
+    private static final Logger log = LoggerFactory.getLogger(PermissionMatrixSynchronizer.class);
+
+    private static final ChannelTopic CHANNEL = new ChannelTopic("eatfast:permission:changed");
+
+    // 本節點的識別碼，用來略過自己發出的通知
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final PermissionService permissionService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    @Value("${app.permission.matrix.redis-sync.enabled:true}")
+    private boolean redisSyncEnabled;
+
+    public PermissionMatrixSynchronizer(PermissionService permissionService,
+                                        StringRedisTemplate stringRedisTemplate,
+                                        RedisMessageListenerContainer listenerContainer) {
+        this.permissionService = permissionService;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.listenerContainer = listenerContainer;
+    }
+
+    @Override
+    public void run(String... args) {
+        if (redisSyncEnabled) {
+            listenerContainer.addMessageListener(this, CHANNEL);
+        }
+        refresh();
+    }
+
+    /**
+     * 權限異動的交易提交後重建本節點的矩陣，並通知其他節點。
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPermissionsChanged(PermissionsChangedEvent event) {
+        log.info("權限異動，重建角色權限矩陣 - 原因: {}", event.getReason());
+        refresh();
+        if (redisSyncEnabled) {
+            try {
+                stringRedisTemplate.convertAndSend(CHANNEL.getTopic(), nodeId);
+            } catch (Exception e) {
+                // 其他節點會在下一次定期重建時更新
+                log.warn("發佈權限異動通知失敗 - 錯誤: {}", e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String origin = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!nodeId.equals(origin)) {
+            refresh();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.permission.matrix.refresh-interval-ms:300000}",
+               initialDelayString = "${app.permission.matrix.refresh-interval-ms:300000}")
+    public void refresh() {
+        try {
+            permissionService.refreshMatrix();
+        } catch (Exception e) {
+            // 沿用上一版矩陣，下一次通知或定期重建時再試
+            log.error("角色權限矩陣重建失敗: {}", e.getMessage(), e);
+        }
+    }
+}
@@ -23,4 +23,17 @@ public interface PermissionService {
      * @return 返回一個包含該角色所有權限 DTO 的 Set 集合。
      */
     Set<PermissionDto> findPermissionsByRole(EmployeeRole role);
+
+    /**
+     * 【新增方法】: 檢查角色是否擁有指定權限 (查詢記憶體中的角色權限矩陣，不存取資料庫)。
+     * @param role 員工角色。
+     * @param permissionId 權限 ID。
+     * @return 角色擁有該權限時回傳 true。
+     */
+    boolean hasPermission(EmployeeRole role, Long permissionId);
+
+    /**
+     * 【新增方法】: 從資料庫重新載入角色權限矩陣 (啟動時與權限異動後呼叫)。
+     */
+    void refreshMatrix();
 }
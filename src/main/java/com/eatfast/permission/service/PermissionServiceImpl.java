@@ -3,12 +3,17 @@ package com.eatfast.permission.service;
 import com.eatfast.common.enums.EmployeeRole;
 import com.eatfast.permission.dto.PermissionDto;
 import com.eatfast.permission.mapper.PermissionMapper;
+import com.eatfast.permission.model.PermissionMatrix;
 import com.eatfast.permission.repository.PermissionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -16,13 +21,23 @@ import java.util.stream.Collectors;
  * [可自定義的類別名稱]: PermissionServiceImpl - 【已重構】
  * 權限服務 (PermissionService) 的主要實作類別。
  * @Service: (不可變動) 標記此類別為服務層的 Spring Bean。
+ * <p>
+ * 【優化】權限只在管理員授予 / 撤銷時變動，因此所有查詢改由記憶體中的角色權限矩陣 (PermissionMatrix) 回答，
+ * 不再每次呼叫都查詢 PermissionRepository 並轉換 DTO。矩陣在啟動時載入，
+ * 權限異動後由 PermissionMatrixSynchronizer 呼叫 {@link #refreshMatrix()} 整份重建。
+ * </p>
  */
 @Service
 public class PermissionServiceImpl implements PermissionService {
 
+    private static final Logger log = LoggerFactory.getLogger(PermissionServiceImpl.class);
+
     private final PermissionRepository permissionRepository;
     private final PermissionMapper permissionMapper;
 
+    // 目前使用中的矩陣；重建時整份替換，讀取端不需要加鎖
+    private volatile PermissionMatrix matrix;
+
     @Autowired
     public PermissionServiceImpl(PermissionRepository permissionRepository, PermissionMapper permissionMapper) {
         this.permissionRepository = permissionRepository;
@@ -30,27 +45,52 @@ public class PermissionServiceImpl implements PermissionService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<PermissionDto> findAllPermissions() {
-        return permissionRepository.findAll()
-                .stream()
-                .map(permissionMapper::toDto)
-                .collect(Collectors.toList());
+        return currentMatrix().getAllPermissions();
     }
 
     /**
      * 【新增方法實作】: 根據角色查詢權限。
-     * - @Transactional(readOnly = true): (不可變動) 宣告為唯讀交易以優化效能。
      */
     @Override
-    @Transactional(readOnly = true)
     public Set<PermissionDto> findPermissionsByRole(EmployeeRole role) {
-        // 1. 呼叫 Repository 中新定義的查詢方法
-        return permissionRepository.findPermissionsByEmployeeRole(role)
-                // 2. 使用 Stream API 將實體集合轉換為 DTO 集合
+        return currentMatrix().getPermissions(role);
+    }
+
+    @Override
+    public boolean hasPermission(EmployeeRole role, Long permissionId) {
+        return permissionId != null && currentMatrix().hasPermission(role, permissionId);
+    }
+
+    /**
+     * 重建角色權限矩陣 (兩次查詢：所有權限、所有角色 - 權限組合)。
+     * 以 synchronized 讓同時觸發的重建依序執行，版本號只會遞增。
+     */
+    @Override
+    public synchronized void refreshMatrix() {
+        List<PermissionDto> permissions = permissionRepository.findAll()
                 .stream()
                 .map(permissionMapper::toDto)
-                // 3. 收集成 Set 並返回
-                .collect(Collectors.toSet());
+                .collect(Collectors.toList());
+
+        Map<EmployeeRole, List<Long>> idsByRole = new EnumMap<>(EmployeeRole.class);
+        for (Object[] row : permissionRepository.findRolePermissionIds()) {
+            idsByRole.computeIfAbsent((EmployeeRole) row[0], role -> new ArrayList<>()).add((Long) row[1]);
+        }
+
+        PermissionMatrix previous = matrix;
+        long version = previous != null ? previous.getVersion() + 1 : 1;
+        matrix = new PermissionMatrix(version, permissions, idsByRole);
+        log.debug("角色權限矩陣已重建 - 版本: {}, 權限數: {}", version, permissions.size());
+    }
+
+    // 啟動載入前就被呼叫時 (例如其他元件的初始化) 先同步載入一次
+    private PermissionMatrix currentMatrix() {
+        PermissionMatrix current = matrix;
+        if (current == null) {
+            refreshMatrix();
+            current = matrix;
+        }
+        return current;
     }
 }
@@ -3,8 +3,10 @@ package com.eatfast.store.repository;
 import com.eatfast.common.enums.StoreStatus;
 import com.eatfast.common.enums.StoreType;
 import com.eatfast.store.model.StoreEntity;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor; // 1. 引入 JpaSpecificationExecutor
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -31,6 +33,11 @@ public interface StoreRepository extends JpaRepository<StoreEntity, Long>, JpaSp
      */
     Optional<StoreEntity> findByStoreName(String storeName);
     Optional<StoreEntity> findByStoreId(Long storeId);
+
+    // 【新增】以悲觀鎖 (SELECT ... FOR UPDATE) 鎖定門市列，Redis 不可用時用來依序處理同一門市的取餐時段預約
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM StoreEntity s WHERE s.storeId = :storeId")
+    Optional<StoreEntity> findForUpdate(@Param("storeId") Long storeId);
     
     // 根據多個條件查詢門市列表
     List<StoreEntity> findByStoreNameContainingAndStoreLocContainingAndStoreTimeContainingAndStoreStatus(
@@ -0,0 +1,105 @@
+package com.eatfast.architecture;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 架構守門測試：禁止在交易資料表 (訂單 / 訂單明細) 上呼叫沒有上限的 findAll()。
+ * <p>
+ * 這兩張表會隨營運時間持續成長，整表載入會讓記憶體與延遲跟著歷史資料量增加；
+ * 查詢必須改用有索引、有分頁的 Repository 方法。
+ * 檢查方式：在 src/main/java 中找出宣告為這些 Repository 型別的變數，
+ * 再找出對該變數呼叫 findAll() 或 findAll(Sort ...) 的位置。
+ * </p>
+ */
+class UnboundedFindAllGuardTest {
+
+    private static final Path SOURCE_ROOT = Paths.get("src", "main", "java");
+
+    // 交易資料表對應的 Repository
+    private static final Set<String> TRANSACTIONAL_REPOSITORIES = Set.of(
+            "OrderListRepository",
+            "OrderListInfoRepository");
+
+    private static final Pattern DECLARATION = Pattern.compile(
+            "\\b(" + String.join("|", TRANSACTIONAL_REPOSITORIES) + ")\\s+(\\w+)\\s*[;,=)]");
+
+    @Test
+    void transactionalTablesAreNeverLoadedWithUnboundedFindAll() throws IOException {
+        List<String> violations = new ArrayList<>();
+        int filesUsingRepositories = 0;
+
+        try (Stream<Path> files = Files.walk(SOURCE_ROOT)) {
+            for (Path file : (Iterable<Path>) files.filter(p -> p.toString().endsWith(".java"))::iterator) {
+                String source = Files.readString(file, StandardCharsets.UTF_8);
+                Set<String> variables = repositoryVariables(source);
+                if (variables.isEmpty()) {
+                    continue;
+                }
+                filesUsingRepositories++;
+                violations.addAll(findUnboundedCalls(file, source, variables));
+            }
+        }
+
+        assertTrue(filesUsingRepositories > 0, "找不到任何使用訂單 Repository 的類別，請確認掃描路徑: " + SOURCE_ROOT);
+        assertTrue(violations.isEmpty(),
+                "交易資料表不可使用沒有上限的 findAll()，請改用分頁查詢:\n" + String.join("\n", violations));
+    }
+
+    @Test
+    void detectsUnboundedCalls() {
+        String source = "class A { private final OrderListInfoRepository repo;\n"
+                + " void a() { repo.findAll().stream(); }\n"
+                + " void b() { repo.findAll(Sort.by(\"orderDate\")); }\n"
+                + " void c() { repo.findAll(PageRequest.of(0, 20)); } }";
+        List<String> violations = findUnboundedCalls(Paths.get("A.java"), source, repositoryVariables(source));
+        assertEquals(2, violations.size(), "分頁的 findAll(Pageable) 不應被視為違規: " + violations);
+    }
+
+    private static Set<String> repositoryVariables(String source) {
+        Set<String> variables = new LinkedHashSet<>();
+        Matcher m = DECLARATION.matcher(source);
+        while (m.find()) {
+            variables.add(m.group(2));
+        }
+        return variables;
+    }
+
+    private static List<String> findUnboundedCalls(Path file, String source, Set<String> variables) {
+        List<String> violations = new ArrayList<>();
+        for (String variable : variables) {
+            Pattern call = Pattern.compile(
+                    "\\b" + Pattern.quote(variable) + "\\s*\\.\\s*findAll\\s*\\(\\s*(\\)|Sort\\b)");
+            Matcher m = call.matcher(source);
+            while (m.find()) {
+                violations.add(file + ":" + lineOf(source, m.start()) + " " + variable + ".findAll(...)");
+            }
+        }
+        return violations;
+    }
+
+    private static int lineOf(String source, int offset) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (source.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+}
@@ -0,0 +1,97 @@
+package com.eatfast.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * InMemoryRateLimiter 的滑動視窗 / 權杖桶判斷、重設與過期清除 (以可控制的時鐘驗證)。
+ */
+class InMemoryRateLimiterTest {
+
+    private final AtomicLong now = new AtomicLong(10_000);
+    private final InMemoryRateLimiter limiter = new InMemoryRateLimiter(now::get);
+
+    @Test
+    void slidingWindowAllowsLimitPerWindow() {
+        RateLimitRule rule = RateLimitRule.slidingWindow("test:sliding", 2, Duration.ofSeconds(1));
+
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        advance(100);
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        advance(100);
+        RateLimitDecision denied = limiter.tryAcquire(rule, "a");
+        assertFalse(denied.isAllowed());
+        assertEquals(800, denied.getRetryAfterMillis());
+
+        // 其他 key 各自計數
+        assertTrue(limiter.tryAcquire(rule, "b").isAllowed());
+
+        // 第一次請求滑出視窗後才再允許一次
+        advance(800);
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        advance(50);
+        RateLimitDecision deniedAgain = limiter.tryAcquire(rule, "a");
+        assertFalse(deniedAgain.isAllowed());
+        assertEquals(50, deniedAgain.getRetryAfterMillis());
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRefills() {
+        RateLimitRule rule = RateLimitRule.tokenBucket("test:bucket", 2, Duration.ofSeconds(1));
+
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        RateLimitDecision denied = limiter.tryAcquire(rule, "a");
+        assertFalse(denied.isAllowed());
+        assertEquals(500, denied.getRetryAfterMillis());
+
+        // 每 500 毫秒補充一個權杖
+        advance(500);
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        assertFalse(limiter.tryAcquire(rule, "a").isAllowed());
+
+        // 補滿後最多只累積到容量
+        advance(5_000);
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        assertFalse(limiter.tryAcquire(rule, "a").isAllowed());
+    }
+
+    @Test
+    void resetClearsKey() {
+        RateLimitRule rule = RateLimitRule.slidingWindow("test:reset", 1, Duration.ofSeconds(30));
+
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        assertFalse(limiter.tryAcquire(rule, "a").isAllowed());
+
+        limiter.reset(rule, "a");
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+    }
+
+    @Test
+    void idleKeysExpire() {
+        RateLimitRule rule = RateLimitRule.slidingWindow("test:expiry", 1, Duration.ofSeconds(1));
+
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+        assertTrue(limiter.tryAcquire(rule, "b").isAllowed());
+        assertEquals(2, limiter.trackedKeys(rule));
+
+        // 視窗過後的下一次請求順手清除已過期的 key
+        advance(2_000);
+        assertTrue(limiter.tryAcquire(rule, "c").isAllowed());
+        assertEquals(1, limiter.trackedKeys(rule));
+
+        // 被清除的 key 等同於從未請求過
+        assertTrue(limiter.tryAcquire(rule, "a").isAllowed());
+    }
+
+    private void advance(long millis) {
+        now.addAndGet(millis);
+    }
+}
@@ -0,0 +1,62 @@
+package com.eatfast.common.redis;
+
+import com.eatfast.cart.dto.CartDTO.CartItemRedisData;
+import com.eatfast.cart.service.CartItemRedisCodec;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * TypedRedisSerializer 與 GenericJackson2JsonRedisSerializer 的大小 / 編解碼速度比較。
+ * <p>
+ * 計時結果受機器負載影響，不適合當作斷言，因此標記為 benchmark 並在預設的
+ * {@code mvn test} 中排除 (見 pom.xml 的 excludedGroups)；需要時手動執行：
+ * <pre>
+ * mvn test -Dtest=TypedRedisSerializerBenchmark -Dgroups=benchmark -DexcludedGroups=none
+ * </pre>
+ * 正確性檢查在 {@link TypedRedisSerializerTest}。
+ */
+@Tag("benchmark")
+class TypedRedisSerializerBenchmark {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final TypedRedisSerializer typed = new TypedRedisSerializer(
+            List.of(new CartItemRedisCodec(), new StringValueCodec()), json);
+
+    /** 保留每次結果的雜湊，避免 JIT 把沒有使用的編解碼結果整段消除 */
+    private int sink;
+
+    @Test
+    void compareSizeAndThroughput() {
+        CartItemRedisData item = new CartItemRedisData(2L, "不要洋蔥");
+        byte[] typedBytes = typed.serialize(item);
+        byte[] jsonBytes = json.serialize(item);
+
+        long typedEncode = nanosPerOp(() -> typed.serialize(item));
+        long jsonEncode = nanosPerOp(() -> json.serialize(item));
+        long typedDecode = nanosPerOp(() -> typed.deserialize(typedBytes));
+        long jsonDecode = nanosPerOp(() -> json.deserialize(jsonBytes));
+
+        System.out.printf("CartItemRedisData 大小: typed=%d bytes, json=%d bytes%n", typedBytes.length, jsonBytes.length);
+        System.out.printf("encode: typed=%d ns/op, json=%d ns/op%n", typedEncode, jsonEncode);
+        System.out.printf("decode: typed=%d ns/op, json=%d ns/op%n", typedDecode, jsonDecode);
+        System.out.printf("(sink=%d)%n", sink);
+    }
+
+    private long nanosPerOp(Supplier<?> op) {
+        for (int i = 0; i < WARMUP; i++) {
+            sink += op.get().hashCode();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += op.get().hashCode();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+}
@@ -0,0 +1,70 @@
+package com.eatfast.common.redis;
+
+import com.eatfast.cart.dto.CartDTO.CartItemRedisData;
+import com.eatfast.cart.service.CartItemRedisCodec;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * TypedRedisSerializer 的編解碼正確性 (含與 JSON 的大小比較)，
+ * 同時確認舊的 JSON 資料仍可讀取。
+ */
+class TypedRedisSerializerTest {
+
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final TypedRedisSerializer typed = new TypedRedisSerializer(
+            List.of(new CartItemRedisCodec(), new StringValueCodec()), json);
+
+    @Test
+    void cartItemRoundTripAndLegacyJson() {
+        CartItemRedisData item = new CartItemRedisData(3L, "少冰|去辣");
+        CartItemRedisData decoded = (CartItemRedisData) typed.deserialize(typed.serialize(item));
+        assertEquals(3L, decoded.getQuantity());
+        assertEquals("少冰|去辣", decoded.getMealCustomization());
+
+        CartItemRedisData noNote = (CartItemRedisData) typed.deserialize(
+                typed.serialize(new CartItemRedisData(1L, null)));
+        assertNull(noNote.getMealCustomization());
+
+        // 舊版 JSON 仍可讀取
+        Object legacy = typed.deserialize(json.serialize(item));
+        assertInstanceOf(CartItemRedisData.class, legacy);
+        assertEquals(3L, ((CartItemRedisData) legacy).getQuantity());
+    }
+
+    @Test
+    void stringRoundTripAndFallback() {
+        assertEquals("123456", typed.deserialize(typed.serialize("123456")));
+        assertEquals("123456", typed.deserialize(json.serialize("123456")));
+        // 未註冊的型別仍交給 JSON
+        assertEquals(42L, ((Number) typed.deserialize(typed.serialize(42L))).longValue());
+    }
+
+    @Test
+    void roundTripIsSmallerThanJson() {
+        CartItemRedisData item = new CartItemRedisData(2L, "不要洋蔥");
+        byte[] typedBytes = typed.serialize(item);
+        byte[] jsonBytes = json.serialize(item);
+
+        CartItemRedisData decoded = (CartItemRedisData) typed.deserialize(typedBytes);
+        assertEquals(item.getQuantity(), decoded.getQuantity());
+        assertEquals(item.getMealCustomization(), decoded.getMealCustomization());
+        // 不含類別名稱與欄位名稱，應明顯小於 JSON
+        assertTrue(typedBytes.length * 2 < jsonBytes.length,
+                "typed=" + typedBytes.length + " bytes, json=" + jsonBytes.length + " bytes");
+    }
+
+    @Test
+    void nullAndEmptyValues() {
+        assertNull(typed.deserialize(null));
+        assertNull(typed.deserialize(new byte[0]));
+        assertEquals("", typed.deserialize(typed.serialize("")));
+    }
+}
@@ -0,0 +1,95 @@
+package com.eatfast.member.service;
+
+import com.eatfast.member.model.MemberEntity;
+import com.eatfast.member.repository.MemberRepository;
+import com.eatfast.orderlist.model.OrderListEntity;
+import com.eatfast.orderlist.model.OrderStatus;
+import com.eatfast.orderlist.model.OrderStatusEventEntity;
+import com.eatfast.orderlist.repository.OrderListRepository;
+import com.eatfast.orderlist.repository.OrderStatusEventRepository;
+import com.eatfast.orderlist.service.OrderListService;
+import com.eatfast.orderlist.service.PickupNumberAllocator;
+import com.eatfast.store.model.StoreEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 會員取消訂單：經由 OrderListService 的狀態機，只有待處理的訂單可以取消，
+ * 被拒絕時回傳 false 而不是拋出例外。
+ */
+class MemberServiceCancelOrderTest {
+
+    private static final Long MEMBER_ID = 7L;
+    private static final String ORDER_ID = "ORD20260101001";
+
+    private final OrderListRepository orderListRepository = mock(OrderListRepository.class);
+    private final OrderStatusEventRepository orderStatusEventRepository = mock(OrderStatusEventRepository.class);
+    private MemberService memberService;
+
+    @BeforeEach
+    void setUp() {
+        OrderListService orderListService = new OrderListService(orderListRepository, mock(MemberRepository.class),
+                mock(EntityManager.class), mock(ApplicationEventPublisher.class), orderStatusEventRepository,
+                mock(PickupNumberAllocator.class));
+        memberService = new MemberService(mock(MemberRepository.class), orderListRepository, null, null, null,
+                orderListService);
+    }
+
+    @Test
+    void cancelsPendingOrder() {
+        OrderListEntity order = order(OrderStatus.PENDING);
+        when(orderListRepository.findById(ORDER_ID)).thenReturn(Optional.of(order));
+        when(orderListRepository.compareAndSetStatus(ORDER_ID, OrderStatus.PENDING, OrderStatus.CANCELLED))
+                .thenReturn(1);
+
+        assertTrue(memberService.cancelMemberOrder(MEMBER_ID, ORDER_ID));
+        assertEquals(OrderStatus.CANCELLED, order.getOrderStatus());
+        verify(orderStatusEventRepository).save(any(OrderStatusEventEntity.class));
+    }
+
+    @Test
+    void rejectsCompletedOrder() {
+        when(orderListRepository.findById(ORDER_ID)).thenReturn(Optional.of(order(OrderStatus.COMPLETED)));
+
+        assertFalse(memberService.cancelMemberOrder(MEMBER_ID, ORDER_ID));
+        verify(orderListRepository, never()).compareAndSetStatus(anyString(), any(), any());
+        verify(orderStatusEventRepository, never()).save(any(OrderStatusEventEntity.class));
+    }
+
+    @Test
+    void doesNotJoinTheReadOnlyClassTransaction() throws NoSuchMethodException {
+        Transactional transactional = MemberService.class
+                .getMethod("cancelMemberOrder", Long.class, String.class)
+                .getAnnotation(Transactional.class);
+        assertEquals(Propagation.NOT_SUPPORTED, transactional.propagation());
+    }
+
+    private static OrderListEntity order(OrderStatus status) {
+        MemberEntity member = new MemberEntity();
+        member.setMemberId(MEMBER_ID);
+        StoreEntity store = new StoreEntity();
+        store.setStoreId(1L);
+        OrderListEntity order = new OrderListEntity();
+        order.setOrderListId(ORDER_ID);
+        order.setMember(member);
+        order.setStore(store);
+        order.setOrderStatus(status);
+        return order;
+    }
+}